@@ -1,6 +1,7 @@
 package mygame;
 
 import com.jme3.app.SimpleApplication;
+import com.jme3.bounding.BoundingSphere;
 import com.jme3.collision.CollisionResults;
 import com.jme3.input.MouseInput;
 import com.jme3.input.controls.ActionListener;
@@ -10,22 +11,46 @@ import com.jme3.math.FastMath;
 import com.jme3.math.Ray;
 import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Spatial;
 import com.jme3.system.AppSettings;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import mygame.enemies.Enemy;
+import mygame.enemies.EnemyModelCache;
+import mygame.enemies.EnemyPool;
 import mygame.enemies.EnemyType;
 import mygame.map.GameMap;
 import mygame.map.Path;
+import mygame.render.MaterialRegistry;
+import mygame.render.SceneCommandBuffer;
+import mygame.render.TweenState;
+import mygame.sim.EntityHandles;
+import mygame.sim.GameSimulation;
+import mygame.sim.SimulationCommand;
+import mygame.sim.SimulationSnapshot;
+import mygame.sim.SimulationThread;
+import mygame.sim.SnapshotExchange;
+import mygame.sim.TargetingPolicy;
+import mygame.sim.replay.PlayerCommand;
+import mygame.sim.replay.Replay;
+import mygame.sim.replay.ReplayPlayer;
+import mygame.time.TimingWheel;
+import mygame.towers.ProjectilePool;
+import mygame.towers.ProjectileSystem;
 import mygame.towers.Tower;
 import mygame.towers.TowerType;
+import mygame.ui.DebugOverlay;
 import mygame.ui.GameUI;
 import com.jme3.material.Material;
 import com.jme3.scene.Node;
 import com.jme3.math.ColorRGBA;
-import com.jme3.texture.Texture;
 import com.jme3.audio.AudioNode;
 import com.jme3.audio.AudioData.DataType;
 import mygame.menu.MenuState;
@@ -35,23 +60,74 @@ import java.io.*;
 
 public class Main extends SimpleApplication {
 
-    private List<Enemy> enemies = new ArrayList<>();
+    // Simulación del juego (oleadas, movimiento, disparos y economía). La
+    // vista solo lee la última copia publicada en snapshots; con su propio
+    // hilo, la simulación no se toca desde aquí hasta pararlo.
+    private GameSimulation simulation;
+    private SnapshotExchange snapshots;
+    private SimulationSnapshot snapshot;
+    private SimulationThread simulationThread; // null: la simulación avanza en simpleUpdate
+    private Long fixedSeed = null; // Semilla pasada por línea de comandos, o null para una nueva por partida
+    private boolean parallelSimulation = false; // --parallel: movimiento y objetivos en el pool común
+    private boolean threadedSimulation = false; // --sim-thread: la simulación en su propio hilo
+    
+    // Tiempos de frame y de tick, medias móviles en nanosegundos
+    private static final float TIMING_SMOOTHING = 0.05f;
+    private float averageFrameNanos = 0;
+    private float averageTickNanos = 0;
+    private long lastShownTick = 0;
+    private long lastFrameTicks = 0;
+    
+    // Grabación de la partida en curso y repetición cargada con --replay
+    private static final String REPLAY_DIR = "replays";
+    private static final int REPLAY_TICKS_PER_FRAME = GameSimulation.MAX_TICKS_PER_FRAME;
+    private Replay recording;
+    private Replay replay;
+    private ReplayPlayer replayPlayer;
+    
+    // Vistas del grafo de escena que reflejan el estado de la simulación
+    private Map<Integer, Enemy> enemies = new HashMap<>(); // Por id del enemigo simulado
+    // Las mismas vistas por asa, para validar en O(1) los objetivos de los proyectiles
+    private final EntityHandles enemyHandles = new EntityHandles(256);
+    private Enemy[] enemyViews = new Enemy[256];
+    private static final float ENEMY_VIEW_RADIUS = 1.5f; // Radio que abarca modelo y barra de vida
+    private final BoundingSphere enemyProbe = new BoundingSphere(ENEMY_VIEW_RADIUS, new Vector3f());
+    private int visibleEnemies = 0; // Vistas sincronizadas en el último frame
     private List<Tower> towers = new ArrayList<>();
     private GameMap gameMap;
     private Path path;
     private GameUI gameUI;
+    private DebugOverlay debugOverlay;
+    
+    // Temporizadores y animaciones del hilo de render
+    private final TimingWheel timers = new TimingWheel();
+    private final TweenState tweens = new TweenState();
+    
+    // Altas y bajas de la escena pendientes para el final del frame
+    private final SceneCommandBuffer sceneCommands = new SceneCommandBuffer();
+    
+    // Proyectiles visuales en vuelo de todas las torres
+    private ProjectileSystem projectileSystem;
+    
+    // Materiales compartidos por todas las vistas
+    private MaterialRegistry materials;
+    
+    // Prototipos de modelos de enemigos, cargados una sola vez, y vistas
+    // libres para reutilizar entre oleadas y partidas
+    private EnemyModelCache enemyModelCache;
+    private EnemyPool enemyPool;
+    
+    // Memoria reservada por el hilo de render en la oleada anterior y desde
+    // que empezó la actual (-1 si la JVM no lo mide)
+    private long waveStartBytes = -1;
+    private long lastWaveBytes = -1;
+    
+    // Latencia de creación de vistas de enemigos (nanosegundos)
+    private long lastSpawnNanos = 0;
+    private long maxSpawnNanos = 0;
+    private long totalSpawnNanos = 0;
+    private int spawnCount = 0;
     
-    // Variables para el sistema de oleadas
-    private float waveTimer = 0;
-    private float spawnTimer = 0;
-    private int currentWave = 1;
-    private int enemiesInWave = 5; // Inicialmente 5 enemigos por oleada
-    private int enemiesSpawned = 0;
-    private boolean waveInProgress = false;
-    
-    // Economía del jugador
-    private int money = 100;
-    private int score = 0;
     private int highScore = 0;
     
     // Constantes para la torre
@@ -60,13 +136,16 @@ public class Main extends SimpleApplication {
     
     // Indicador visual de colocación de torre
     private Geometry towerPlacementIndicator;
+    private Material validPlacementMaterial; // Verde válido
+    private Material invalidPlacementMaterial; // Rojo inválido
     private boolean isValidPlacement = false;
     private Geometry towerIndicator; // Indicador de tipo de torre
     
     // Portal y sistema de game over
+    private static final float PORTAL_PULSE_TIME = 0.3f; // Segundos que tarda en volver a su tamaño
+    private static final float MUSIC_FADE_RATE = 1.0f;   // Volumen que baja la música por segundo
     private Spatial portal;
-    private int escapedDemons = 0;
-    private final int MAX_ESCAPED_DEMONS = 5;
+    private int portalPulse = EntityHandles.NONE; // Animación del portal en curso
     
     private Tower selectedTower = null; // Torre seleccionada para mejorar
     
@@ -81,6 +160,34 @@ public class Main extends SimpleApplication {
     public static void main(String[] args) {
         Main app = new Main();
         
+        // Opciones: --seed 1234 fija la semilla, --replay fichero.rpl reproduce una partida,
+        // --parallel reparte el tick de la simulación entre los núcleos y
+        // --sim-thread ejecuta la simulación en un hilo aparte del render
+        for (int i = 0; i < args.length; i++) {
+            String seedValue = null;
+            if (args[i].equals("--seed") && i + 1 < args.length) {
+                seedValue = args[++i];
+            } else if (args[i].startsWith("--seed=")) {
+                seedValue = args[i].substring("--seed=".length());
+            } else if (args[i].equals("--replay") && i + 1 < args.length) {
+                app.loadReplay(new File(args[++i]));
+            } else if (args[i].startsWith("--replay=")) {
+                app.loadReplay(new File(args[i].substring("--replay=".length())));
+            } else if (args[i].equals("--parallel")) {
+                app.parallelSimulation = true;
+            } else if (args[i].equals("--sim-thread")) {
+                app.threadedSimulation = true;
+            }
+            if (seedValue != null) {
+                try {
+                    app.fixedSeed = Long.parseLong(seedValue);
+                    System.out.println("Usando semilla fija: " + app.fixedSeed);
+                } catch (NumberFormatException e) {
+                    System.err.println("Semilla no válida: " + seedValue);
+                }
+            }
+        }
+        
         AppSettings settings = new AppSettings(true);
         settings.setTitle("Tower Defense Infernal");
         settings.setResolution(800, 600);
@@ -94,9 +201,17 @@ public class Main extends SimpleApplication {
         setDisplayStatView(false);
         setDisplayFps(false);
         
+        // Animaciones de la escena y del audio, en el bucle de actualización
+        stateManager.attach(tweens);
+        
         // Inicializar el menú en lugar del juego directamente
         initMenu();
         
+        // Una repetición empieza sin pasar por el menú
+        if (replay != null) {
+            startGame();
+        }
+        
         highScore = loadHighScore();
     }
     
@@ -108,6 +223,16 @@ public class Main extends SimpleApplication {
         menuState.setHighScore(highScore);
         stateManager.attach(menuState);
         
+        // Cargar los modelos de enemigos mientras se muestra el menú
+        if (materials == null) {
+            materials = new MaterialRegistry(assetManager);
+        }
+        if (enemyModelCache == null) {
+            enemyModelCache = new EnemyModelCache(assetManager, materials);
+            enemyPool = new EnemyPool(materials, enemyModelCache);
+        }
+        enemyModelCache.preload();
+        
         // Configurar cámara para el menú
         cam.setLocation(new Vector3f(0, 0, 10));
         cam.lookAt(Vector3f.ZERO, Vector3f.UNIT_Y);
@@ -141,11 +266,38 @@ public class Main extends SimpleApplication {
         // Iniciar la música del juego
         setupGameMusic();
           // Crear mapa/terreno con camino visible
-        gameMap = new GameMap(assetManager);
+        gameMap = new GameMap(assetManager, materials);
         rootNode.attachChild(gameMap);
         
-        // Crear instancia del camino para la lógica del juego
+        // Crear instancia del camino y la simulación para la lógica del juego
         path = new Path();
+        if (replay != null) {
+            // Reproducir la partida grabada; las acciones llegan desde la repetición
+            simulation = new GameSimulation(path, replay.getSeed());
+            replayPlayer = new ReplayPlayer(replay, simulation, this::replayCommand);
+            recording = null;
+            if (threadedSimulation) {
+                System.out.println("La repetición corre en el hilo de render, sin --sim-thread");
+            }
+        } else {
+            simulation = fixedSeed != null ? new GameSimulation(path, fixedSeed) : new GameSimulation(path);
+            replayPlayer = null;
+            recording = new Replay(simulation.getSeed());
+        }
+        if (parallelSimulation) {
+            simulation.setParallelPool(ForkJoinPool.commonPool());
+        }
+        snapshots = new SnapshotExchange(simulation);
+        snapshot = snapshots.acquire(simulationEvents);
+        lastShownTick = 0;
+        averageFrameNanos = 0;
+        averageTickNanos = 0;
+        
+        // La repetición marca su propio ritmo, así que siempre avanza en simpleUpdate
+        if (threadedSimulation && replayPlayer == null) {
+            simulationThread = new SimulationThread(simulation, snapshots);
+            simulationThread.start();
+        }
         
         // Configurar cámara isométrica fija para visualizar mejor el mapa completo
         cam.setLocation(new Vector3f(-12, 8, 8));
@@ -156,8 +308,19 @@ public class Main extends SimpleApplication {
         // Crear portal en el punto final del recorrido
         createPortal();
         
+        // Preparar el sistema de proyectiles antes de que disparen las torres
+        projectileSystem = new ProjectileSystem(assetManager, materials, rootNode, sceneCommands, timers);
+        
         // Inicializar la interfaz de usuario
         gameUI = new GameUI(guiNode, assetManager, settings);
+        gameUI.setSeed(simulation.getSeed());
+        debugOverlay = new DebugOverlay(guiNode, assetManager, settings);
+        lastSpawnNanos = 0;
+        maxSpawnNanos = 0;
+        totalSpawnNanos = 0;
+        spawnCount = 0;
+        waveStartBytes = getAllocatedBytes();
+        lastWaveBytes = -1;
         
         // Configurar inputs
         setupInputs();
@@ -188,18 +351,28 @@ public class Main extends SimpleApplication {
         inputManager.addMapping("DeleteTower", new KeyTrigger(com.jme3.input.KeyInput.KEY_E));
         inputManager.addListener(actionListener, "DeleteTower");
         
+        // Tecla para cambiar el criterio de objetivo de la torre seleccionada
+        inputManager.addMapping("CycleTargeting", new KeyTrigger(com.jme3.input.KeyInput.KEY_T));
+        inputManager.addListener(actionListener, "CycleTargeting");
+        
         // Añadir mapeo para reintentar juego
         inputManager.addMapping("RetryGame", new com.jme3.input.controls.KeyTrigger(com.jme3.input.KeyInput.KEY_SPACE));
         inputManager.addMapping("ReturnToMenu", new com.jme3.input.controls.KeyTrigger(com.jme3.input.KeyInput.KEY_0));
         inputManager.addListener(actionListener, "RetryGame", "ReturnToMenu");
         
+        // Panel de depuración con métricas de rendimiento
+        inputManager.addMapping("ToggleDebug", new KeyTrigger(com.jme3.input.KeyInput.KEY_F3));
+        inputManager.addListener(actionListener, "ToggleDebug");
+        
         // Listener para acciones
         inputManager.addListener(actionListener, "PlaceTower", "SelectTower1", "SelectTower2", "SelectTower3");
     }
     
     private void createTowerPlacementIndicator() {
         // Crear un indicador semitransparente para mostrar dónde se colocará la torre
-        towerPlacementIndicator = Tower.createIndicator(assetManager, TowerType.BASIC);
+        towerPlacementIndicator = Tower.createIndicator(materials, TowerType.BASIC);
+        validPlacementMaterial = materials.getColor(new ColorRGBA(0.2f, 1f, 0.2f, 0.5f));
+        invalidPlacementMaterial = materials.getColor(new ColorRGBA(1f, 0.2f, 0.2f, 0.5f));
         towerPlacementIndicator.setCullHint(Spatial.CullHint.Always); // Oculto por defecto
         rootNode.attachChild(towerPlacementIndicator);
     }
@@ -217,30 +390,46 @@ public class Main extends SimpleApplication {
                     returnToMenu();
                     return;
                 }
+                if (name.equals("ToggleDebug")) {
+                    debugOverlay.toggle();
+                    return;
+                }
+                // Durante una repetición las acciones vienen del fichero, no del jugador
+                if (replayPlayer != null || gameOverActive) {
+                    return;
+                }
+                long tick = snapshot.getTick();
                 switch (name) {
                     case "PlaceTower":
                         placeTowerAtCursor();
                         break;
                     case "SelectTower1":
-                        gameUI.selectTowerType(TowerType.BASIC);
-                        
+                        issueCommand(PlayerCommand.selectTowerType(tick, TowerType.BASIC));
                         break;
                     case "SelectTower2":
-                        gameUI.selectTowerType(TowerType.SNIPER);
-                        
+                        issueCommand(PlayerCommand.selectTowerType(tick, TowerType.SNIPER));
                         break;
                     case "SelectTower3":
-                        gameUI.selectTowerType(TowerType.RAPID);
-                       
+                        issueCommand(PlayerCommand.selectTowerType(tick, TowerType.RAPID));
                         break;
                     case "SelectTower":
                         selectTowerAtCursor();
                         break;
                     case "UpgradeTower":
-                        upgradeTower();
+                        issueCommand(selectedTower != null
+                                ? PlayerCommand.upgradeTower(tick, selectedTower.getGridX(), selectedTower.getGridZ())
+                                : PlayerCommand.upgradeTower(tick, PlayerCommand.NO_CELL, PlayerCommand.NO_CELL));
                         break;
                     case "DeleteTower":
-                        deleteTower();
+                        issueCommand(selectedTower != null
+                                ? PlayerCommand.deleteTower(tick, selectedTower.getGridX(), selectedTower.getGridZ())
+                                : PlayerCommand.deleteTower(tick, PlayerCommand.NO_CELL, PlayerCommand.NO_CELL));
+                        break;
+                    case "CycleTargeting":
+                        if (selectedTower != null) {
+                            issueCommand(PlayerCommand.setTargeting(tick, selectedTower.getTargetingPolicy().next(),
+                                    selectedTower.getGridX(), selectedTower.getGridZ()));
+                        }
                         break;
                 }
             }
@@ -278,102 +467,305 @@ public class Main extends SimpleApplication {
                 TowerType selectedType = gameUI.getSelectedTowerType();
                 
                 // Verificar si hay suficiente dinero
-                if (money < selectedType.getCost()) {
+                if (snapshot.getMoney() < selectedType.getCost()) {
                     System.out.println("¡No hay suficiente dinero para construir la torre!");
                     return;
                 }
                 
-                // Crear torre del tipo seleccionado
-                Tower newTower = new Tower(assetManager, gridPos, selectedType);
-                towers.add(newTower);
-                rootNode.attachChild(newTower);
-                
-                // Reducir el dinero del jugador
-                money -= selectedType.getCost();
-                gameUI.updateMoney(money);
-                
-                System.out.println("Torre colocada en " + gridPos + " del tipo " + selectedType + ". Dinero restante: " + money);
+                issueCommand(PlayerCommand.placeTower(snapshot.getTick(), selectedType, (int) gridPos.x, (int) gridPos.z));
             } else {
-                if (money < TOWER_COST) {
+                if (snapshot.getMoney() < TOWER_COST) {
                     System.out.println("No tienes suficiente dinero para construir una torre. Necesitas: " + TOWER_COST);
                 } else {
                     System.out.println("No se puede colocar una torre en esta posición.");
                 }
             }
         }
-    }    // Método para validar la posición de una torre
-    private boolean isValidTowerPosition(Vector3f position) {
-        // Redondear a la posición de la cuadrícula
-        int gridX = Math.round(position.x);
-        int gridZ = Math.round(position.z);
-        
-        // Verificar si está en los límites del mapa
-        if (gridX < -9 || gridX > 9 || gridZ < -9 || gridZ > 9) {
-            return false;
+    }
+    
+    /**
+     * Crea la vista de una torre que la simulación acaba de construir
+     */
+    private void onTowerPlaced(PlayerCommand command, boolean placed) {
+        if (!placed) {
+            System.out.println("No se puede colocar una torre en (" + command.getGridX() + ", " + command.getGridZ() + ").");
+            return;
         }
+        Tower newTower = new Tower(assetManager, materials, command.getTowerType(), command.getGridX(), command.getGridZ());
+        newTower.sync(snapshots.getSnapshot());
+        towers.add(newTower);
+        sceneCommands.attach(rootNode, newTower);
         
-        // Verificar si es un spot válido para torres
-        if (!path.isValidTowerSpot(gridX, gridZ)) {
-            return false;
-        }
+        int money = snapshots.getSnapshot().getMoney();
+        gameUI.updateMoney(money);
         
-        // Verificar si ya hay una torre en esta posición
-        for (Tower t : towers) {
-            Vector3f towerPos = t.getLocalTranslation();
-            if (Math.round(towerPos.x) == gridX && Math.round(towerPos.z) == gridZ) {
-                return false;
-            }
+        System.out.println("Torre colocada en (" + command.getGridX() + ", " + command.getGridZ() + ") del tipo "
+                + command.getTowerType() + ". Dinero restante: " + money);
+    }
+    
+    /**
+     * Graba la acción del jugador y la ejecuta. Toda acción que cambie la
+     * partida pasa por aquí para que la repetición sea exacta; esas se
+     * graban al aplicarse, con el tick en que las aplicó la simulación.
+     */
+    private void issueCommand(PlayerCommand command) {
+        if (recording != null && !command.changesSimulation()) {
+            recording.record(command);
         }
-        
-        // Si pasó todas las comprobaciones, la posición es válida
-        return true;
+        executeCommand(command);
+    }
+    
+    /**
+     * Ejecuta una acción del jugador. Las que cambian la partida se mandan
+     * a la simulación y la vista se actualiza cuando llega el evento de que
+     * se aplicaron.
+     */
+    private void executeCommand(PlayerCommand command) {
+        switch (command.getType()) {
+            case SELECT_TOWER_TYPE:
+                gameUI.selectTowerType(command.getTowerType());
+                break;
+            case SELECT_TOWER:
+                selectTower(findTowerView(command.getGridX(), command.getGridZ()));
+                break;
+            case UPGRADE_TOWER:
+                upgradeTower(command, findTowerView(command.getGridX(), command.getGridZ()));
+                break;
+            case DELETE_TOWER:
+                deleteTower(command, findTowerView(command.getGridX(), command.getGridZ()));
+                break;
+            case SET_TARGETING:
+                if (findTowerView(command.getGridX(), command.getGridZ()) != null) {
+                    submitCommand(command);
+                }
+                break;
+            default:
+                submitCommand(command);
+                break;
+        }
+    }
+    
+    /**
+     * Ejecuta una acción de la repetición. Las que cambian la partida van
+     * directas a la simulación, como en {@link ReplayPlayer} sin ventana:
+     * la vista de una torre recién colocada puede no existir aún, y
+     * descartarlas haría divergir la partida.
+     */
+    private void replayCommand(PlayerCommand command) {
+        if (command.changesSimulation()) {
+            submitCommand(command);
+        } else {
+            executeCommand(command);
+        }
+    }
+    
+    /**
+     * Pasa una acción a la simulación: a la cola de su hilo o, sin hilo
+     * propio, aplicándola ahora mismo entre dos ticks
+     */
+    private void submitCommand(SimulationCommand command) {
+        if (simulationThread != null) {
+            simulationThread.submit(command);
+        } else {
+            snapshots.apply(command);
+        }
+    }
+    
+    /**
+     * Actualiza las vistas cuando la simulación ha aplicado una acción
+     */
+    private void onCommandApplied(PlayerCommand command, long tick, boolean applied, int moneyChange) {
+        if (recording != null) {
+            recording.record(command.atTick(tick));
+        }
+        switch (command.getType()) {
+            case PLACE_TOWER:
+                onTowerPlaced(command, applied);
+                break;
+            case UPGRADE_TOWER:
+                onTowerUpgraded(findTowerView(command.getGridX(), command.getGridZ()), applied);
+                break;
+            case DELETE_TOWER:
+                if (applied) {
+                    onTowerDeleted(findTowerView(command.getGridX(), command.getGridZ()), moneyChange);
+                }
+                break;
+            case SET_TARGETING:
+                if (applied) {
+                    onTargetingChanged(findTowerView(command.getGridX(), command.getGridZ()),
+                            command.getTargetingPolicy());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    // Método para validar la posición de una torre
+    private boolean isValidTowerPosition(Vector3f position) {
+        // Redondear a la posición de la cuadrícula
+        return snapshot.isValidTowerPosition(Math.round(position.x), Math.round(position.z));
     }
 
     @Override
     public void simpleUpdate(float tpf) {
+        // Temporizadores del juego (impactos, efectos), siempre en este hilo
+        timers.advance(tpf);
+        updateGame(tpf);
+        
+        // Aplicar de una vez las altas y bajas de la escena pedidas en este frame
+        sceneCommands.flush();
+    }
+    
+    private void updateGame(float tpf) {
         if (!gameStarted || gameOverActive) {
             return;
         }
         
-        // Gestión de oleadas
-        manageWaves(tpf);
-        
-        // Actualizar enemigos
-        List<Enemy> deadEnemies = new ArrayList<>();
-        for (Enemy e : enemies) {
-            if (e.isAlive()) {
-                e.update(tpf);
-                
-                // Verificar si el enemigo ha llegado al final del camino
-                if (e.hasFinishedPath()) {
-                    handleEnemyEscape(e);
-                    deadEnemies.add(e);
-                }
+        // Sin hilo propio, avanzar aquí la lógica del juego en ticks fijos
+        if (simulationThread == null) {
+            long start = System.nanoTime();
+            int ticks;
+            float alpha;
+            if (replayPlayer != null) {
+                // La repetición no sigue el reloj: avanza ticks completos tan rápido como se dibuje
+                ticks = replayPlayer.runTicks(REPLAY_TICKS_PER_FRAME);
+                alpha = 1f;
             } else {
-                deadEnemies.add(e);
-                
-                // Dar recompensas por enemigo derrotado
-                money += e.getReward();
-                score += e.getType() == EnemyType.HELLHOUND ? 25 : 10;
+                ticks = simulation.advance(tpf);
+                alpha = simulation.getInterpolationAlpha();
             }
+            snapshots.publish(ticks, ticks > 0 ? (System.nanoTime() - start) / ticks : 0, alpha);
         }
-
-        // Remover enemigos muertos o que llegaron al final
-        for (Enemy e : deadEnemies) {
-            rootNode.detachChild(e);
-        }
-        enemies.removeAll(deadEnemies);
         
-        // Actualizar torres
-        for (Tower t : towers) {
-            t.update(tpf, enemies, rootNode);
+        // Última copia del estado; sus eventos crean y quitan vistas antes de dibujar
+        snapshot = snapshots.acquire(simulationEvents);
+        if (gameOverActive) {
+            return;
+        }
+        updateTimings(tpf);
+        float alpha = snapshot.getInterpolationAlpha(System.nanoTime());
+        
+        // Reflejar el estado de la simulación solo en las vistas que ve la
+        // cámara; las demás se ocultan hasta que vuelvan a entrar en pantalla
+        visibleEnemies = 0;
+        for (Enemy e : enemies.values()) {
+            int i = snapshot.indexOf(e.getId());
+            if (i < 0) {
+                continue;
+            }
+            e.sync(snapshot, i);
+            enemyProbe.setCenter(snapshot.getPosition(i, enemyProbe.getCenter()));
+            if (cam.contains(enemyProbe) == Camera.FrustumIntersect.Outside) {
+                e.setCullHint(Spatial.CullHint.Always);
+                continue;
+            }
+            e.setCullHint(Spatial.CullHint.Inherit);
+            e.update(snapshot, i, alpha);
+            visibleEnemies++;
         }
+        projectileSystem.update(tpf);
         
         // Actualizar indicador de colocación de torre
         updateTowerPlacementIndicator();
         
         // Actualizar UI
-        gameUI.update(money, score, currentWave, waveInProgress, 5.0f - waveTimer, MAX_ESCAPED_DEMONS - escapedDemons);
+        gameUI.update(snapshot.getMoney(), snapshot.getScore(), snapshot.getCurrentWave(),
+                snapshot.isWaveInProgress(), snapshot.getTimeToNextWave(), snapshot.getPortalLife());
+        if (debugOverlay.isVisible()) {
+            debugOverlay.setText(buildDebugText());
+        }
+    }
+    
+    /**
+     * Actualiza las medias de tiempo de frame y de tick. Con la simulación
+     * en su hilo son independientes: un tick lento no alarga el frame.
+     */
+    private void updateTimings(float tpf) {
+        averageFrameNanos += (tpf * 1e9f - averageFrameNanos) * TIMING_SMOOTHING;
+        lastFrameTicks = snapshot.getTick() - lastShownTick;
+        if (lastFrameTicks > 0) {
+            averageTickNanos += (snapshot.getTickNanos() - averageTickNanos) * TIMING_SMOOTHING;
+        }
+        lastShownTick = snapshot.getTick();
+    }
+    
+    /**
+     * Compone las métricas que muestra el panel de depuración (F3)
+     */
+    private String buildDebugText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Enemigos: ").append(snapshot.getEnemyCount())
+          .append(" (").append(visibleEnemies).append(" visibles)")
+          .append("  Torres: ").append(towers.size())
+          .append(" (").append(snapshot.getActiveTowerCount()).append(" activas, ")
+          .append(snapshot.getSleepingTowerCount()).append(" dormidas)\n");
+        sb.append(String.format("Ticks: %d este frame (%d Hz)  alpha %.2f  núcleos %s, %s\n",
+                lastFrameTicks, GameSimulation.TICK_RATE, snapshot.getInterpolationAlpha(System.nanoTime()),
+                simulation.getKernels().getName(), simulation.isParallel() ? "en paralelo" : "en serie"));
+        sb.append(String.format("Frame: %.2f ms (%.0f fps)  Tick: %.3f ms  simulación %s\n",
+                averageFrameNanos / 1e6f, averageFrameNanos > 0 ? 1e9f / averageFrameNanos : 0f,
+                averageTickNanos / 1e6f, simulationThread != null ? "en su propio hilo" : "en el hilo de render"));
+        sb.append("Sistemas:");
+        for (int i = 0; i < snapshot.getSystemCount(); i++) {
+            sb.append(String.format(" %s %.3f", snapshot.getSystemName(i), snapshot.getSystemNanos(i) / 1e6f));
+        }
+        sb.append(" ms\n");
+        ProjectilePool projectilePool = projectileSystem.getPool();
+        sb.append(String.format("Proyectiles: %d en vuelo, ocupación %.0f%%  aciertos %d  fallos %d\n",
+                projectileSystem.getActiveCount(), projectilePool.getOccupancy() * 100,
+                projectilePool.getHits(), projectilePool.getMisses()));
+        for (TowerType type : TowerType.values()) {
+            sb.append("  ").append(type.getName()).append(": ")
+              .append(projectilePool.getInUse(type)).append(" en vuelo / ")
+              .append(projectilePool.getAvailable(type)).append(" libres\n");
+        }
+        sb.append("Materiales: ").append(MaterialRegistry.countDistinctMaterials(rootNode))
+          .append(" distintos en escena, ").append(materials.size()).append(" en el registro\n");
+        sb.append(String.format("Temporizadores: %d pendientes, %d vencidos este frame  Animaciones: %d en curso, %d libres\n",
+                timers.getPendingCount(), timers.getFiredLastAdvance(),
+                tweens.getActiveCount(), tweens.getPooledCount()));
+        sb.append(String.format("Escena: %d cambios pedidos el último frame, %d altas, %d bajas (máx %d)\n",
+                sceneCommands.getLastQueued(), sceneCommands.getLastAttached(),
+                sceneCommands.getLastDetached(), sceneCommands.getMaxQueued()));
+        sb.append(String.format("Pool de enemigos: %.0f%% aciertos (%d/%d)",
+                enemyPool.getHitRate() * 100, enemyPool.getHits(), enemyPool.getHits() + enemyPool.getMisses()));
+        for (EnemyType type : EnemyType.values()) {
+            sb.append("  ").append(type.getName()).append(": ")
+              .append(enemyPool.getInUse(type)).append("/").append(enemyPool.getCreated(type));
+        }
+        sb.append('\n');
+        long allocated = getAllocatedBytes();
+        if (allocated >= 0) {
+            sb.append(String.format("Memoria reservada: oleada anterior %s  esta oleada %s\n",
+                    lastWaveBytes >= 0 ? String.format("%.1f MB", lastWaveBytes / 1048576f) : "-",
+                    String.format("%.1f MB", (allocated - waveStartBytes) / 1048576f)));
+        }
+        if (spawnCount > 0) {
+            sb.append(String.format("Spawn: último %.1f us  medio %.1f us  máx %.1f us (%d)\n",
+                    lastSpawnNanos / 1000f, totalSpawnNanos / 1000f / spawnCount,
+                    maxSpawnNanos / 1000f, spawnCount));
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Bytes reservados hasta ahora por el hilo que llama, o -1 si la JVM no
+     * ofrece la medida
+     */
+    private static long getAllocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+    
+    private void recordSpawnLatency(long nanos) {
+        lastSpawnNanos = nanos;
+        maxSpawnNanos = Math.max(maxSpawnNanos, nanos);
+        totalSpawnNanos += nanos;
+        spawnCount++;
     }
     
     private void updateTowerPlacementIndicator() {
@@ -402,127 +794,120 @@ public class Main extends SimpleApplication {
             
             // Comprobar si es una posición válida
             TowerType selectedType = gameUI.getSelectedTowerType();
-            isValidPlacement = isValidTowerPosition(contactPoint) && money >= selectedType.getCost();
+            isValidPlacement = isValidTowerPosition(contactPoint) && snapshot.getMoney() >= selectedType.getCost();
             
             // Mostrar indicador en la posición del ratón
             towerPlacementIndicator.setCullHint(Spatial.CullHint.Never);
             towerPlacementIndicator.setLocalTranslation(gridPos);
             
-            // Cambiar el color según si es válido o no
-            Material mat = towerPlacementIndicator.getMaterial();
-            if (isValidPlacement) {
-                mat.setColor("Color", new com.jme3.math.ColorRGBA(0.2f, 1f, 0.2f, 0.5f)); // Verde válido
-            } else {
-                mat.setColor("Color", new com.jme3.math.ColorRGBA(1f, 0.2f, 0.2f, 0.5f)); // Rojo inválido
-            }
+            // Cambiar el material según si es válido o no (los materiales son compartidos)
+            towerPlacementIndicator.setMaterial(isValidPlacement ? validPlacementMaterial : invalidPlacementMaterial);
         } else {
             // Ocultar el indicador si no hay colisión con el mapa
             towerPlacementIndicator.setCullHint(Spatial.CullHint.Always);
             isValidPlacement = false;
         }
     }
-      private void manageWaves(float tpf) {
-        // Si no hay oleada en progreso, empezar una nueva después de un tiempo
-        if (!waveInProgress) {
-            waveTimer += tpf;
-            if (waveTimer >= 5.0f) { // 5 segundos entre oleadas
-                startNewWave();
-                waveTimer = 0;
+    /**
+     * Recibe los eventos de la simulación y actualiza el grafo de escena.
+     * Llegan siempre en el hilo de render, al tomar una copia nueva.
+     */
+    private final SimulationSnapshot.EventHandler simulationEvents = new SimulationSnapshot.EventHandler() {
+        @Override
+        public void onWaveStarted(int wave) {
+            System.out.println("¡Comienza la oleada " + wave + "!");
+            long allocated = getAllocatedBytes();
+            if (allocated >= 0 && waveStartBytes >= 0) {
+                lastWaveBytes = allocated - waveStartBytes;
             }
-        } else {
-            // Si hay una oleada en progreso, generar enemigos
-            if (enemiesSpawned < enemiesInWave) {
-                spawnTimer += tpf;
-                
-                // Calcular el intervalo de spawn basado en la oleada
-                float spawnInterval;
-                if (currentWave >= 10) {
-                    // A partir de la oleada 10: intervalo aleatorio entre 0.5 y 1 segundo
-                    spawnInterval = 0.7f + FastMath.nextRandomFloat() * 0.7f;
-                } else if (currentWave >= 6) {
-                    // Entre oleada 6-9: intervalo decrece linealmente de 1.5 a 1.0
-                    float progress = (currentWave - 6) / 4.0f; // 0.0 a 1.0
-                    spawnInterval = 1.3f - (0.5f * progress);
-                } else {
-                    // Oleadas 1-5: intervalo fijo de 1.5 segundos
-                    spawnInterval = 1.2f;
-                }
-                
-                if (spawnTimer >= spawnInterval) {
-                    spawnEnemy();
-                    spawnTimer = 0;
-                }
-            } else if (enemies.isEmpty()) {
-                // Si se han generado todos los enemigos y no queda ninguno, la oleada ha terminado
-                waveInProgress = false;
-                currentWave++;
-                enemiesInWave = 5 + (currentWave * 2); // Aumentar dificultad
+            waveStartBytes = allocated;
+        }
+        
+        @Override
+        public void onEnemySpawned(int enemyId, EnemyType type) {
+            // Sacar una vista del pool (o crearla) y añadirla a la escena
+            long start = System.nanoTime();
+            Enemy enemy = enemyPool.acquire(enemyId, type);
+            enemies.put(enemyId, enemy);
+            addEnemyHandle(enemy);
+            sceneCommands.attach(rootNode, enemy);
+            recordSpawnLatency(System.nanoTime() - start);
+            
+            // Informar sobre el tipo de enemigo generado
+            System.out.println("Generado enemigo tipo: " + type.getName());
+        }
+        
+        @Override
+        public void onEnemyKilled(int enemyId, EnemyType type) {
+            removeEnemyView(enemyId);
+        }
+        
+        @Override
+        public void onEnemyEscaped(int enemyId, EnemyType type, int escapedDemons) {
+            removeEnemyView(enemyId);
+            handleEnemyEscape(type, escapedDemons);
+        }
+        
+        @Override
+        public void onTowerFired(int gridX, int gridZ, int enemyId, Vector3f impactPoint, float flightTime) {
+            Tower tower = findTowerView(gridX, gridZ);
+            Enemy enemy = enemies.get(enemyId);
+            if (tower != null && enemy != null) {
+                tower.fireAt(enemy, impactPoint, flightTime, projectileSystem);
             }
         }
+        
+        @Override
+        public void onCommandApplied(SimulationCommand command, long tick, boolean applied, int moneyChange) {
+            // Solo la vista manda acciones, y siempre son del jugador
+            Main.this.onCommandApplied((PlayerCommand) command, tick, applied, moneyChange);
+        }
+        
+        @Override
+        public void onGameOver() {
+            gameOver();
+        }
+    };
+    
+    private Enemy removeEnemyView(int enemyId) {
+        Enemy enemy = enemies.remove(enemyId);
+        if (enemy != null) {
+            sceneCommands.detach(enemy);
+            enemyViews[EntityHandles.indexOf(enemy.getHandle())] = null;
+            enemyHandles.release(enemy.getHandle());
+            enemy.setHandle(EntityHandles.NONE);
+            enemyPool.release(enemy);
+        }
+        return enemy;
     }
     
-    private void startNewWave() {
-        waveInProgress = true;
-        enemiesSpawned = 0;
-        System.out.println("¡Comienza la oleada " + currentWave + "!");
+    private void addEnemyHandle(Enemy enemy) {
+        int handle = enemyHandles.allocate();
+        int index = EntityHandles.indexOf(handle);
+        if (index >= enemyViews.length) {
+            enemyViews = Arrays.copyOf(enemyViews, enemyViews.length * 2);
+        }
+        enemyViews[index] = enemy;
+        enemy.setHandle(handle);
     }
     
-    /**
-     * Crea y añade un nuevo enemigo a la escena
-     */
-    private void spawnEnemy() {
-        // Seleccionar tipo de enemigo según la oleada actual y probabilidad
-        EnemyType enemyType;
-        float random = FastMath.nextRandomFloat();
-        float mejora = 0;          if (currentWave >= 6) {
-            // A partir de la oleada 6, tanques con probabilidad creciente
-            float tankChance = Math.min(0.60f, 0.10f + (currentWave - 6) * 0.10f); // Aumenta 10% por ronda, máximo 60%
-            float hellhoundChance = 0.20f; // Probabilidad fija de perros infernales
-            
-            if (random < tankChance) { // Probabilidad creciente de tanques
-                enemyType = EnemyType.TANK;
-            } else if (random < (tankChance + hellhoundChance)) { // 20% probabilidad de hellhound
-                enemyType = EnemyType.HELLHOUND;
-            } else { // Resto son zombies básicos
-                enemyType = EnemyType.BASIC;
-            }
-        } else if (currentWave >= 2) {
-            // Oleadas 2-5: probabilidad creciente de perros infernales
-            float hellhoundChance = Math.min(0.60f, 0.10f + (currentWave - 2) * 0.125f); // 10%, 22.5%, 35%, 47.5%, 60%
-            
-            if (random < hellhoundChance) {
-                enemyType = EnemyType.HELLHOUND;
-            } else {
-                enemyType = EnemyType.BASIC;
+    // Quita todas las vistas de enemigos; las asas repartidas caducan
+    private void clearEnemyViews() {
+        for (Enemy enemy : enemies.values()) {
+            enemyPool.release(enemy);
+        }
+        enemies.clear();
+        enemyHandles.clear();
+        Arrays.fill(enemyViews, null);
+    }
+    
+    private Tower findTowerView(int gridX, int gridZ) {
+        for (Tower t : towers) {
+            if (t.getGridX() == gridX && t.getGridZ() == gridZ) {
+                return t;
             }
-        } else {
-            // Oleada inicial: solo zombies básicos
-            enemyType = EnemyType.BASIC;
-        }// Crear el enemigo con el tipo seleccionado
-        Enemy enemy = new Enemy(assetManager, path.getWaypoints(), enemyType);
-        
-        if (currentWave >= 2) {
-            if (currentWave <= 6) {
-                // Mejora lineal de la ronda 2 a 6 (*1, *2, *3, *4, *5)
-                mejora = 0.2f * (currentWave - 1); // 0.2, 0.4, 0.6, 0.8, 1.0
-            } else {
-                mejora = 1.1f * (float)Math.pow(1.25, currentWave - 6);
-            } 
-            enemy.upgradeStats(mejora);
         }
-
-        // Colocar el enemigo en el inicio del camino (primer waypoint)
-        enemy.setLocalTranslation(path.getWaypoints().get(0));
-        
-        // Añadir a la escena
-        enemies.add(enemy);
-        rootNode.attachChild(enemy);
-        
-        // Actualizar contador
-        enemiesSpawned++;
-        
-        // Informar sobre el tipo de enemigo generado
-        System.out.println("Generado enemigo tipo: " + enemyType.getName());
+        return null;
     }
     
     // Crear el portal en el punto final del camino
@@ -574,33 +959,20 @@ public class Main extends SimpleApplication {
         Node portalNode = (Node) portalModel;
         
         try {
-            // Cargar texturas
-            Texture frameMetalAlbedo = assetManager.loadTexture("Textures/portal_textures/frame_metal_albedo.png");
-            Texture portalAlbedo = assetManager.loadTexture("Textures/portal_textures/portal_albedo.png");
-            Texture mossyBricksAlbedo = assetManager.loadTexture("Textures/portal_textures/mossy_bricks_albedo.png");
-            Texture torchMetal = assetManager.loadTexture("Textures/portal_textures/torch_metal.png");
-            Texture torchLight = assetManager.loadTexture("Textures/portal_textures/torch_light2.png");
-            
-            // Crear materiales texturizados
-            Material frameMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            frameMaterial.setTexture("ColorMap", frameMetalAlbedo);
-            frameMaterial.setColor("Color", new ColorRGBA(0.4f, 0.4f, 0.5f, 1.0f));
+            // Materiales texturizados compartidos
+            Material frameMaterial = materials.getTexture("Textures/portal_textures/frame_metal_albedo.png",
+                    new ColorRGBA(0.4f, 0.4f, 0.5f, 1.0f));
             
             // Mejorar el material del portal central con color más intenso
-            Material portalMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            portalMaterial.setTexture("ColorMap", portalAlbedo);
-            portalMaterial.setColor("Color", new ColorRGBA(0.8f, 0.2f, 0.9f, 0.7f));
-            portalMaterial.getAdditionalRenderState().setBlendMode(com.jme3.material.RenderState.BlendMode.Alpha);
+            Material portalMaterial = materials.getTexture("Textures/portal_textures/portal_albedo.png",
+                    new ColorRGBA(0.8f, 0.2f, 0.9f, 0.7f), null, RenderState.BlendMode.Alpha);
             
-            Material brickMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            brickMaterial.setTexture("ColorMap", mossyBricksAlbedo);
+            Material brickMaterial = materials.getTexture("Textures/portal_textures/mossy_bricks_albedo.png", null);
             
-            Material torchBaseMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            torchBaseMaterial.setTexture("ColorMap", torchMetal);
+            Material torchBaseMaterial = materials.getTexture("Textures/portal_textures/torch_metal.png", null);
             
-            Material torchLightMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            torchLightMaterial.setTexture("ColorMap", torchLight);
-            torchLightMaterial.setColor("Color", new ColorRGBA(1.0f, 0.6f, 0.0f, 1.0f));
+            Material torchLightMaterial = materials.getTexture("Textures/portal_textures/torch_light2.png",
+                    new ColorRGBA(1.0f, 0.6f, 0.0f, 1.0f));
             
             // Matriz de materiales para aplicar por orden
             Material[] materials = {
@@ -630,13 +1002,8 @@ public class Main extends SimpleApplication {
             for (int i = 0; i < portalNode.getChildren().size(); i++) {
                 String name = portalNode.getChild(i).getName().toLowerCase();
                 if (name.contains("portal") || name.contains("energy") || name.contains("center") || i == 2) {
-                    // Aplicar un material de portal mejorado
-                    Material enhancedPortalMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                    enhancedPortalMaterial.setTexture("ColorMap", portalAlbedo);
-                    enhancedPortalMaterial.setColor("Color", new ColorRGBA(0.8f, 0.2f, 0.9f, 0.7f));
-                    enhancedPortalMaterial.getAdditionalRenderState().setBlendMode(com.jme3.material.RenderState.BlendMode.Alpha);
-                    
-                    applyMaterialToSpatial(portalNode.getChild(i), enhancedPortalMaterial);
+                    // Aplicar el material de portal mejorado
+                    applyMaterialToSpatial(portalNode.getChild(i), portalMaterial);
                     System.out.println("Aplicado material de portal mejorado al nodo: " + portalNode.getChild(i).getName());
                 }
             }
@@ -662,42 +1029,30 @@ public class Main extends SimpleApplication {
     }
 
     // Método para manejar cuando un enemigo escapa
-    private void handleEnemyEscape(Enemy enemy) {
-        // Incrementar contador de escapados
-        escapedDemons++;
-        
-        System.out.println("¡Un " + enemy.getType().getName() + " ha escapado! Total: " + escapedDemons + "/" + MAX_ESCAPED_DEMONS);
+    private void handleEnemyEscape(EnemyType type, int escapedDemons) {
+        System.out.println("¡Un " + type.getName() + " ha escapado! Total: " + escapedDemons + "/" + GameSimulation.MAX_ESCAPED_DEMONS);
         
         // Efecto visual en el portal (opcional)
         if (portal != null) {
-            // Efecto de escala
-            portal.setLocalScale(2.5f);
-            
-            // Programar retorno al tamaño normal
-            java.util.Timer timer = new java.util.Timer();
-            timer.schedule(new java.util.TimerTask() {
-                @Override
-                public void run() {
-                    if (portal != null) {
-                        portal.setLocalScale(2.0f);
-                    }
-                }
-            }, 300);
+            // Efecto de escala: crece y vuelve a su tamaño normal
+            tweens.cancel(portalPulse);
+            portalPulse = tweens.scale(portal, 2.5f, 2.0f, PORTAL_PULSE_TIME);
         }
         
         // Actualizar HUD de vida del portal
         if (gameUI != null) {
-            gameUI.updatePortalLife(MAX_ESCAPED_DEMONS - escapedDemons);
-        }
-        
-        // Verificar condición de game over
-        if (escapedDemons >= MAX_ESCAPED_DEMONS) {
-            gameOver();
+            gameUI.updatePortalLife(GameSimulation.MAX_ESCAPED_DEMONS - escapedDemons);
         }
     }    // Método para manejar el game over
     private void gameOver() {
         System.out.println("=== GAME OVER ===");
-        System.out.println("Han escapado " + escapedDemons + " demonios");
+        
+        // La simulación ya no avanza; se para su hilo y la última copia es la definitiva
+        stopSimulationThread();
+        SimulationSnapshot last = snapshots.getSnapshot();
+        int score = last.getScore();
+        int currentWave = last.getCurrentWave();
+        System.out.println("Han escapado " + last.getEscapedDemons() + " demonios");
         System.out.println("Puntuación final: " + score);
         System.out.println("Oleada alcanzada: " + currentWave);
         if (score > highScore) {
@@ -706,37 +1061,23 @@ public class Main extends SimpleApplication {
         }
         gameOverActive = true;
         gameUI.showGameOverMessage(score, currentWave, highScore);
+        saveRecording();
+        if (replayPlayer != null) {
+            System.out.println(replayPlayer.matchesRecording()
+                    ? "La repetición terminó igual que la partida grabada"
+                    : "¡La repetición no coincide con la partida grabada!");
+        }
         
         // Detener la música del juego gradualmente
         if (gameMusic != null) {
-            // Crear un hilo para bajar el volumen gradualmente
-            new Thread(() -> {
-                float volume = gameMusic.getVolume();
-                while (volume > 0) {
-                    volume -= 0.05f;
-                    gameMusic.setVolume(volume);
-                    try {
-                        Thread.sleep(50);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                }
-                gameMusic.stop();
-                gameMusic = null;
-            }).start();
+            AudioNode music = gameMusic;
+            gameMusic = null;
+            int fade = tweens.volume(music, music.getVolume(), 0, music.getVolume() / MUSIC_FADE_RATE);
+            tweens.onFinish(fade, music::stop);
         }
-        
-        // Detener la generación de oleadas
-        waveInProgress = false;
     }
 
     private void selectTowerAtCursor() {
-        // Resetear la torre seleccionada
-        if (selectedTower != null) {
-            selectedTower.removeHighlight();
-        }
-        selectedTower = null;
-        
         // Obtener la posición del ratón
         Vector2f mousePos = inputManager.getCursorPosition();
         
@@ -765,9 +1106,23 @@ public class Main extends SimpleApplication {
             }
         }
         
-        // Si encontramos una torre cercana, seleccionarla
         if (closestTower != null) {
-            selectedTower = closestTower;
+            issueCommand(PlayerCommand.selectTower(snapshot.getTick(), closestTower.getGridX(), closestTower.getGridZ()));
+        } else {
+            issueCommand(PlayerCommand.selectTower(snapshot.getTick(), PlayerCommand.NO_CELL, PlayerCommand.NO_CELL));
+        }
+    }
+    
+    private void selectTower(Tower tower) {
+        // Resetear la torre seleccionada
+        if (selectedTower != null) {
+            selectedTower.removeHighlight();
+        }
+        selectedTower = null;
+        
+        // Si encontramos una torre cercana, seleccionarla
+        if (tower != null) {
+            selectedTower = tower;
             
             // Mostrar información de la torre seleccionada
             showTowerInfo(selectedTower);
@@ -783,40 +1138,55 @@ public class Main extends SimpleApplication {
         }
     }
     
-    private void upgradeTower() {
-        if (selectedTower == null) {
+    private void upgradeTower(PlayerCommand command, Tower tower) {
+        if (tower == null) {
             System.out.println("Selecciona una torre para mejorar.");
             return;
         }
         
         // Verificar si la torre puede mejorarse
-        if (!selectedTower.canUpgrade()) {
+        if (!tower.canUpgrade()) {
             System.out.println("Esta torre ya está al nivel máximo.");
             return;
         }
         
-        // Obtener costo de la mejora
-        int upgradeCost = selectedTower.getUpgradeCost();
+        // Realizar la mejora (la simulación comprueba y descuenta el dinero)
+        submitCommand(command);
+    }
+    
+    private void onTowerUpgraded(Tower tower, boolean upgraded) {
+        if (tower == null) {
+            return;
+        }
         
-        // Verificar si hay suficiente dinero
-        if (money < upgradeCost) {
-            System.out.println("No hay suficiente dinero para mejorar. Necesitas: " + upgradeCost);
+        // Lo único que puede fallar a estas alturas es el dinero
+        if (!upgraded) {
+            System.out.println("No hay suficiente dinero para mejorar. Necesitas: " + tower.getUpgradeCost());
             return;
         }
+        tower.sync(snapshots.getSnapshot());
+        tower.onUpgraded();
         
-        // Realizar la mejora
-        if (selectedTower.upgrade()) {
-            // Reducir el dinero del jugador
-            money -= upgradeCost;
-            
-            // Actualizar UI
-            gameUI.updateMoney(money);
-            
-            // Actualizar la información mostrada
-            showTowerInfo(selectedTower);
-            
-            System.out.println("¡Torre mejorada! Nivel actual: " + selectedTower.getLevel());
+        // Actualizar UI
+        gameUI.updateMoney(snapshots.getSnapshot().getMoney());
+        
+        // Actualizar la información mostrada
+        if (tower == selectedTower) {
+            showTowerInfo(tower);
         }
+        
+        System.out.println("¡Torre mejorada! Nivel actual: " + tower.getLevel());
+    }
+    
+    private void onTargetingChanged(Tower tower, TargetingPolicy policy) {
+        if (tower == null) {
+            return;
+        }
+        tower.sync(snapshots.getSnapshot());
+        if (tower == selectedTower) {
+            showTowerInfo(tower);
+        }
+        System.out.println("Objetivo de la torre: " + policy.getName());
     }
     
     private void showTowerInfo(Tower tower) {
@@ -832,36 +1202,39 @@ public class Main extends SimpleApplication {
         }
         
         // Añadir destacado a la torre seleccionada
-        tower.addHighlight(assetManager);
+        tower.addHighlight();
     }
     
     /**
-     * Elimina la torre actualmente seleccionada y devuelve parte del costo
+     * Elimina la torre indicada y devuelve parte del costo
      */
-    private void deleteTower() {
-        if (selectedTower == null) {
+    private void deleteTower(PlayerCommand command, Tower tower) {
+        if (tower == null) {
             System.out.println("Ninguna torre seleccionada para eliminar.");
             return;
         }
         
-        // Calcular el valor de reembolso (40% del costo total)
-        int refundValue = (int)(selectedTower.getTotalInvestment() * 0.4f);
-        
-        // Eliminar la torre
-        rootNode.detachChild(selectedTower);
-        towers.remove(selectedTower);
+        // Eliminar la torre (la simulación reembolsa el 40% del costo total)
+        submitCommand(command);
+    }
+    
+    private void onTowerDeleted(Tower tower, int refundValue) {
+        if (tower == null) {
+            return;
+        }
+        sceneCommands.detach(tower);
+        towers.remove(tower);
         
         System.out.println("Torre eliminada. Reembolso: $" + refundValue);
         
-        // Aumentar el dinero del jugador
-        money += refundValue;
-        
         // Actualizar la interfaz
-        gameUI.updateMoney(money);
-        gameUI.showTowerInfo(null); // Limpiar la información de la torre
-        
-        // Limpiar la selección
-        selectedTower = null;
+        gameUI.updateMoney(snapshots.getSnapshot().getMoney());
+        if (tower == selectedTower) {
+            gameUI.showTowerInfo(null); // Limpiar la información de la torre
+            
+            // Limpiar la selección
+            selectedTower = null;
+        }
     }
     
     // Getter para GameMap (necesario para verificación en GameState)
@@ -902,14 +1275,9 @@ public class Main extends SimpleApplication {
     }
     
     private void createTowerSpotIndicators() {
-        // Cargar la textura dirt.jpg
-        Texture dirtTexture = assetManager.loadTexture("Textures/dirt.jpg");
-        
-        // Crear material con la textura
-        Material spotMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        spotMaterial.setTexture("ColorMap", dirtTexture);
-        spotMaterial.setColor("Color", new ColorRGBA(1f, 1f, 1f, 0.5f)); // Semi-transparente
-        spotMaterial.getAdditionalRenderState().setBlendMode(RenderState.BlendMode.Alpha);
+        // Crear material semitransparente con la textura dirt.jpg
+        Material spotMaterial = materials.getTexture("Textures/dirt.jpg",
+                new ColorRGBA(1f, 1f, 1f, 0.5f), null, RenderState.BlendMode.Alpha);
         
         // Obtener los spots válidos
         List<int[]> validSpots = path.getValidTowerSpots();
@@ -938,20 +1306,76 @@ public class Main extends SimpleApplication {
         }
     }
     
+    /**
+     * Carga la repetición indicada con --replay; el juego la reproducirá al arrancar
+     */
+    private void loadReplay(File file) {
+        try {
+            replay = Replay.load(file);
+            System.out.println("Reproduciendo " + file + " (semilla " + replay.getSeed() + ", "
+                    + replay.getCommands().size() + " acciones)");
+        } catch (IOException e) {
+            System.err.println("No se pudo cargar la repetición " + file + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Guarda la partida grabada en replays/ y deja de grabar
+     */
+    private void saveRecording() {
+        if (recording == null) {
+            return;
+        }
+        SimulationSnapshot last = snapshots.getSnapshot();
+        recording.finish(last.getTick(), last.getCurrentWave(), last.getScore());
+        File file = new File(REPLAY_DIR, "partida-" + recording.getSeed() + "-" + System.currentTimeMillis() + ".rpl");
+        try {
+            recording.save(file);
+            System.out.println("Repetición guardada en " + file.getPath());
+        } catch (IOException e) {
+            System.err.println("No se pudo guardar la repetición: " + e.getMessage());
+            e.printStackTrace();
+        }
+        recording = null;
+    }
+    
+    /**
+     * Para el hilo de la simulación, si lo hay; después la simulación solo
+     * la toca el hilo de render
+     */
+    private void stopSimulationThread() {
+        if (simulationThread != null) {
+            simulationThread.stop();
+            simulationThread = null;
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        stopSimulationThread();
+        
+        // Guardar también las partidas que se cierran sin llegar al game over
+        if (gameStarted) {
+            saveRecording();
+        }
+        super.destroy();
+    }
+    
     private void restartGame() {
+        stopSimulationThread();
+        
         // Reiniciar variables principales
-        enemies.clear();
+        clearEnemyViews();
+        if (projectileSystem != null) {
+            projectileSystem.clear(); // Cancela también sus impactos pendientes
+        }
         towers.clear();
-        escapedDemons = 0;
-        money = 100;
-        score = 0;
-        currentWave = 1;
-        enemiesInWave = 5;
-        enemiesSpawned = 0;
-        waveInProgress = false;
+        selectedTower = null;
         gameOverActive = false;
         rootNode.detachAllChildren();
         guiNode.detachAllChildren();
+        sceneCommands.clear();
         // Volver a inicializar el juego
         initGame();
         gameStarted = true;
@@ -985,20 +1409,24 @@ public int getHighScore() {
 }
 
     private void returnToMenu() {
+        stopSimulationThread();
+        
+        // Al volver al menú termina la repetición y las partidas nuevas se juegan
+        replay = null;
+        replayPlayer = null;
+        
         // Limpiar la escena y variables del juego
-        enemies.clear();
+        clearEnemyViews();
+        if (projectileSystem != null) {
+            projectileSystem.clear(); // Cancela también sus impactos pendientes
+        }
         towers.clear();
-        escapedDemons = 0;
-        money = 100;
-        score = 0;
-        currentWave = 1;
-        enemiesInWave = 5;
-        enemiesSpawned = 0;
-        waveInProgress = false;
+        selectedTower = null;
         gameOverActive = false;
         gameStarted = false;
         rootNode.detachAllChildren();
         guiNode.detachAllChildren();
+        sceneCommands.clear();
         // Detener música del juego si sigue sonando
         if (gameMusic != null) {
             gameMusic.stop();
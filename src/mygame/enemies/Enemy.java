@@ -1,6 +1,5 @@
 package mygame.enemies;
 
-import com.jme3.asset.AssetManager;
 import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
 import com.jme3.math.FastMath;
@@ -10,26 +9,44 @@ import com.jme3.scene.Geometry;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import com.jme3.scene.shape.Box;
-import com.jme3.texture.Texture;
+import java.util.ArrayList;
 import java.util.List;
+import mygame.render.MaterialRegistry;
+import mygame.sim.EntityHandles;
+import mygame.sim.SimulationSnapshot;
 
 public class Enemy extends Node {
     
     // Constantes
     public static final float SIZE = 0.4f; // Tamaño del enemigo (si es un cubo)
     
-    // Variables de estado
+    // Colores de la barra de salud y del efecto de muerte
+    private static final ColorRGBA HEALTH_HIGH = new ColorRGBA(0.0f, 1.0f, 0.0f, 1.0f);
+    private static final ColorRGBA HEALTH_MEDIUM = new ColorRGBA(1.0f, 1.0f, 0.0f, 1.0f);
+    private static final ColorRGBA HEALTH_LOW = new ColorRGBA(1.0f, 0.5f, 0.0f, 1.0f);
+    private static final ColorRGBA DEATH_COLOR = new ColorRGBA(0.3f, 0.3f, 0.3f, 1f); // Gris oscuro
+    // Orientación fija de la barra de salud, que funciona en la vista isométrica
+    private static final Quaternion HEALTH_BAR_ROTATION = new Quaternion().fromAngles(FastMath.HALF_PI, 0, 0);
+    
+    // Enemigo simulado que refleja este nodo y su último estado conocido
+    private int id;
+    private int handle = EntityHandles.NONE; // Asa con la que la apuntan los proyectiles
+    private final EnemyType type;
     private int health;
     private int maxHealth;
     private boolean alive = true;
-    private int currentWaypoint = 0;
-    private List<Vector3f> waypoints;
-    private float speed;
-    private EnemyType type;
-    private int reward; // Recompensa al matar
+    private int shownHealth = -1; // Última salud reflejada en la barra
+    
+    // Temporales reutilizados en cada frame
+    private final Vector3f renderPosition = new Vector3f();
+    private final Quaternion rotation = new Quaternion();
+    private boolean deathShown = false;
     
-    // Modelo 3D
+    // Modelo 3D y los materiales originales de sus geometrías, para
+    // devolvérselos si la vista se reutiliza tras el efecto de muerte
     private Spatial enemyModel;
+    private final List<Geometry> modelGeometries = new ArrayList<>();
+    private final List<Material> modelMaterials = new ArrayList<>();
     private Geometry enemyGeom; // Para cuando usamos un cubo
     private boolean useModel = true; // Por defecto intentamos usar un modelo 3D
     
@@ -38,178 +55,87 @@ public class Enemy extends Node {
     private Geometry healthBarBg;
     private Geometry healthBarFg;
     
-    // Añade esta variable miembro para almacenar el AssetManager
-    private AssetManager assetManager;
+    // Materiales compartidos (barra de salud, muerte y cubo de respaldo)
+    private final MaterialRegistry materials;
     
     /**
-     * Constructor para crear un enemigo con un tipo específico
+     * Constructor para crear la vista de un enemigo de la simulación. El
+     * modelo se copia del prototipo cacheado en lugar de cargarlo de disco.
+     * La posición y la salud llegan con la primera llamada a
+     * {@link #sync(SimulationSnapshot, int)}.
      */
-    public Enemy(AssetManager assetManager, List<Vector3f> path, EnemyType enemyType) {
-        this.assetManager = assetManager;  // Guardar referencia
-        this.waypoints = path;
-        this.type = enemyType;
-        this.health = enemyType.getHealth();
-        this.maxHealth = enemyType.getHealth();
-        this.speed = enemyType.getSpeed();
-        this.reward = enemyType.getReward();
+    public Enemy(MaterialRegistry materials, EnemyModelCache modelCache, int id, EnemyType type) {
+        this.materials = materials;
+        this.id = id;
+        this.type = type;
+        this.health = type.getHealth();
+        this.maxHealth = type.getHealth();
         
-        // Intentar cargar el modelo 3D
-        try {
-            String modelPath = enemyType.getModelPath();
-            System.out.println("Intentando cargar modelo desde: " + modelPath);
-            
-            enemyModel = assetManager.loadModel(modelPath);
-            
-            if (enemyModel != null) {
-                System.out.println("¡Modelo cargado con éxito!");
-                // Ajustar la escala según el tipo
-                if (type == EnemyType.HELLHOUND) {
-                    // Ajustar la escala para el perro
-                    enemyModel.setLocalScale(0.4f);
-                    // Ajustar la posición vertical para asegurarse de que está sobre el suelo
-                    enemyModel.setLocalTranslation(0, 0.2f, 0);
-                    
-                    // Aplicar textura al perro infernal
-                    try {
-                        // Crear nuevo material para el perro
-                        Material dogMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                        
-                        // Cargar la textura específica del perro
-                        Texture dogTexture = assetManager.loadTexture("Textures/texture_dog/texture_dog2.jpg");
-                        
-                        // Configurar parámetros de la textura para mejor calidad
-                        dogTexture.setAnisotropicFilter(8);
-                        dogTexture.setMagFilter(Texture.MagFilter.Bilinear);
-                        
-                        // Aplicar la textura al material
-                        dogMaterial.setTexture("ColorMap", dogTexture);
-                        
-                        // Aplicar un tinte rojo oscuro para hacerlo parecer más infernal
-                        dogMaterial.setColor("Color", new ColorRGBA(0.9f, 0.2f, 0.2f, 1.0f));
-                        
-                        // Aplicar el material al modelo del perro
-                        applyMaterialToSpatial(enemyModel, dogMaterial);
-                        
-                        System.out.println("Textura de perro infernal aplicada correctamente");
-                    } catch (Exception e) {
-                        System.out.println("Error al aplicar textura al perro infernal: " + e.getMessage());
-                        e.printStackTrace();
-                    }
-                    
-                    System.out.println("Aplicada escala y posición al perro infernal");
-                } else if (type == EnemyType.BASIC) {
-                    // Ajustar la escala del zombie
-                    enemyModel.setLocalScale(0.006f);
-                    enemyModel.setLocalTranslation(0, 0.0f, 0);
-                    
-                    // Aplicar textura de lava al zombie
-                    try {
-                        // Crear un nuevo material para el zombie
-                        Material zombieMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                        
-                        // Cargar la textura
-                        Texture zombieTexture = assetManager.loadTexture("Textures/zombie_textures/lava.jpg");
-                        
-                        // Configurar parámetros de la textura para mejor calidad
-                        zombieTexture.setAnisotropicFilter(8);
-                        zombieTexture.setMagFilter(Texture.MagFilter.Bilinear);
-                        
-                        // Aplicar la textura al material
-                        zombieMaterial.setTexture("ColorMap", zombieTexture);
-                        
-                        // Aplicar el material al modelo del zombie
-                        applyMaterialToSpatial(enemyModel, zombieMaterial);
-                        
-                        System.out.println("Textura de lava aplicada al zombie");
-                    } catch (Exception e) {
-                        System.out.println("Error al aplicar textura al zombie: " + e.getMessage());
-                    }
-                    
-                    System.out.println("Aplicada escala y posición al zombie");
-                } else if (type == EnemyType.TANK) {
-                    // Ajustar la escala del tanque (monstruo del futuro)
-                    enemyModel.setLocalScale(0.0006f);
-                    enemyModel.setLocalTranslation(0, 0f, 0);
-                
-                    // Aplicar textura al tanque
-                    try {
-                        // Crear un nuevo material para el tanque
-                        Material tankMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                        
-                        // Cargar la textura específica del tanque
-                        Texture tankTexture = assetManager.loadTexture("Textures/textura_tanque/textura_tanque.jpg");
-                        
-                        // Configurar parámetros de la textura para mejor calidad
-                        tankTexture.setAnisotropicFilter(8);
-                        tankTexture.setMagFilter(Texture.MagFilter.Bilinear);
-                        
-                        // Aplicar la textura al material
-                        tankMaterial.setTexture("ColorMap", tankTexture);
-                        
-                        // Aplicar un color ligeramente oscuro para añadir profundidad
-                        tankMaterial.setColor("Color", new ColorRGBA(0.7f, 0.7f, 0.7f, 1.0f));
-                        
-                        // Aplicar el material al modelo del tanque
-                        applyMaterialToSpatial(enemyModel, tankMaterial);
-                        
-                        System.out.println("Textura del tanque aplicada correctamente");
-                    } catch (Exception e) {
-                        System.out.println("Error al aplicar textura al tanque: " + e.getMessage());
-                        e.printStackTrace();
-                    }
-                    
-                    System.out.println("Aplicada escala y posición al tanque");
+        enemyModel = modelCache.createInstance(type);
+        if (enemyModel != null) {
+            this.attachChild(enemyModel);
+            useModel = true;
+            enemyModel.depthFirstTraversal(spatial -> {
+                if (spatial instanceof Geometry) {
+                    modelGeometries.add((Geometry) spatial);
+                    modelMaterials.add(((Geometry) spatial).getMaterial());
                 }
-                
-                // Verificar si el modelo tiene geometrías
-                if (enemyModel instanceof Node) {
-                    Node modelNode = (Node) enemyModel;
-                    System.out.println("El modelo tiene " + modelNode.getQuantity() + " hijos");
-                    // Si no tiene hijos, podría ser un nodo vacío
-                    if (modelNode.getQuantity() == 0) {
-                        System.out.println("ADVERTENCIA: El modelo parece estar vacío");
-                        createCubeModel(assetManager, type.getColor());
-                        useModel = false;
-                    }
-                }
-                
-                this.attachChild(enemyModel);
-                useModel = true;
-            }
-        } catch (Exception e) {
-            System.out.println("Error al cargar modelo: " + e.getMessage());
-            e.printStackTrace();
+            });
+        } else {
             // Fallback a un cubo básico si no se puede cargar el modelo
-            createCubeModel(assetManager, enemyType.getColor());
+            createCubeModel(type.getColor());
             useModel = false;
         }
         
-        // Posicionar en el inicio del camino
-        if (waypoints != null && !waypoints.isEmpty()) {
-            Vector3f startPos = waypoints.get(0);
-            this.setLocalTranslation(startPos);
-        }
-        
         // Crear barra de salud
-        createHealthBar(assetManager);
+        createHealthBar();
+    }
+    
+    /**
+     * Prepara la vista para otro enemigo del mismo tipo al sacarla del
+     * {@link EnemyPool}: salud completa, barra de salud llena y materiales
+     * originales si se le aplicó el efecto de muerte
+     * @param id Id del nuevo enemigo simulado
+     */
+    void reset(int id) {
+        this.id = id;
+        this.health = type.getHealth();
+        this.maxHealth = type.getHealth();
+        this.alive = true;
+        this.shownHealth = -1;
+        setCullHint(CullHint.Inherit);
+
+        if (deathShown) {
+            deathShown = false;
+            for (int i = 0; i < modelGeometries.size(); i++) {
+                modelGeometries.get(i).setMaterial(modelMaterials.get(i));
+            }
+            if (enemyGeom != null) {
+                enemyGeom.setMaterial(materials.getColor(type.getColor()));
+            }
+            this.attachChild(healthBarNode);
+        }
+        Vector3f scale = healthBarFg.getLocalScale();
+        scale.x = 1f;
+        healthBarFg.setLocalScale(scale);
+        healthBarFg.setLocalTranslation(0, 0, 0);
+        healthBarFg.setMaterial(materials.getColor(HEALTH_HIGH));
     }
     
     /**
      * Método auxiliar para crear un modelo de cubo si no se puede cargar el modelo 3D
      */
-    private void createCubeModel(AssetManager assetManager, ColorRGBA color) {
+    private void createCubeModel(ColorRGBA color) {
         Box box = new Box(SIZE, SIZE, SIZE);
         enemyGeom = new Geometry("EnemyBox", box);
-        Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        mat.setColor("Color", color);
-        enemyGeom.setMaterial(mat);
+        enemyGeom.setMaterial(materials.getColor(color));
         this.attachChild(enemyGeom);
     }
     
     /**
      * Crea la barra de salud para el enemigo
      */
-    private void createHealthBar(AssetManager assetManager) {
+    private void createHealthBar() {
         healthBarNode = new Node("HealthBar");
         
         // Tamaño para las barras de salud
@@ -220,16 +146,12 @@ public class Enemy extends Node {
         // Fondo de la barra (rojo)
         Box bgBox = new Box(barWidth, barHeight, barDepth);
         healthBarBg = new Geometry("HealthBarBg", bgBox);
-        Material bgMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        bgMat.setColor("Color", ColorRGBA.Red);
-        healthBarBg.setMaterial(bgMat);
+        healthBarBg.setMaterial(materials.getColor(ColorRGBA.Red));
         
         // Barra de salud actual (verde)
         Box fgBox = new Box(barWidth, barHeight, barDepth + 0.001f);
         healthBarFg = new Geometry("HealthBarFg", fgBox);
-        Material fgMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        fgMat.setColor("Color", ColorRGBA.Green);
-        healthBarFg.setMaterial(fgMat);
+        healthBarFg.setMaterial(materials.getColor(HEALTH_HIGH));
         
         // Ajustar la posición para que la barra siempre esté por encima del enemigo
         float healthBarHeight;
@@ -255,42 +177,56 @@ public class Enemy extends Node {
     }
     
     /**
-     * Actualiza la posición del enemigo, moviéndolo a través del camino
+     * Toma la salud del enemigo de la copia de la simulación. Es barato y se
+     * hace también con los enemigos que no se ven, para que los proyectiles
+     * sepan si su objetivo sigue vivo.
+     * @param i Posición del enemigo en la copia
      */
-    public void update(float tpf) {
-        if (!alive || waypoints == null || currentWaypoint >= waypoints.size()) {
-            return;
-        }
-        
-        Vector3f targetPos = waypoints.get(currentWaypoint);
-        Vector3f currentPos = getLocalTranslation();
-        Vector3f direction = targetPos.subtract(currentPos).normalizeLocal();
-        Vector3f movement = direction.mult(speed * tpf);
-        
-        // Rotar el modelo para que mire hacia donde se mueve
-        if (direction.length() > 0.1f) {
-            float angle = FastMath.atan2(direction.x, direction.z);
-            Quaternion rotation = new Quaternion();
-            rotation.fromAngleAxis(angle, Vector3f.UNIT_Y);
-            
-            if (useModel && enemyModel != null) {
-                // Para el modelo 3D
-                enemyModel.setLocalRotation(rotation);
-            } else if (enemyGeom != null) {
-                // Para el cubo
-                enemyGeom.setLocalRotation(rotation);
+    public void sync(SimulationSnapshot snapshot, int i) {
+        health = snapshot.getHealth(i);
+        maxHealth = snapshot.getMaxHealth(i);
+        alive = snapshot.isAlive(i);
+    }
+
+    /**
+     * Copia la posición, orientación y salud del enemigo simulado al nodo,
+     * interpolando entre los dos últimos ticks de la simulación
+     * @param i Posición del enemigo en la copia
+     * @param alpha Fracción del tick actual ya transcurrida (0..1)
+     */
+    public void update(SimulationSnapshot snapshot, int i, float alpha) {
+        this.setLocalTranslation(snapshot.getPosition(i, alpha, renderPosition));
+
+        // Rotar el modelo para que mire hacia donde se mueve. En un tramo recto
+        // se usa la rotación precalculada del camino; al girar se interpola
+        // por el camino más corto
+        float previousHeading = snapshot.getPreviousHeading(i);
+        float delta = snapshot.getHeading(i) - previousHeading;
+        if (delta == 0) {
+            rotation.set(snapshot.getSegmentRotation(i));
+        } else {
+            if (delta > FastMath.PI) {
+                delta -= FastMath.TWO_PI;
+            } else if (delta < -FastMath.PI) {
+                delta += FastMath.TWO_PI;
             }
+            rotation.fromAngleAxis(previousHeading + delta * alpha, Vector3f.UNIT_Y);
         }
-        
-        // Mover el enemigo
-        move(movement);
-        
-        // Comprobar si llegó al waypoint
-        float distance = currentPos.distance(targetPos);
-        if (distance < 0.1f) {
-            currentWaypoint++;
+
+        if (useModel && enemyModel != null) {
+            // Para el modelo 3D
+            enemyModel.setLocalRotation(rotation);
+        } else if (enemyGeom != null) {
+            // Para el cubo
+            enemyGeom.setLocalRotation(rotation);
         }
-        
+
+        // Reflejar el daño recibido en la simulación
+        if (health != shownHealth) {
+            shownHealth = health;
+            onDamaged();
+        }
+
         // Actualizar la orientación de la barra de salud para que mire hacia la cámara
         updateHealthBarOrientation();
     }
@@ -301,32 +237,27 @@ public class Enemy extends Node {
     private void updateHealthBarOrientation() {
         if (healthBarNode != null) {
             // Se asume una orientación fija para la barra de salud que funciona en la vista isométrica
-            Quaternion rotation = new Quaternion().fromAngles(FastMath.HALF_PI, 0, 0);
-            healthBarNode.setLocalRotation(rotation);
+            healthBarNode.setLocalRotation(HEALTH_BAR_ROTATION);
         }
     }
     
     /**
-     * Procesa el daño recibido y actualiza la barra de salud
+     * Actualiza la barra de salud o aplica el efecto de muerte tras recibir daño
      */
-    public void takeDamage(int damage) {
-        this.health -= damage;
-        
-        if (health <= 0) {
-            alive = false;
+    private void onDamaged() {
+        if (!alive) {
+            if (deathShown) {
+                return;
+            }
+            deathShown = true;
             
             // Efecto visual de muerte
             if (useModel && enemyModel != null) {
-                // Para el modelo 3D podemos aplicar un material oscuro o cambiar su opacidad
-                // Usar el assetManager guardado en el objeto en lugar de obtenerlo del Light
-                Material deathMaterial = new Material(assetManager, 
-                                                     "Common/MatDefs/Misc/Unshaded.j3md");
-                deathMaterial.setColor("Color", new ColorRGBA(0.3f, 0.3f, 0.3f, 1f)); // Gris oscuro
-                applyMaterialToSpatial(enemyModel, deathMaterial);
+                // Para el modelo 3D aplicamos un material gris oscuro
+                EnemyModelCache.applyMaterialToSpatial(enemyModel, materials.getColor(DEATH_COLOR));
             } else if (enemyGeom != null) {
-                // Para el cubo simplemente cambiamos su color
-                Material mat = enemyGeom.getMaterial();
-                mat.setColor("Color", ColorRGBA.DarkGray);
+                // Para el cubo cambiamos a un material gris (el original es compartido)
+                enemyGeom.setMaterial(materials.getColor(ColorRGBA.DarkGray));
             }
             
             // Ocultar barra de salud
@@ -342,7 +273,7 @@ public class Enemy extends Node {
      */
     private void updateHealthBar() {
         // Calcular porcentaje de salud
-        float healthPercent = health / (float)maxHealth;
+        float healthPercent = health / (float) maxHealth;
         
         // Redimensionar la barra de salud
         Vector3f scale = healthBarFg.getLocalScale();
@@ -355,81 +286,23 @@ public class Enemy extends Node {
         healthBarFg.setLocalTranslation(-offset, 0, 0);
         
         // Cambiar color según el nivel de salud
-        Material fgMat = healthBarFg.getMaterial();
+        ColorRGBA color;
         if (healthPercent > 0.6f) {
-            // Verde para buena salud
-            fgMat.setColor("Color", new ColorRGBA(0.0f, 1.0f, 0.0f, 1.0f));
+            color = HEALTH_HIGH; // Verde para buena salud
         } else if (healthPercent > 0.3f) {
-            // Amarillo para salud media
-            fgMat.setColor("Color", new ColorRGBA(1.0f, 1.0f, 0.0f, 1.0f));
+            color = HEALTH_MEDIUM; // Amarillo para salud media
         } else {
-            // Naranja para salud baja
-            fgMat.setColor("Color", new ColorRGBA(1.0f, 0.5f, 0.0f, 1.0f));
+            color = HEALTH_LOW; // Naranja para salud baja
         }
-    }
-    
-    /**
-     * Aplica un material a todas las geometrías en un spatial
-     */
-    private void applyMaterialToSpatial(Spatial spatial, Material material) {
-        if (spatial instanceof Geometry) {
-            ((Geometry) spatial).setMaterial(material);
-        } else if (spatial instanceof Node) {
-            Node node = (Node) spatial;
-            for (Spatial child : node.getChildren()) {
-                applyMaterialToSpatial(child, material);
-            }
-        }
-    }
-    
-    // Añade este método auxiliar en la clase Enemy:
-    private void applyMaterialRecursively(Node node, Material material) {
-        for (Spatial child : node.getChildren()) {
-            if (child instanceof Geometry) {
-                ((Geometry)child).setMaterial(material);
-            } else if (child instanceof Node) {
-                applyMaterialRecursively((Node)child, material);
-            }
-        }
-    }
-
-    public void upgradeStats(float param){
-        float maxSpeedTank = 3.0f;
-        float maxSpeedPerro = 7.0f;
-        float maxSpeedZombie = 5.0f;
-        
-        float speedNueva = getSpeed();
-        speedNueva += speedNueva * param;
-        
-        if(this.type.getName() == "Monstruo Tanque" && speedNueva > maxSpeedTank){
-            this.maxHealth += (int)(this.maxHealth * (2*param));
-            this.speed = maxSpeedTank;
-        }else if (this.type.getName() == "Zombie" && speedNueva > maxSpeedPerro){
-            this.maxHealth += (int)(this.maxHealth * (2*param));
-            this.speed = maxSpeedZombie;
-        }else if (this.type.getName() == "Perro Infernal" && speedNueva > maxSpeedZombie){
-            this.maxHealth += (int)(this.maxHealth * (2*param));
-            this.speed = maxSpeedPerro;
-        }else{
-            this.maxHealth += (int)(this.maxHealth * param);
-            this.speed += this.speed * param;
-        }
-            
-        
-        System.out.println("-------------"+this.type.getName()+"-------------------");
-        System.out.println("VIDA "+this.maxHealth+"---- VELOCIDAD"+this.speed+"-----");
-        System.out.println("----------------"+param+"--------------------");
+        healthBarFg.setMaterial(materials.getColor(color));
     }
     
     // Getters
+    public int getId() { return id; }
+    public int getHandle() { return handle; }
+    public void setHandle(int handle) { this.handle = handle; }
     public boolean isAlive() { return alive; }
     public int getHealth() { return health; }
     public Vector3f getPosition() { return getLocalTranslation(); }
-    public boolean hasFinishedPath() {
-        // Asegúrate de que esta función existe y devuelve true cuando el enemigo ha llegado al final
-        return currentWaypoint >= waypoints.size();
-    }
     public EnemyType getType() { return type; }
-    public int getReward() { return reward; }
-    public float getSpeed() {return speed;}
 }
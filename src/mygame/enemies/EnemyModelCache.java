@@ -0,0 +1,129 @@
+package mygame.enemies;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import java.util.EnumMap;
+import java.util.Map;
+import mygame.render.MaterialRegistry;
+
+/**
+ * Caché de prototipos de modelos de enemigos. Cada tipo se carga, se escala
+ * y se texturiza una sola vez; cada aparición recibe después una copia con
+ * {@code clone(false)}, que comparte mallas y materiales con el prototipo.
+ * Los materiales texturizados salen del {@link MaterialRegistry}.
+ */
+public class EnemyModelCache {
+
+    private final AssetManager assetManager;
+    private final MaterialRegistry materials;
+
+    // Un prototipo por tipo; null si el modelo no se pudo cargar
+    private final Map<EnemyType, Spatial> prototypes = new EnumMap<>(EnemyType.class);
+
+    public EnemyModelCache(AssetManager assetManager, MaterialRegistry materials) {
+        this.assetManager = assetManager;
+        this.materials = materials;
+    }
+
+    /**
+     * Carga por adelantado todos los modelos para que la primera aparición de
+     * cada tipo no provoque un tirón en mitad de la partida
+     */
+    public void preload() {
+        for (EnemyType type : EnemyType.values()) {
+            getPrototype(type);
+        }
+    }
+
+    /**
+     * Crea una instancia nueva del modelo de un tipo de enemigo
+     * @return La copia del prototipo o null si el modelo no está disponible
+     */
+    public Spatial createInstance(EnemyType type) {
+        Spatial prototype = getPrototype(type);
+        return prototype != null ? prototype.clone(false) : null;
+    }
+
+    public boolean isLoaded(EnemyType type) {
+        return prototypes.containsKey(type);
+    }
+
+    private Spatial getPrototype(EnemyType type) {
+        if (!prototypes.containsKey(type)) {
+            prototypes.put(type, loadPrototype(type));
+        }
+        return prototypes.get(type);
+    }
+
+    // Carga el modelo y le aplica escala, posición y textura según el tipo
+    private Spatial loadPrototype(EnemyType type) {
+        try {
+            String modelPath = type.getModelPath();
+            System.out.println("Intentando cargar modelo desde: " + modelPath);
+
+            Spatial model = assetManager.loadModel(modelPath);
+            if (model == null) {
+                return null;
+            }
+            System.out.println("¡Modelo cargado con éxito!");
+
+            // Verificar si el modelo tiene geometrías
+            if (model instanceof Node && ((Node) model).getQuantity() == 0) {
+                System.out.println("ADVERTENCIA: El modelo de " + type.getName() + " parece estar vacío");
+                return null;
+            }
+
+            if (type == EnemyType.HELLHOUND) {
+                // Escala del perro, ligeramente elevado para que quede sobre el suelo
+                model.setLocalScale(0.4f);
+                model.setLocalTranslation(0, 0.2f, 0);
+                // Tinte rojo oscuro para hacerlo parecer más infernal
+                applyTexture(model, "Textures/texture_dog/texture_dog2.jpg", new ColorRGBA(0.9f, 0.2f, 0.2f, 1.0f));
+            } else if (type == EnemyType.BASIC) {
+                // Zombie con textura de lava
+                model.setLocalScale(0.006f);
+                model.setLocalTranslation(0, 0.0f, 0);
+                applyTexture(model, "Textures/zombie_textures/lava.jpg", null);
+            } else if (type == EnemyType.TANK) {
+                // Tanque (monstruo del futuro) con un color ligeramente oscuro para añadir profundidad
+                model.setLocalScale(0.0006f);
+                model.setLocalTranslation(0, 0f, 0);
+                applyTexture(model, "Textures/textura_tanque/textura_tanque.jpg", new ColorRGBA(0.7f, 0.7f, 0.7f, 1.0f));
+            }
+
+            System.out.println("Prototipo de " + type.getName() + " preparado");
+            return model;
+        } catch (Exception e) {
+            System.out.println("Error al cargar modelo: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private void applyTexture(Spatial model, String texturePath, ColorRGBA tint) {
+        try {
+            applyMaterialToSpatial(model, materials.getTexture(texturePath, tint));
+        } catch (Exception e) {
+            System.out.println("Error al aplicar textura " + texturePath + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Aplica un material a todas las geometrías en un spatial
+     */
+    static void applyMaterialToSpatial(Spatial spatial, Material material) {
+        if (spatial instanceof Geometry) {
+            ((Geometry) spatial).setMaterial(material);
+        } else if (spatial instanceof Node) {
+            Node node = (Node) spatial;
+            for (Spatial child : node.getChildren()) {
+                applyMaterialToSpatial(child, material);
+            }
+        }
+    }
+}
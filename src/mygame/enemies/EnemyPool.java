@@ -0,0 +1,75 @@
+package mygame.enemies;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import mygame.render.MaterialRegistry;
+
+/**
+ * Pool de vistas de enemigos por tipo. Una vista que sale de la escena
+ * (muerta o escapada) vuelve aquí con su modelo y su barra de salud, y la
+ * siguiente aparición del mismo tipo la reinicia en lugar de construir
+ * otra, así las oleadas normales no crean nodos, geometrías ni mallas.
+ */
+public class EnemyPool {
+
+    private final MaterialRegistry materials;
+    private final EnemyModelCache modelCache;
+    private final Map<EnemyType, ArrayDeque<Enemy>> available = new EnumMap<>(EnemyType.class);
+    private final int[] inUse = new int[EnemyType.values().length];
+    private final int[] created = new int[EnemyType.values().length];
+
+    // Contadores de uso del pool
+    private long hits = 0;
+    private long misses = 0;
+
+    public EnemyPool(MaterialRegistry materials, EnemyModelCache modelCache) {
+        this.materials = materials;
+        this.modelCache = modelCache;
+        for (EnemyType type : EnemyType.values()) {
+            available.put(type, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Entrega la vista de un enemigo recién aparecido, reutilizando una
+     * libre del mismo tipo si la hay (si no, cuenta como fallo)
+     * @param id Id del enemigo simulado
+     */
+    public Enemy acquire(int id, EnemyType type) {
+        Enemy enemy = available.get(type).poll();
+        if (enemy != null) {
+            hits++;
+            enemy.reset(id);
+        } else {
+            misses++;
+            created[type.ordinal()]++;
+            enemy = new Enemy(materials, modelCache, id, type);
+        }
+        inUse[type.ordinal()]++;
+        return enemy;
+    }
+
+    /**
+     * Devuelve una vista al pool; el llamador ya la ha quitado de la escena
+     */
+    public void release(Enemy enemy) {
+        inUse[enemy.getType().ordinal()]--;
+        available.get(enemy.getType()).push(enemy);
+    }
+
+    // Estadísticas del pool
+    public int getInUse(EnemyType type) { return inUse[type.ordinal()]; }
+    public int getAvailable(EnemyType type) { return available.get(type).size(); }
+    public int getCreated(EnemyType type) { return created[type.ordinal()]; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+
+    /**
+     * Fracción de peticiones servidas con una vista reciclada
+     */
+    public float getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : hits / (float) total;
+    }
+}
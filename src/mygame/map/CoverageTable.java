@@ -0,0 +1,139 @@
+package mygame.map;
+
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import mygame.towers.TowerType;
+
+/**
+ * Tramos del camino que alcanza cada casilla de torre. Como el camino y las
+ * casillas son fijos, para cada (casilla, tipo de torre, nivel) se calculan
+ * una sola vez los intervalos de progreso que quedan dentro del rango; así
+ * saber si un enemigo está a tiro es comparar su progreso con un intervalo.
+ * <p>
+ * Además de la simulación, lo usan la interfaz (cuánto camino cubre una
+ * torre) y los bots (qué casillas cubren más camino).
+ */
+public class CoverageTable {
+
+    public static final float TOWER_HEIGHT = 0.5f; // Altura fija de las torres
+
+    private final PathTable pathTable;
+    private final List<int[]> spots;
+    // [casilla][tipo de torre][nivel] -> pares [desde, hasta]
+    private final float[][][][] coverage;
+    private final Map<TowerType, List<List<int[]>>> spotsByCoverage = new EnumMap<>(TowerType.class);
+
+    public CoverageTable(PathTable pathTable, List<int[]> spots) {
+        this.pathTable = pathTable;
+        this.spots = spots;
+        TowerType[] types = TowerType.values();
+        this.coverage = new float[spots.size()][types.length][][];
+
+        for (int s = 0; s < spots.size(); s++) {
+            int[] spot = spots.get(s);
+            Vector3f center = new Vector3f(spot[0], TOWER_HEIGHT, spot[1]);
+            for (TowerType type : types) {
+                float[][] byLevel = new float[type.getMaxUpgradeLevel() + 1][];
+                for (int level = 0; level < byLevel.length; level++) {
+                    byLevel[level] = pathTable.computeCoverage(center, rangeOf(type, level));
+                }
+                coverage[s][type.ordinal()] = byLevel;
+            }
+        }
+
+        // Casillas ordenadas de más a menos camino cubierto, por tipo y nivel
+        for (TowerType type : types) {
+            List<List<int[]>> byLevel = new ArrayList<>();
+            for (int level = 0; level <= type.getMaxUpgradeLevel(); level++) {
+                float[] lengths = new float[spots.size()];
+                List<Integer> order = new ArrayList<>();
+                for (int s = 0; s < spots.size(); s++) {
+                    lengths[s] = lengthOf(coverage[s][type.ordinal()][level]);
+                    order.add(s);
+                }
+                order.sort((a, b) -> Float.compare(lengths[b], lengths[a]));
+                List<int[]> sorted = new ArrayList<>(spots.size());
+                for (int s : order) {
+                    sorted.add(spots.get(s));
+                }
+                byLevel.add(Collections.unmodifiableList(sorted));
+            }
+            spotsByCoverage.put(type, byLevel);
+        }
+    }
+
+    private static float rangeOf(TowerType type, int level) {
+        return level == 0 ? type.getRange() : type.getUpgradedRange(level);
+    }
+
+    /**
+     * Índice de la casilla de torre en la lista del camino, o -1
+     */
+    public int spotIndexOf(int gridX, int gridZ) {
+        for (int s = 0; s < spots.size(); s++) {
+            int[] spot = spots.get(s);
+            if (spot[0] == gridX && spot[1] == gridZ) {
+                return s;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Intervalos de progreso que cubre una torre. Fuera de las casillas de
+     * torre (p. ej. en pruebas) se calculan en el momento.
+     * @return Pares [desde, hasta] ordenados; no se deben modificar
+     */
+    public float[] getCoverage(int gridX, int gridZ, TowerType type, int level) {
+        int s = spotIndexOf(gridX, gridZ);
+        if (s < 0 || level < 0 || level > type.getMaxUpgradeLevel()) {
+            return pathTable.computeCoverage(new Vector3f(gridX, TOWER_HEIGHT, gridZ), rangeOf(type, level));
+        }
+        return coverage[s][type.ordinal()][level];
+    }
+
+    /**
+     * Longitud total de camino que cubre una torre
+     */
+    public float getCoveredLength(int gridX, int gridZ, TowerType type, int level) {
+        return lengthOf(getCoverage(gridX, gridZ, type, level));
+    }
+
+    // Suma de las longitudes de unos pares [desde, hasta]
+    private static float lengthOf(float[] intervals) {
+        float total = 0;
+        for (int i = 0; i < intervals.length; i += 2) {
+            total += intervals[i + 1] - intervals[i];
+        }
+        return total;
+    }
+
+    /**
+     * Casillas de torre ordenadas de más a menos camino cubierto
+     */
+    public List<int[]> getSpotsByCoverage(TowerType type, int level) {
+        return spotsByCoverage.get(type).get(level);
+    }
+
+    /**
+     * Casillas desde las que una torre alcanza un punto del camino
+     * @param progress Distancia desde el inicio del camino
+     */
+    public List<int[]> getSpotsCovering(float progress, TowerType type, int level) {
+        List<int[]> result = new ArrayList<>();
+        for (int s = 0; s < spots.size(); s++) {
+            if (PathTable.contains(coverage[s][type.ordinal()][level], progress)) {
+                result.add(spots.get(s));
+            }
+        }
+        return result;
+    }
+
+    public PathTable getPathTable() {
+        return pathTable;
+    }
+}
@@ -18,6 +18,7 @@ import com.jme3.scene.shape.Quad;
 import com.jme3.texture.Texture;
 import com.jme3.texture.Texture.WrapMode;
 import com.jme3.util.SkyFactory;
+import mygame.render.MaterialRegistry;
 
 /**
  * Crea un terreno plano como campo de juego.
@@ -28,7 +29,12 @@ public class GameMap extends Node {
     public static final float TILE_SIZE = 1.0f;
     public static final float PATH_Y = 0.1f; // Altura del camino
 
-    public GameMap(AssetManager assetManager) {
+    // Materiales compartidos del terreno, el camino y el muro
+    private final MaterialRegistry materials;
+
+    public GameMap(AssetManager assetManager, MaterialRegistry materials) {
+        this.materials = materials;
+        
         // Crear terreno base con textura
         Box ground = new Box(MAP_SIZE/2, 0.1f, MAP_SIZE/2);
         
@@ -39,13 +45,8 @@ public class GameMap extends Node {
         
         Geometry groundGeom = new Geometry("Ground", ground);
         
-        // Usar material con textura
-        Material groundMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        
-        // Cargar la textura
-        Texture groundTexture = assetManager.loadTexture("Textures/ground.jpg");
-        groundTexture.setWrap(Texture.WrapMode.Repeat); // Asegurar que la textura se repite
-        groundMat.setTexture("ColorMap", groundTexture);
+        // Usar material con textura, asegurando que la textura se repite
+        Material groundMat = materials.getTexture("Textures/ground.jpg", null, WrapMode.Repeat, RenderState.BlendMode.Off);
         
         groundGeom.setMaterial(groundMat);
         this.attachChild(groundGeom);
@@ -93,13 +94,8 @@ public class GameMap extends Node {
         Path pathCalculator = new Path();
         int[][] pathCoords = pathCalculator.getPathCoordinates();
         
-        // Crear material para el camino
-        Material pathMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        
-        // Cargar textura para el camino
-        Texture pathTexture = assetManager.loadTexture("Textures/redsky.jpg");
-        pathTexture.setWrap(WrapMode.Repeat);
-        pathMat.setTexture("ColorMap", pathTexture);
+        // Crear material con textura para el camino
+        Material pathMat = materials.getTexture("Textures/redsky.jpg", null, WrapMode.Repeat, RenderState.BlendMode.Off);
         
         // Alternativa: usar un color sólido
         // pathMat.setColor("Color", new ColorRGBA(0.6f, 0.4f, 0.2f, 1f)); // Color marrón para el camino
@@ -201,11 +197,8 @@ public class GameMap extends Node {
      */
     private void applyRockTexture(com.jme3.scene.Spatial spatial, AssetManager assetManager) {
         try {
-            // Crear material con la textura específica
-            Material rockMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            
             // Intentar varias ubicaciones posibles para la textura de roca
-            Texture rockTexture = null;
+            Material rockMaterial = null;
             String[] possibleTexturePaths = {
                 "Textures/rock_textures/rocavolcan.jpg",
                 "Textures/rocavolcan.jpg",
@@ -215,35 +208,26 @@ public class GameMap extends Node {
                 "Textures/lava.jpg"
             };
             
-            // Intentar cargar la textura de una de las ubicaciones posibles
-            Exception lastException = null;
+            // Intentar cargar la textura de una de las ubicaciones posibles,
+            // con un tinte muy oscuro (valores bajos hacen la textura más oscura)
             for (String path : possibleTexturePaths) {
                 try {
                     System.out.println("Intentando cargar textura desde: " + path);
-                    rockTexture = assetManager.loadTexture(path);
-                    if (rockTexture != null) {
-                        System.out.println("¡Textura cargada exitosamente desde: " + path + "!");
-                        break;
-                    }
+                    rockMaterial = materials.getTexture(path, new ColorRGBA(0.3f, 0.2f, 0.2f, 1.0f),
+                            WrapMode.Repeat, RenderState.BlendMode.Off);
+                    System.out.println("¡Textura cargada exitosamente desde: " + path + "!");
+                    break;
                 } catch (Exception e) {
-                    lastException = e;
                     System.out.println("No se pudo cargar desde: " + path);
                 }
             }
             
             // Si no se pudo cargar ninguna textura, usar color sólido oscuro directamente
-            if (rockTexture == null) {
+            if (rockMaterial == null) {
                 // Color oscuro para simular roca volcánica sin luz
-                rockMaterial.setColor("Color", new ColorRGBA(0.2f, 0.1f, 0.08f, 1.0f));
+                rockMaterial = materials.getColor(new ColorRGBA(0.2f, 0.1f, 0.08f, 1.0f));
                 System.out.println("Aplicando color oscuro sólido al muro");
             } else {
-                // Si se cargó la textura, aplicarla pero con tinte muy oscuro
-                rockTexture.setWrap(WrapMode.Repeat);
-                rockMaterial.setTexture("ColorMap", rockTexture);
-                
-                // Aplicar tinte muy oscuro a la textura (valores bajos hacen la textura más oscura)
-                rockMaterial.setColor("Color", new ColorRGBA(0.3f, 0.2f, 0.2f, 1.0f));
-                
                 System.out.println("Textura de roca con tinte oscuro aplicada correctamente al muro");
             }
             
@@ -287,8 +271,7 @@ public class GameMap extends Node {
      * @param assetManager El administrador de assets
      */
     private void applyDarkFallbackMaterial(com.jme3.scene.Spatial spatial, AssetManager assetManager) {
-        Material darkMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        darkMaterial.setColor("Color", new ColorRGBA(0.2f, 0.1f, 0.08f, 1.0f)); // Color marrón muy oscuro
+        Material darkMaterial = materials.getColor(new ColorRGBA(0.2f, 0.1f, 0.08f, 1.0f)); // Color marrón muy oscuro
         
         System.out.println("Aplicando color oscuro de respaldo al muro");
         
@@ -305,8 +288,7 @@ public class GameMap extends Node {
      */
     private void createSimpleWall(AssetManager assetManager, float x, float y, float z, float rotationDegrees) {
         // Material para el muro con color naranja
-        Material wallMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        wallMat.setColor("Color", new ColorRGBA(1.0f, 0.5f, 0.0f, 1.0f)); // Color naranja brillante
+        Material wallMat = materials.getColor(new ColorRGBA(1.0f, 0.5f, 0.0f, 1.0f)); // Color naranja brillante
         
         // Crear una geometría de caja simple
         Box wallBox = new Box(3.0f, 1.0f, 0.5f);
@@ -335,13 +317,8 @@ public class GameMap extends Node {
         Path pathCalculator = new Path();
         List<int[]> validSpots = pathCalculator.getValidTowerSpots();
         
-        // Crear material para los spots
-        Material spotMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        
-        // Cargar y configurar la textura
-        Texture pathTexture = assetManager.loadTexture("Textures/dirt.jpg");
-        pathTexture.setWrap(WrapMode.Repeat);
-        spotMat.setTexture("ColorMap", pathTexture);
+        // Crear material con textura para los spots
+        Material spotMat = materials.getTexture("Textures/dirt.jpg", null, WrapMode.Repeat, RenderState.BlendMode.Off);
         
         // Crear los indicadores de spots
         for (int[] spot : validSpots) {
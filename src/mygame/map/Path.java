@@ -10,6 +10,8 @@ public class Path {
     private List<Vector3f> waypoints = new ArrayList<>();
     private int[][] pathCoordinates; // Representación de la cuadrícula del camino
     private List<int[]> validTowerSpots; // Lista de coordenadas válidas para torres
+    private PathTable pathTable; // Longitudes acumuladas de los waypoints
+    private CoverageTable coverageTable; // Tramos que alcanza cada casilla de torre
     
     public Path() {
         // Inicializar waypoints (puntos del camino)
@@ -20,6 +22,9 @@ public class Path {
         
         // Definir posiciones válidas para torres
         createValidTowerSpots();
+        
+        pathTable = new PathTable(waypoints);
+        coverageTable = new CoverageTable(pathTable, validTowerSpots);
     }
     
     private void createValidTowerSpots() {
@@ -146,6 +151,20 @@ public class Path {
         return waypoints;
     }
     
+    /**
+     * Tabla de longitudes acumuladas para medir el progreso sobre el camino
+     */
+    public PathTable getPathTable() {
+        return pathTable;
+    }
+    
+    /**
+     * Tramos del camino que cubre cada casilla de torre por tipo y nivel
+     */
+    public CoverageTable getCoverageTable() {
+        return coverageTable;
+    }
+    
     /**
      * Devuelve las coordenadas del camino en el sistema de cuadrícula del mapa
      * @return Matriz de pares [x, y] que representan las casillas ocupadas por el camino
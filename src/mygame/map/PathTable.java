@@ -0,0 +1,273 @@
+package mygame.map;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.util.List;
+
+/**
+ * Tabla de tramos del camino: longitudes acumuladas, direcciones unitarias
+ * y orientaciones precalculadas de cada tramo. Los enemigos solo guardan la
+ * distancia recorrida desde el inicio ("progreso"); su posición y su
+ * orientación salen de esta tabla. También calcula qué tramos del camino
+ * quedan dentro de un radio.
+ * <p>
+ * Se construye una vez por camino; todas las consultas son de solo lectura
+ * y no reservan memoria salvo {@link #computeCoverage}.
+ */
+public class PathTable {
+
+    private final List<Vector3f> waypoints;
+    private final float[] cumulative;  // Distancia desde el inicio hasta cada waypoint
+    private final Vector3f[] directions; // Dirección unitaria de cada tramo
+    private final float[] headings;      // Ángulo alrededor de Y de cada tramo
+    private final Quaternion[] rotations; // Rotación de un modelo que mira a lo largo del tramo
+    private final float length;
+
+    // Los mismos datos por componentes, para los núcleos que leen por lotes
+    private final float[] startX, startY, startZ;
+    private final float[] dirX, dirY, dirZ;
+
+    public PathTable(List<Vector3f> waypoints) {
+        this.waypoints = waypoints;
+        int n = waypoints.size();
+        this.cumulative = new float[n];
+        this.directions = new Vector3f[Math.max(0, n - 1)];
+        this.headings = new float[directions.length];
+        this.rotations = new Quaternion[directions.length];
+        float total = 0;
+        for (int i = 0; i < n - 1; i++) {
+            cumulative[i] = total;
+            Vector3f segment = waypoints.get(i + 1).subtract(waypoints.get(i));
+            float segmentLength = segment.length();
+            directions[i] = segmentLength > 0 ? segment.divideLocal(segmentLength) : segment;
+            headings[i] = FastMath.atan2(directions[i].x, directions[i].z);
+            rotations[i] = new Quaternion().fromAngleAxis(headings[i], Vector3f.UNIT_Y);
+            total += segmentLength;
+        }
+        if (n > 0) {
+            cumulative[n - 1] = total;
+        }
+        this.length = total;
+
+        int segments = directions.length;
+        this.startX = new float[segments];
+        this.startY = new float[segments];
+        this.startZ = new float[segments];
+        this.dirX = new float[segments];
+        this.dirY = new float[segments];
+        this.dirZ = new float[segments];
+        for (int i = 0; i < segments; i++) {
+            Vector3f start = waypoints.get(i);
+            startX[i] = start.x;
+            startY[i] = start.y;
+            startZ[i] = start.z;
+            dirX[i] = directions[i].x;
+            dirY[i] = directions[i].y;
+            dirZ[i] = directions[i].z;
+        }
+    }
+
+    /**
+     * Tramo en el que está un progreso. Parte del tramo anterior del mismo
+     * enemigo, así el coste es constante mientras avance hacia delante.
+     * @param hint Tramo de la consulta anterior (0 si no hay)
+     */
+    public int segmentAt(float progress, int hint) {
+        int segment = Math.max(0, Math.min(hint, directions.length - 1));
+        while (segment < directions.length - 1 && progress >= cumulative[segment + 1]) {
+            segment++;
+        }
+        while (segment > 0 && progress < cumulative[segment]) {
+            segment--;
+        }
+        return segment;
+    }
+
+    /**
+     * Escribe en store el punto del camino a esa distancia del inicio
+     * @param segment Tramo devuelto por {@link #segmentAt}
+     */
+    public Vector3f positionAt(int segment, float progress, Vector3f store) {
+        if (directions.length == 0) {
+            return store.set(waypoints.isEmpty() ? Vector3f.ZERO : waypoints.get(0));
+        }
+        float along = Math.max(0, Math.min(progress, length)) - cumulative[segment];
+        Vector3f start = waypoints.get(segment);
+        Vector3f dir = directions[segment];
+        return store.set(start.x + dir.x * along, start.y + dir.y * along, start.z + dir.z * along);
+    }
+
+    public float getHeading(int segment) {
+        return directions.length == 0 ? 0 : headings[segment];
+    }
+
+    /**
+     * Rotación precalculada del tramo; compartida, no se debe modificar
+     */
+    public Quaternion getRotation(int segment) {
+        return directions.length == 0 ? Quaternion.IDENTITY : rotations[segment];
+    }
+
+    /**
+     * Calcula los intervalos de progreso del camino que quedan a distancia
+     * menor o igual que range de center. Resuelve la intersección exacta de
+     * la esfera con cada tramo recto y une los intervalos contiguos.
+     * @return Pares [desde, hasta] consecutivos, ordenados por progreso
+     */
+    public float[] computeCoverage(Vector3f center, float range) {
+        float[] intervals = new float[directions.length * 2];
+        int count = 0;
+        float rangeSq = range * range;
+
+        for (int i = 0; i < directions.length; i++) {
+            Vector3f start = waypoints.get(i);
+            Vector3f dir = directions[i];
+            float segmentLength = cumulative[i + 1] - cumulative[i];
+
+            // |start + t*dir - center|^2 <= range^2, con t en [0, segmentLength]
+            float ox = start.x - center.x;
+            float oy = start.y - center.y;
+            float oz = start.z - center.z;
+            float b = ox * dir.x + oy * dir.y + oz * dir.z;
+            float c = ox * ox + oy * oy + oz * oz - rangeSq;
+            float discriminant = b * b - c;
+            if (discriminant < 0) {
+                continue;
+            }
+            float root = (float) Math.sqrt(discriminant);
+            float t0 = Math.max(0, -b - root);
+            float t1 = Math.min(segmentLength, -b + root);
+            if (t0 > t1) {
+                continue;
+            }
+
+            float from = cumulative[i] + t0;
+            float to = cumulative[i] + t1;
+            if (count > 0 && from <= intervals[count - 1]) {
+                // Continúa el intervalo del tramo anterior
+                intervals[count - 1] = Math.max(intervals[count - 1], to);
+            } else {
+                intervals[count++] = from;
+                intervals[count++] = to;
+            }
+        }
+
+        float[] result = new float[count];
+        System.arraycopy(intervals, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Punto en el que un proyectil lanzado ahora desde shooter alcanza a un
+     * enemigo que avanza por el camino a velocidad constante. Tramo a tramo
+     * se resuelve la ecuación |E(t) - shooter| = projectileSpeed * t, que en
+     * un tramo recto es de segundo grado; si el enemigo llega al final del
+     * camino antes, se apunta al final.
+     * @param progress Progreso actual del enemigo
+     * @param hint Tramo actual del enemigo (ver {@link #segmentAt})
+     * @param speed Velocidad del enemigo en unidades por segundo (0 si está parado)
+     * @param store Recibe el punto de impacto
+     * @return Tiempo de vuelo en segundos
+     */
+    public float intercept(float progress, int hint, float speed, Vector3f shooter, float projectileSpeed,
+                           Vector3f store) {
+        float projectileSpeedSq = projectileSpeed * projectileSpeed;
+        float time = 0;  // Momento en que el enemigo está en 'from'
+        float from = Math.min(progress, length);
+        for (int i = segmentAt(from, hint); i < directions.length; i++) {
+            float end = cumulative[i + 1];
+            float along = from - cumulative[i];
+
+            // |D + w*tau|^2 = s^2 * (time + tau)^2, con D la posición relativa en 'from' y w = dir*speed
+            float dx = startX[i] + dirX[i] * along - shooter.x;
+            float dy = startY[i] + dirY[i] * along - shooter.y;
+            float dz = startZ[i] + dirZ[i] * along - shooter.z;
+            float a = speed * speed - projectileSpeedSq;
+            float b = 2 * ((dx * dirX[i] + dy * dirY[i] + dz * dirZ[i]) * speed - projectileSpeedSq * time);
+            float c = dx * dx + dy * dy + dz * dz - projectileSpeedSq * time * time;
+            float duration = speed > 0 ? (end - from) / speed : Float.POSITIVE_INFINITY;
+            float tau = smallestRoot(a, b, c);
+            if (tau >= 0 && tau <= duration) {
+                float at = along + speed * tau;
+                store.set(startX[i] + dirX[i] * at, startY[i] + dirY[i] * at, startZ[i] + dirZ[i] * at);
+                return time + tau;
+            }
+            if (speed <= 0) {
+                break;
+            }
+            time += duration;
+            from = end;
+        }
+
+        // El enemigo llega al final (o no se mueve y no hay solución): apuntar allí
+        positionAt(Math.max(0, directions.length - 1), from, store);
+        return store.distance(shooter) / projectileSpeed;
+    }
+
+    // Menor raíz no negativa de a*x^2 + b*x + c, o -1 si no hay
+    private static float smallestRoot(float a, float b, float c) {
+        if (Math.abs(a) < 1e-6f) {
+            float root = b != 0 ? -c / b : -1;
+            return root >= 0 ? root : -1;
+        }
+        float discriminant = b * b - 4 * a * c;
+        if (discriminant < 0) {
+            return -1;
+        }
+        float sqrt = (float) Math.sqrt(discriminant);
+        float r0 = (-b - sqrt) / (2 * a);
+        float r1 = (-b + sqrt) / (2 * a);
+        float low = Math.min(r0, r1);
+        float high = Math.max(r0, r1);
+        return low >= 0 ? low : (high >= 0 ? high : -1);
+    }
+
+    /**
+     * Comprueba si un progreso cae dentro de alguno de los intervalos
+     */
+    public static boolean contains(float[] intervals, float progress) {
+        for (int i = 0; i < intervals.length; i += 2) {
+            if (progress >= intervals[i] && progress <= intervals[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Número de tramos rectos (uno menos que waypoints)
+     */
+    public int getSegmentCount() {
+        return directions.length;
+    }
+
+    // Arrays por tramo para los núcleos por lotes; compartidos, no se deben modificar
+    public float[] getCumulativeLengths() { return cumulative; }
+    public float[] getHeadings() { return headings; }
+    public float[] getSegmentStartX() { return startX; }
+    public float[] getSegmentStartY() { return startY; }
+    public float[] getSegmentStartZ() { return startZ; }
+    public float[] getSegmentDirX() { return dirX; }
+    public float[] getSegmentDirY() { return dirY; }
+    public float[] getSegmentDirZ() { return dirZ; }
+
+    public List<Vector3f> getWaypoints() {
+        return waypoints;
+    }
+
+    public int getWaypointCount() {
+        return cumulative.length;
+    }
+
+    /**
+     * Distancia desde el inicio del camino hasta el waypoint indicado
+     */
+    public float getCumulativeLength(int waypoint) {
+        return cumulative[waypoint];
+    }
+
+    public float getLength() {
+        return length;
+    }
+}
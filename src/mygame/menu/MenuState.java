@@ -22,6 +22,7 @@ import com.jme3.scene.Node;
 import com.jme3.scene.shape.Quad;
 import com.jme3.system.AppSettings;
 import com.jme3.ui.Picture;
+import mygame.render.TweenState;
 
 /**
  * Estado de aplicación que maneja el menú principal del juego
@@ -33,6 +34,12 @@ public class MenuState extends AbstractAppState implements ActionListener {
     private AssetManager assetManager;
     private AppStateManager stateManager;
     private InputManager inputManager;
+    private TweenState tweens;
+    
+    // Duración de los efectos (segundos)
+    private static final float MUSIC_FADE_RATE = 2.0f;     // Volumen que baja la música por segundo
+    private static final float START_DELAY = 0.3f;         // Espera entre la música y el juego
+    private static final float BUTTON_CLICK_TIME = 0.15f;  // Vuelta del botón a su tamaño
     
     // Nodos para los diferentes elementos del menú
     private Node menuNode = new Node("Menu");
@@ -63,6 +70,7 @@ public class MenuState extends AbstractAppState implements ActionListener {
         this.assetManager = app.getAssetManager();
         this.stateManager = stateManager;
         this.inputManager = app.getInputManager();
+        this.tweens = stateManager.getState(TweenState.class);
         
         // Configurar audio
         setupAudio();
@@ -243,34 +251,16 @@ public class MenuState extends AbstractAppState implements ActionListener {
         // Reproducir sonido de inicio
         startGameSound.playInstance();
         
-        // Detener música del menú gradualmente
-        app.enqueue(() -> {
-            float volume = menuMusic.getVolume();
-            while (volume > 0) {
-                volume -= 0.1f;
-                menuMusic.setVolume(volume);
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+        // Detener música del menú gradualmente y empezar el juego tras un pequeño retraso
+        AudioNode music = menuMusic;
+        int fade = tweens.volume(music, music.getVolume(), 0, music.getVolume() / MUSIC_FADE_RATE);
+        tweens.onFinish(fade, () -> {
+            music.stop();
+            tweens.onFinish(tweens.wait(START_DELAY), () -> {
+                if (startGameCallback != null) {
+                    startGameCallback.run();
                 }
-            }
-            menuMusic.stop();
-            return null;
-        });
-        
-        // Iniciar el juego después de un pequeño retraso
-        app.enqueue(() -> {
-            try {
-                Thread.sleep(300);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-            
-            if (startGameCallback != null) {
-                startGameCallback.run();
-            }
-            return null;
+            });
         });
     }
 
@@ -302,59 +292,27 @@ public class MenuState extends AbstractAppState implements ActionListener {
     }
     
     /**
-     * Anima el botón de inicio cuando se hace clic.
-     * Crea una secuencia de animación simple con cambio de color.
-     */    private void animateButtonClick() {
+     * Anima el botón de inicio cuando se hace clic: se encoge y se aclara
+     * y vuelve a su tamaño en un instante.
+     */
+    private void animateButtonClick() {
         com.jme3.ui.Picture buttonPic = (com.jme3.ui.Picture) startButton.getUserData("buttonPic");
         if (buttonPic == null) return;
         
-        // Crear un temporizador para manejar la animación
-        java.util.Timer timer = new java.util.Timer();
+        // Reducir tamaño y cambiar opacidad
+        Material mat = buttonPic.getMaterial();
+        if (mat != null) {
+            mat.setFloat("Alpha", 0.7f);
+        }
         
-        // Primera fase: reducir tamaño y cambiar opacidad
-        app.enqueue(() -> {
-            // Guardar la posición actual
-            Vector3f pos = buttonPic.getLocalTranslation();
-            
-            // Aplicar escala
-            startButton.setLocalScale(0.95f);
-            buttonPic.setLocalScale(0.95f);
-            
-            // Restaurar posición Z
-            buttonPic.setLocalTranslation(pos.x, pos.y, pos.z);
-            
-            // Aplicar transparencia
-            Material mat = buttonPic.getMaterial();
+        // Volver a la escala normal y restaurar la opacidad al terminar
+        tweens.scale(startButton, 0.95f, 1.0f, BUTTON_CLICK_TIME);
+        int restore = tweens.scale(buttonPic, 0.95f, 1.0f, BUTTON_CLICK_TIME);
+        tweens.onFinish(restore, () -> {
             if (mat != null) {
-                mat.setFloat("Alpha", 0.7f);
+                mat.setFloat("Alpha", 1.0f);
             }
-            return null;
         });
-        
-        // Segunda fase: restaurar
-        timer.schedule(new java.util.TimerTask() {
-            @Override
-            public void run() {
-                app.enqueue(() -> {
-                    // Guardar la posición actual
-                    Vector3f pos = buttonPic.getLocalTranslation();
-                    
-                    // Restaurar escala
-                    startButton.setLocalScale(1.0f);
-                    buttonPic.setLocalScale(1.0f);
-                    
-                    // Restaurar posición Z
-                    buttonPic.setLocalTranslation(pos.x, pos.y, pos.z);
-                    
-                    // Restaurar opacidad
-                    Material mat = buttonPic.getMaterial();
-                    if (mat != null) {
-                        mat.setFloat("Alpha", 1.0f);
-                    }
-                    return null;
-                });
-            }
-        }, 150);
     }
     
     private boolean isClickOnButton() {
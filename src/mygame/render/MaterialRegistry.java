@@ -0,0 +1,174 @@
+package mygame.render;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.material.Material;
+import com.jme3.material.RenderState.BlendMode;
+import com.jme3.math.ColorRGBA;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.SceneGraphVisitorAdapter;
+import com.jme3.scene.Spatial;
+import com.jme3.texture.Texture;
+import com.jme3.texture.Texture.WrapMode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Registro de materiales compartidos. Cada combinación de definición, color,
+ * textura y estado de mezcla se crea una sola vez, así el renderizador puede
+ * agrupar las geometrías por material y no se compilan shaders idénticos.
+ * <p>
+ * Los materiales entregados se comparten entre muchas geometrías y no deben
+ * modificarse: para cambiar el color de algo se pide otro material al
+ * registro y se asigna con {@code setMaterial}.
+ */
+public class MaterialRegistry {
+
+    public static final String UNSHADED = "Common/MatDefs/Misc/Unshaded.j3md";
+
+    private final AssetManager assetManager;
+    private final Map<Key, Material> materials = new HashMap<>();
+
+    public MaterialRegistry(AssetManager assetManager) {
+        this.assetManager = assetManager;
+    }
+
+    /**
+     * Material opaco de un solo color
+     */
+    public Material getColor(ColorRGBA color) {
+        return get(UNSHADED, null, color, null, BlendMode.Off, true);
+    }
+
+    /**
+     * Material de un solo color con el modo de mezcla indicado
+     */
+    public Material getColor(ColorRGBA color, BlendMode blendMode) {
+        return get(UNSHADED, null, color, null, blendMode, true);
+    }
+
+    /**
+     * Material texturizado, opcionalmente teñido (tint puede ser null)
+     */
+    public Material getTexture(String texturePath, ColorRGBA tint) {
+        return get(UNSHADED, texturePath, tint, null, BlendMode.Off, true);
+    }
+
+    /**
+     * Material texturizado con repetición y modo de mezcla propios
+     */
+    public Material getTexture(String texturePath, ColorRGBA tint, WrapMode wrap, BlendMode blendMode) {
+        return get(UNSHADED, texturePath, tint, wrap, blendMode, true);
+    }
+
+    /**
+     * Busca o crea el material para la combinación completa de parámetros.
+     * Si la textura no existe se propaga la excepción del AssetManager y no
+     * se guarda nada en el registro.
+     */
+    public Material get(String matDef, String texturePath, ColorRGBA color,
+                        WrapMode wrap, BlendMode blendMode, boolean depthWrite) {
+        Key key = new Key(matDef, texturePath, color, wrap, blendMode, depthWrite);
+        Material material = materials.get(key);
+        if (material == null) {
+            material = create(key);
+            materials.put(key, material);
+        }
+        return material;
+    }
+
+    private Material create(Key key) {
+        Material material = new Material(assetManager, key.matDef);
+        if (key.texturePath != null) {
+            Texture texture = assetManager.loadTexture(key.texturePath);
+
+            // Configurar parámetros de la textura para mejor calidad
+            texture.setAnisotropicFilter(8);
+            texture.setMagFilter(Texture.MagFilter.Bilinear);
+            if (key.wrap != null) {
+                texture.setWrap(key.wrap);
+            }
+            material.setTexture("ColorMap", texture);
+        }
+        if (key.color != null) {
+            material.setColor("Color", key.color);
+        }
+        if (key.blendMode != BlendMode.Off) {
+            material.getAdditionalRenderState().setBlendMode(key.blendMode);
+        }
+        if (!key.depthWrite) {
+            material.getAdditionalRenderState().setDepthWrite(false);
+        }
+        return material;
+    }
+
+    /**
+     * Número de materiales distintos creados por el registro
+     */
+    public int size() {
+        return materials.size();
+    }
+
+    /**
+     * Cuenta los materiales distintos que usan las geometrías de una escena
+     */
+    public static int countDistinctMaterials(Spatial root) {
+        Set<Material> live = Collections.newSetFromMap(new IdentityHashMap<>());
+        root.depthFirstTraversal(new SceneGraphVisitorAdapter() {
+            @Override
+            public void visit(Geometry geom) {
+                if (geom.getMaterial() != null) {
+                    live.add(geom.getMaterial());
+                }
+            }
+        });
+        return live.size();
+    }
+
+    // Clave inmutable; el color se copia para que el llamador pueda reutilizar el suyo
+    private static final class Key {
+        private final String matDef;
+        private final String texturePath;
+        private final ColorRGBA color;
+        private final WrapMode wrap;
+        private final BlendMode blendMode;
+        private final boolean depthWrite;
+        private final int hash;
+
+        Key(String matDef, String texturePath, ColorRGBA color,
+            WrapMode wrap, BlendMode blendMode, boolean depthWrite) {
+            this.matDef = matDef;
+            this.texturePath = texturePath;
+            this.color = color != null ? color.clone() : null;
+            this.wrap = wrap;
+            this.blendMode = blendMode;
+            this.depthWrite = depthWrite;
+            this.hash = Objects.hash(matDef, texturePath, this.color, wrap, blendMode, depthWrite);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return depthWrite == other.depthWrite
+                    && matDef.equals(other.matDef)
+                    && Objects.equals(texturePath, other.texturePath)
+                    && Objects.equals(color, other.color)
+                    && wrap == other.wrap
+                    && blendMode == other.blendMode;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
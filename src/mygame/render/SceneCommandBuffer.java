@@ -0,0 +1,113 @@
+package mygame.render;
+
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Cola de cambios del grafo de escena (altas y bajas de enemigos,
+ * proyectiles y torres) que se aplican todos juntos una vez por frame,
+ * justo antes de actualizar el estado geométrico y dibujar. Así el resto
+ * del frame ve una escena estable y cada nodo se invalida como mucho una
+ * vez por frame.
+ * <p>
+ * De las operaciones sobre un mismo spatial en un frame solo cuenta la
+ * última: un proyectil que se lanza e impacta en el mismo frame, o una
+ * vista que vuelve al pool y se reutiliza enseguida, no tocan la escena.
+ */
+public class SceneCommandBuffer {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Operaciones pendientes en orden; parent null es una baja
+    private Spatial[] children = new Spatial[INITIAL_CAPACITY];
+    private Node[] parents = new Node[INITIAL_CAPACITY];
+    private boolean[] superseded = new boolean[INITIAL_CAPACITY];
+    private int count = 0;
+    private final Map<Spatial, Boolean> seen = new IdentityHashMap<>();
+
+    // Contadores del último frame aplicado
+    private int lastQueued = 0;
+    private int lastAttached = 0;
+    private int lastDetached = 0;
+    private int maxQueued = 0;
+
+    /**
+     * Añade el spatial al nodo en el próximo {@link #flush()}
+     */
+    public void attach(Node parent, Spatial child) {
+        add(parent, child);
+    }
+
+    /**
+     * Quita el spatial de su padre en el próximo {@link #flush()}
+     */
+    public void detach(Spatial child) {
+        add(null, child);
+    }
+
+    private void add(Node parent, Spatial child) {
+        if (count == children.length) {
+            int capacity = count * 2;
+            children = Arrays.copyOf(children, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            superseded = new boolean[capacity];
+        }
+        children[count] = child;
+        parents[count] = parent;
+        count++;
+    }
+
+    /**
+     * Aplica en orden la última operación pendiente de cada spatial y vacía
+     * la cola. Se llama una vez por frame desde el hilo de render.
+     */
+    public void flush() {
+        // De atrás adelante: cualquier operación anterior a la última de su spatial sobra
+        for (int i = count - 1; i >= 0; i--) {
+            superseded[i] = seen.put(children[i], Boolean.TRUE) != null;
+        }
+        seen.clear();
+
+        int attached = 0;
+        int detached = 0;
+        for (int i = 0; i < count; i++) {
+            Spatial child = children[i];
+            Node parent = parents[i];
+            if (!superseded[i]) {
+                if (parent != null && child.getParent() != parent) {
+                    parent.attachChild(child);
+                    attached++;
+                } else if (parent == null && child.getParent() != null) {
+                    child.removeFromParent();
+                    detached++;
+                }
+            }
+            children[i] = null;
+            parents[i] = null;
+        }
+        lastQueued = count;
+        lastAttached = attached;
+        lastDetached = detached;
+        maxQueued = Math.max(maxQueued, count);
+        count = 0;
+    }
+
+    /**
+     * Descarta las operaciones pendientes, p. ej. al vaciar la escena
+     */
+    public void clear() {
+        Arrays.fill(children, 0, count, null);
+        Arrays.fill(parents, 0, count, null);
+        count = 0;
+    }
+
+    // Estadísticas del último frame
+    public int getPendingCount() { return count; }
+    public int getLastQueued() { return lastQueued; }
+    public int getLastAttached() { return lastAttached; }
+    public int getLastDetached() { return lastDetached; }
+    public int getMaxQueued() { return maxQueued; }
+}
@@ -0,0 +1,250 @@
+package mygame.render;
+
+import com.jme3.app.state.AbstractAppState;
+import com.jme3.audio.AudioNode;
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Spatial;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import mygame.sim.EntityHandles;
+
+/**
+ * Estado de aplicación que anima propiedades (escala, posición, volumen,
+ * color de un material) desde el bucle de actualización, en el hilo de
+ * render. Sustituye a los hilos y temporizadores de Java que cambiaban la
+ * escena o el audio desde fuera de ese hilo.
+ * <p>
+ * Las animaciones se reciclan de un pool y se identifican con asas de
+ * {@link EntityHandles}: crear cientos a la vez no crea hilos ni objetos
+ * nuevos una vez caliente el pool, y un asa de una animación terminada se
+ * reconoce sin riesgo aunque su objeto ya anime otra cosa.
+ */
+public class TweenState extends AbstractAppState {
+
+    private static final int SCALE = 0;
+    private static final int POSITION = 1;
+    private static final int VOLUME = 2;
+    private static final int COLOR = 3;
+    private static final int WAIT = 4;
+
+    // Una animación en curso; se reutiliza al terminar
+    private static final class Tween {
+        int handle;
+        int slot; // Posición en la lista de animaciones en curso
+        int kind;
+        float elapsed;
+        float duration;
+        Spatial spatial;
+        AudioNode audio;
+        Material material;
+        String param;
+        float fromValue, toValue;
+        final Vector3f fromVector = new Vector3f(), toVector = new Vector3f(), vector = new Vector3f();
+        final ColorRGBA fromColor = new ColorRGBA(), toColor = new ColorRGBA(), color = new ColorRGBA();
+        Runnable onFinish;
+
+        void reset() {
+            spatial = null;
+            audio = null;
+            material = null;
+            param = null;
+            onFinish = null;
+        }
+    }
+
+    private final EntityHandles handles = new EntityHandles(64);
+    private Tween[] byIndex = new Tween[64];
+    private Tween[] active = new Tween[64];
+    private int activeCount = 0;
+    private int[] finishedHandles = new int[64]; // Terminadas en el frame en curso
+    private final ArrayDeque<Tween> free = new ArrayDeque<>();
+    private int created = 0;
+
+    /**
+     * Escala uniforme de un spatial
+     * @return Asa de la animación
+     */
+    public int scale(Spatial spatial, float from, float to, float duration) {
+        Tween tween = start(SCALE, duration);
+        tween.spatial = spatial;
+        tween.fromValue = from;
+        tween.toValue = to;
+        return tween.handle;
+    }
+
+    /**
+     * Posición local de un spatial
+     */
+    public int move(Spatial spatial, Vector3f from, Vector3f to, float duration) {
+        Tween tween = start(POSITION, duration);
+        tween.spatial = spatial;
+        tween.fromVector.set(from);
+        tween.toVector.set(to);
+        return tween.handle;
+    }
+
+    /**
+     * Volumen de un sonido
+     */
+    public int volume(AudioNode audio, float from, float to, float duration) {
+        Tween tween = start(VOLUME, duration);
+        tween.audio = audio;
+        tween.fromValue = from;
+        tween.toValue = to;
+        return tween.handle;
+    }
+
+    /**
+     * Parámetro de color de un material. El material no debe ser uno
+     * compartido del {@link MaterialRegistry}.
+     */
+    public int color(Material material, String param, ColorRGBA from, ColorRGBA to, float duration) {
+        Tween tween = start(COLOR, duration);
+        tween.material = material;
+        tween.param = param;
+        tween.fromColor.set(from);
+        tween.toColor.set(to);
+        return tween.handle;
+    }
+
+    /**
+     * Animación vacía, para encadenar algo con {@link #onFinish} tras una espera
+     */
+    public int wait(float duration) {
+        return start(WAIT, duration).handle;
+    }
+
+    /**
+     * Acción que se ejecuta, en el hilo de render, cuando la animación
+     * llega al final (no si se cancela)
+     * @return false si el asa ya no es de una animación en curso
+     */
+    public boolean onFinish(int handle, Runnable action) {
+        if (!handles.isValid(handle)) {
+            return false;
+        }
+        byIndex[EntityHandles.indexOf(handle)].onFinish = action;
+        return true;
+    }
+
+    /**
+     * Detiene la animación donde esté, sin ejecutar su acción final
+     */
+    public boolean cancel(int handle) {
+        if (!handles.isValid(handle)) {
+            return false;
+        }
+        finish(byIndex[EntityHandles.indexOf(handle)].slot);
+        return true;
+    }
+
+    public boolean isRunning(int handle) {
+        return handles.isValid(handle);
+    }
+
+    private Tween start(int kind, float duration) {
+        Tween tween = free.poll();
+        if (tween == null) {
+            tween = new Tween();
+            created++;
+        }
+        tween.kind = kind;
+        tween.elapsed = 0;
+        tween.duration = Math.max(0, duration);
+        tween.handle = handles.allocate();
+        int index = EntityHandles.indexOf(tween.handle);
+        if (index >= byIndex.length) {
+            byIndex = Arrays.copyOf(byIndex, Math.max(index + 1, byIndex.length * 2));
+        }
+        byIndex[index] = tween;
+        if (activeCount == active.length) {
+            active = Arrays.copyOf(active, activeCount * 2);
+            finishedHandles = Arrays.copyOf(finishedHandles, active.length); // Puede crecer mientras se recorre
+        }
+        tween.slot = activeCount;
+        active[activeCount++] = tween;
+        return tween;
+    }
+
+    /**
+     * Avanza las animaciones que ya estaban en curso al empezar el frame y
+     * después retira las terminadas y ejecuta sus acciones finales. Lo que
+     * esas acciones creen o cancelen no altera el recorrido: una animación
+     * nueva empieza a contar en el frame siguiente.
+     */
+    @Override
+    public void update(float tpf) {
+        int finishedCount = 0;
+        for (int i = 0, n = activeCount; i < n; i++) {
+            Tween tween = active[i];
+            tween.elapsed += tpf;
+            float t = tween.duration > 0 ? Math.min(1f, tween.elapsed / tween.duration) : 1f;
+            apply(tween, t);
+            if (t >= 1f) {
+                finishedHandles[finishedCount++] = tween.handle;
+            }
+        }
+
+        for (int k = 0; k < finishedCount; k++) {
+            // Una acción anterior pudo cancelarla
+            int handle = finishedHandles[k];
+            if (!handles.isValid(handle)) {
+                continue;
+            }
+            Tween tween = byIndex[EntityHandles.indexOf(handle)];
+            Runnable action = tween.onFinish;
+            finish(tween.slot);
+            if (action != null) {
+                action.run();
+            }
+        }
+    }
+
+    private static void apply(Tween tween, float t) {
+        switch (tween.kind) {
+            case SCALE:
+                tween.spatial.setLocalScale(FastMath.interpolateLinear(t, tween.fromValue, tween.toValue));
+                break;
+            case POSITION:
+                tween.spatial.setLocalTranslation(tween.vector.interpolateLocal(tween.fromVector, tween.toVector, t));
+                break;
+            case VOLUME:
+                tween.audio.setVolume(FastMath.interpolateLinear(t, tween.fromValue, tween.toValue));
+                break;
+            case COLOR:
+                tween.material.setColor(tween.param, tween.color.interpolateLocal(tween.fromColor, tween.toColor, t));
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Devuelve al pool la animación de la posición i, moviendo la última a su hueco
+    private void finish(int i) {
+        Tween tween = active[i];
+        handles.release(tween.handle);
+        byIndex[EntityHandles.indexOf(tween.handle)] = null;
+        tween.reset();
+        free.push(tween);
+        active[i] = active[--activeCount];
+        active[i].slot = i;
+        active[activeCount] = null;
+    }
+
+    /**
+     * Detiene todas las animaciones sin ejecutar sus acciones finales
+     */
+    public void clear() {
+        while (activeCount > 0) {
+            finish(activeCount - 1);
+        }
+    }
+
+    // Estadísticas
+    public int getActiveCount() { return activeCount; }
+    public int getPooledCount() { return free.size(); }
+    public int getCreatedCount() { return created; }
+}
@@ -0,0 +1,66 @@
+package mygame.sim;
+
+/**
+ * Parámetros de equilibrio que se ajustan probando partidas: la curva de
+ * mejora de los enemigos por oleada y la escala de las mejoras de torre
+ * respecto a los valores de {@link mygame.towers.TowerType}.
+ * <p>
+ * {@link #DEFAULT} reproduce exactamente el juego original.
+ */
+public class BalanceConfig {
+
+    public static final BalanceConfig DEFAULT = new BalanceConfig(0.2f, 1.1f, 1.25f, 1f, 1f);
+
+    // Mejora de los enemigos: lineal en las oleadas 2-6, exponencial después
+    private final float linearScalingStep;
+    private final float exponentialScalingFactor;
+    private final float exponentialScalingBase;
+
+    // Escala de las mejoras de torre (1 = valores de TowerType)
+    private final float upgradeDamageScale;
+    private final float upgradeCostScale;
+
+    public BalanceConfig(float linearScalingStep, float exponentialScalingFactor, float exponentialScalingBase,
+                         float upgradeDamageScale, float upgradeCostScale) {
+        this.linearScalingStep = linearScalingStep;
+        this.exponentialScalingFactor = exponentialScalingFactor;
+        this.exponentialScalingBase = exponentialScalingBase;
+        this.upgradeDamageScale = upgradeDamageScale;
+        this.upgradeCostScale = upgradeCostScale;
+    }
+
+    /**
+     * Mejora que se aplica a los enemigos de una oleada (0 en la primera)
+     */
+    public float getEnemyScaling(int wave) {
+        if (wave < 2) {
+            return 0f;
+        }
+        if (wave <= 6) {
+            // Mejora lineal de la ronda 2 a 6
+            return linearScalingStep * (wave - 1);
+        }
+        return exponentialScalingFactor * (float) Math.pow(exponentialScalingBase, wave - 6);
+    }
+
+    public int scaleUpgradeDamage(int damage) {
+        return upgradeDamageScale == 1f ? damage : Math.round(damage * upgradeDamageScale);
+    }
+
+    public int scaleUpgradeCost(int cost) {
+        return upgradeCostScale == 1f ? cost : Math.round(cost * upgradeCostScale);
+    }
+
+    // Getters
+    public float getLinearScalingStep() { return linearScalingStep; }
+    public float getExponentialScalingFactor() { return exponentialScalingFactor; }
+    public float getExponentialScalingBase() { return exponentialScalingBase; }
+    public float getUpgradeDamageScale() { return upgradeDamageScale; }
+    public float getUpgradeCostScale() { return upgradeCostScale; }
+
+    @Override
+    public String toString() {
+        return "lineal=" + linearScalingStep + " exp=" + exponentialScalingFactor + "*" + exponentialScalingBase
+                + "^n daño=" + upgradeDamageScale + " coste=" + upgradeCostScale;
+    }
+}
@@ -0,0 +1,46 @@
+package mygame.sim;
+
+import mygame.enemies.EnemyType;
+
+/**
+ * Plantilla de componentes con la que nace un enemigo en el
+ * {@link EnemyStore}: salud, velocidad y recompensa, más el
+ * {@link EnemyType} que usa la vista para elegir el modelo. Cada tipo tiene
+ * la suya ({@link #of(EnemyType)}); un enemigo con otros valores solo
+ * necesita otra plantilla, sin tocar el enumerado ni el grafo de escena.
+ */
+public final class EnemyArchetype {
+
+    private static final EnemyArchetype[] BY_TYPE = new EnemyArchetype[EnemyType.values().length];
+
+    static {
+        for (EnemyType type : EnemyType.values()) {
+            BY_TYPE[type.ordinal()] = new EnemyArchetype(type, type.getHealth(), type.getSpeed(), type.getReward());
+        }
+    }
+
+    private final EnemyType type;
+    private final int health;
+    private final float speed;
+    private final int reward;
+
+    public EnemyArchetype(EnemyType type, int health, float speed, int reward) {
+        this.type = type;
+        this.health = health;
+        this.speed = speed;
+        this.reward = reward;
+    }
+
+    /**
+     * Plantilla con los valores del tipo
+     */
+    public static EnemyArchetype of(EnemyType type) {
+        return BY_TYPE[type.ordinal()];
+    }
+
+    // Getters
+    public EnemyType getType() { return type; }
+    public int getHealth() { return health; }
+    public float getSpeed() { return speed; }
+    public int getReward() { return reward; }
+}
@@ -0,0 +1,82 @@
+package mygame.sim;
+
+/**
+ * Bucles calientes de la simulación sobre los arrays del {@link EnemyStore}:
+ * avanzar a todos los enemigos por el camino y buscar el enemigo más cercano
+ * dentro del rango de cada torre.
+ * <p>
+ * Hay dos implementaciones con resultados idénticos bit a bit: la escalar,
+ * que funciona en cualquier JVM, y la vectorial ({@code jdk.incubator.vector}),
+ * que solo se carga si el módulo está disponible. Se elige al arrancar con
+ * la propiedad {@code -Dmygame.kernels=auto|vector|scalar} (por defecto
+ * {@code auto}: vectorial si se puede).
+ */
+public interface EnemyKernels {
+
+    String PROPERTY = "mygame.kernels";
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    String getName();
+
+    /**
+     * Guarda el estado anterior y avanza a los enemigos vivos
+     * (equivalente a {@link EnemyStore#move})
+     */
+    default void advance(EnemyStore store, float tpf) {
+        advance(store, 0, store.size(), tpf);
+    }
+
+    /**
+     * Lo mismo solo para las posiciones [from, to). Trozos distintos se
+     * pueden mover en paralelo si from es múltiplo de 64.
+     */
+    void advance(EnemyStore store, int from, int to, float tpf);
+
+    /**
+     * Busca el enemigo vivo más cercano a un punto con distancia al cuadrado
+     * menor o igual que rangeSq. En caso de empate gana la posición más baja
+     * del almacén (el que apareció antes).
+     * @return Posición en el almacén o -1 si no hay ninguno
+     */
+    int nearestInRange(EnemyStore store, float cx, float cy, float cz, float rangeSq);
+
+    /**
+     * Misma búsqueda para varias torres de una vez
+     * @param result Posición elegida para cada torre, o -1
+     */
+    default void nearestInRange(EnemyStore store, float[] cx, float[] cy, float[] cz, float[] rangeSq,
+                                int count, int[] result) {
+        for (int t = 0; t < count; t++) {
+            result[t] = nearestInRange(store, cx[t], cy[t], cz[t], rangeSq[t]);
+        }
+    }
+
+    /**
+     * Núcleos indicados por {@link #PROPERTY}, o los escalares si no se
+     * pueden cargar los vectoriales
+     */
+    static EnemyKernels fromSystemProperty() {
+        String mode = System.getProperty(PROPERTY, "auto").trim().toLowerCase();
+        if (mode.equals("scalar")) {
+            return ScalarKernels.INSTANCE;
+        }
+        if (!mode.equals("auto") && !mode.equals("vector")) {
+            System.err.println("Valor no válido para " + PROPERTY + ": " + mode + " (se usa auto)");
+            mode = "auto";
+        }
+        boolean available = ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+        if (!available) {
+            if (mode.equals("vector")) {
+                System.err.println("Falta --add-modules " + VECTOR_MODULE + "; se usan los núcleos escalares");
+            }
+            return ScalarKernels.INSTANCE;
+        }
+        try {
+            // Por reflexión: sin el módulo la clase ni siquiera se puede cargar
+            return (EnemyKernels) Class.forName("mygame.sim.VectorKernels").getField("INSTANCE").get(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("No se pudieron cargar los núcleos vectoriales: " + e);
+            return ScalarKernels.INSTANCE;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package mygame.sim;
+
+import com.jme3.math.Vector3f;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import mygame.enemies.EnemyType;
+import mygame.map.PathTable;
+
+/**
+ * Almacén de enemigos en estructura de arrays: cada propiedad vive en su
+ * propio array paralelo y el enemigo i ocupa la posición i de todos ellos.
+ * La simulación recorre estos arrays en bucles simples, sin saltar de objeto
+ * en objeto.
+ * <p>
+ * {@link SimEnemy} es solo un asa hacia una posición del almacén para los
+ * eventos y la vista. Las posiciones se compactan una vez por tick
+ * conservando el orden de aparición, así el resultado de la partida no
+ * depende de cómo se reparten los huecos.
+ */
+public class EnemyStore {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final EnemyType[] TYPES = EnemyType.values();
+
+    private final PathTable pathTable;
+    private final Vector3f scratch = new Vector3f();
+    private int size = 0;
+
+    // Identidad
+    SimEnemy[] handles;
+    int[] ids;
+    byte[] types;
+
+    // Estado de juego
+    int[] health;
+    int[] maxHealth;
+    int[] rewards;
+    float[] speeds;
+    long[] alive;       // Bit i: el enemigo i sigue vivo
+    long[] finished;    // Bit i: el enemigo i llegó al final del camino
+    long[] removed;     // Bit i: se quitará en la próxima compactación
+
+    // Movimiento: progreso sobre el camino y tramo en el que está
+    float[] progress;
+    int[] segments;
+
+    // Copia del tramo actual de cada enemigo (progreso al inicio y al final,
+    // punto inicial y dirección), para que el avance lea arrays contiguos.
+    // Solo se escribe al cambiar de tramo.
+    float[] segmentStart, segmentEnd;
+    float[] originX, originY, originZ;
+    float[] dirX, dirY, dirZ;
+
+    // Posición y orientación del tick actual y del anterior (para interpolar)
+    float[] x, y, z, heading;
+    float[] prevX, prevY, prevZ, prevHeading;
+
+    public EnemyStore(PathTable pathTable) {
+        this.pathTable = pathTable;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        handles = handles == null ? new SimEnemy[capacity] : Arrays.copyOf(handles, capacity);
+        ids = ids == null ? new int[capacity] : Arrays.copyOf(ids, capacity);
+        types = types == null ? new byte[capacity] : Arrays.copyOf(types, capacity);
+        health = health == null ? new int[capacity] : Arrays.copyOf(health, capacity);
+        maxHealth = maxHealth == null ? new int[capacity] : Arrays.copyOf(maxHealth, capacity);
+        rewards = rewards == null ? new int[capacity] : Arrays.copyOf(rewards, capacity);
+        speeds = speeds == null ? new float[capacity] : Arrays.copyOf(speeds, capacity);
+        int words = (capacity + 63) >> 6;
+        alive = alive == null ? new long[words] : Arrays.copyOf(alive, words);
+        finished = finished == null ? new long[words] : Arrays.copyOf(finished, words);
+        removed = removed == null ? new long[words] : Arrays.copyOf(removed, words);
+        progress = progress == null ? new float[capacity] : Arrays.copyOf(progress, capacity);
+        segments = segments == null ? new int[capacity] : Arrays.copyOf(segments, capacity);
+        segmentStart = segmentStart == null ? new float[capacity] : Arrays.copyOf(segmentStart, capacity);
+        segmentEnd = segmentEnd == null ? new float[capacity] : Arrays.copyOf(segmentEnd, capacity);
+        originX = originX == null ? new float[capacity] : Arrays.copyOf(originX, capacity);
+        originY = originY == null ? new float[capacity] : Arrays.copyOf(originY, capacity);
+        originZ = originZ == null ? new float[capacity] : Arrays.copyOf(originZ, capacity);
+        dirX = dirX == null ? new float[capacity] : Arrays.copyOf(dirX, capacity);
+        dirY = dirY == null ? new float[capacity] : Arrays.copyOf(dirY, capacity);
+        dirZ = dirZ == null ? new float[capacity] : Arrays.copyOf(dirZ, capacity);
+        x = x == null ? new float[capacity] : Arrays.copyOf(x, capacity);
+        y = y == null ? new float[capacity] : Arrays.copyOf(y, capacity);
+        z = z == null ? new float[capacity] : Arrays.copyOf(z, capacity);
+        heading = heading == null ? new float[capacity] : Arrays.copyOf(heading, capacity);
+        prevX = prevX == null ? new float[capacity] : Arrays.copyOf(prevX, capacity);
+        prevY = prevY == null ? new float[capacity] : Arrays.copyOf(prevY, capacity);
+        prevZ = prevZ == null ? new float[capacity] : Arrays.copyOf(prevZ, capacity);
+        prevHeading = prevHeading == null ? new float[capacity] : Arrays.copyOf(prevHeading, capacity);
+    }
+
+    /**
+     * Añade un enemigo con los valores de su tipo
+     * @param startProgress Distancia desde el inicio (0 para una aparición normal)
+     */
+    public SimEnemy add(int id, EnemyType type, float startProgress) {
+        return add(id, EnemyArchetype.of(type), startProgress);
+    }
+
+    /**
+     * Añade un enemigo en el punto del camino indicado, con los componentes
+     * iniciales de la plantilla
+     * @param startProgress Distancia desde el inicio (0 para una aparición normal)
+     */
+    public SimEnemy add(int id, EnemyArchetype archetype, float startProgress) {
+        if (size == handles.length) {
+            allocate(handles.length * 2);
+        }
+        int i = size++;
+        ids[i] = id;
+        types[i] = (byte) archetype.getType().ordinal();
+        health[i] = archetype.getHealth();
+        maxHealth[i] = archetype.getHealth();
+        rewards[i] = archetype.getReward();
+        speeds[i] = archetype.getSpeed();
+        setBit(alive, i, true);
+        setBit(finished, i, false);
+        setBit(removed, i, false);
+
+        // Posicionar en el camino, mirando hacia su tramo
+        progress[i] = startProgress;
+        enterSegment(i, pathTable.segmentAt(startProgress, 0));
+        pathTable.positionAt(segments[i], startProgress, scratch);
+        x[i] = prevX[i] = scratch.x;
+        y[i] = prevY[i] = scratch.y;
+        z[i] = prevZ[i] = scratch.z;
+        prevHeading[i] = heading[i];
+
+        SimEnemy handle = new SimEnemy(this, i, id, archetype.getType());
+        handles[i] = handle;
+        return handle;
+    }
+
+    /**
+     * Avanza a todos los enemigos vivos por el camino. El estado actual pasa
+     * a ser el anterior antes de moverlos.
+     */
+    public void move(float tpf) {
+        savePrevious(0, size);
+        moveRange(0, size, tpf);
+    }
+
+    /**
+     * Avanza a los enemigos vivos de las posiciones [from, to) sin tocar el
+     * estado anterior; referencia escalar de los núcleos por lotes. Solo
+     * escribe en esas posiciones, así varios hilos pueden mover trozos
+     * distintos si empiezan en múltiplos de 64 (una palabra de los bits).
+     */
+    void moveRange(int from, int to, float tpf) {
+        float length = pathTable.getLength();
+        boolean straight = pathTable.getSegmentCount() > 0; // Sin tramos no hay nada que recorrer
+        for (int i = from; i < to; i++) {
+            if (!isAlive(i) || hasFinishedPath(i)) {
+                continue;
+            }
+            float p = progress[i] + speeds[i] * tpf;
+            if (p >= length) {
+                // Llegó al final del camino
+                p = length;
+                setBit(finished, i, true);
+            }
+            progress[i] = p;
+            int segment = pathTable.segmentAt(p, segments[i]);
+            if (segment != segments[i]) {
+                enterSegment(i, segment);
+            }
+            if (straight) {
+                // Igual que PathTable.positionAt con los datos del tramo copiados
+                float along = Math.max(0, Math.min(p, length)) - segmentStart[i];
+                x[i] = originX[i] + dirX[i] * along;
+                y[i] = originY[i] + dirY[i] * along;
+                z[i] = originZ[i] + dirZ[i] * along;
+            }
+        }
+    }
+
+    /**
+     * Pone al enemigo en un tramo y copia los datos del tramo y su orientación
+     */
+    void enterSegment(int i, int segment) {
+        segments[i] = segment;
+        heading[i] = pathTable.getHeading(segment);
+        if (pathTable.getSegmentCount() == 0) {
+            return;
+        }
+        segmentStart[i] = pathTable.getCumulativeLength(segment);
+        segmentEnd[i] = pathTable.getCumulativeLength(segment + 1);
+        originX[i] = pathTable.getSegmentStartX()[segment];
+        originY[i] = pathTable.getSegmentStartY()[segment];
+        originZ[i] = pathTable.getSegmentStartZ()[segment];
+        dirX[i] = pathTable.getSegmentDirX()[segment];
+        dirY[i] = pathTable.getSegmentDirY()[segment];
+        dirZ[i] = pathTable.getSegmentDirZ()[segment];
+    }
+
+    /**
+     * Copia la posición y la orientación actuales de [from, to) en las del
+     * tick anterior
+     */
+    void savePrevious(int from, int to) {
+        System.arraycopy(x, from, prevX, from, to - from);
+        System.arraycopy(y, from, prevY, from, to - from);
+        System.arraycopy(z, from, prevZ, from, to - from);
+        System.arraycopy(heading, from, prevHeading, from, to - from);
+    }
+
+    /**
+     * Aplica daño; el enemigo muere si se queda sin vida
+     */
+    public void damage(int i, int amount) {
+        health[i] -= amount;
+        if (health[i] <= 0) {
+            setBit(alive, i, false);
+        }
+    }
+
+    /**
+     * Mejora de estadísticas por oleada (más vida y velocidad, con tope de
+     * velocidad por tipo)
+     */
+    public void upgradeStats(int i, float param) {
+        float maxSpeedTank = 3.0f;
+        float maxSpeedPerro = 7.0f;
+        float maxSpeedZombie = 5.0f;
+
+        EnemyType type = getType(i);
+        float speedNueva = speeds[i];
+        speedNueva += speedNueva * param;
+
+        if (type == EnemyType.TANK && speedNueva > maxSpeedTank) {
+            maxHealth[i] += (int) (maxHealth[i] * (2 * param));
+            speeds[i] = maxSpeedTank;
+        } else if (type == EnemyType.BASIC && speedNueva > maxSpeedPerro) {
+            maxHealth[i] += (int) (maxHealth[i] * (2 * param));
+            speeds[i] = maxSpeedZombie;
+        } else if (type == EnemyType.HELLHOUND && speedNueva > maxSpeedZombie) {
+            maxHealth[i] += (int) (maxHealth[i] * (2 * param));
+            speeds[i] = maxSpeedPerro;
+        } else {
+            maxHealth[i] += (int) (maxHealth[i] * param);
+            speeds[i] += speeds[i] * param;
+        }
+    }
+
+    /**
+     * Marca un enemigo para quitarlo en la próxima {@link #compact()}
+     */
+    public void markRemoved(int i) {
+        setBit(removed, i, true);
+    }
+
+    /**
+     * Quita los enemigos marcados desplazando el resto hacia delante, sin
+     * cambiar su orden. Las asas quitadas guardan una copia de su último
+     * estado por si la vista aún las consulta.
+     */
+    public void compact() {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            if (getBit(removed, read)) {
+                handles[read].detach();
+                handles[read] = null;
+                continue;
+            }
+            if (write != read) {
+                moveSlot(read, write);
+            }
+            write++;
+        }
+        for (int i = write; i < size; i++) {
+            handles[i] = null;
+            setBit(removed, i, false);
+        }
+        size = write;
+    }
+
+    private void moveSlot(int from, int to) {
+        handles[to] = handles[from];
+        handles[to].setSlot(to);
+        ids[to] = ids[from];
+        types[to] = types[from];
+        health[to] = health[from];
+        maxHealth[to] = maxHealth[from];
+        rewards[to] = rewards[from];
+        speeds[to] = speeds[from];
+        setBit(alive, to, getBit(alive, from));
+        setBit(finished, to, getBit(finished, from));
+        setBit(removed, to, false);
+        progress[to] = progress[from];
+        segments[to] = segments[from];
+        segmentStart[to] = segmentStart[from];
+        segmentEnd[to] = segmentEnd[from];
+        originX[to] = originX[from];
+        originY[to] = originY[from];
+        originZ[to] = originZ[from];
+        dirX[to] = dirX[from];
+        dirY[to] = dirY[from];
+        dirZ[to] = dirZ[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        z[to] = z[from];
+        heading[to] = heading[from];
+        prevX[to] = prevX[from];
+        prevY[to] = prevY[from];
+        prevZ[to] = prevZ[from];
+        prevHeading[to] = prevHeading[from];
+    }
+
+    static boolean getBit(long[] bits, int i) {
+        return (bits[i >> 6] & (1L << i)) != 0;
+    }
+
+    static void setBit(long[] bits, int i, boolean value) {
+        if (value) {
+            bits[i >> 6] |= 1L << i;
+        } else {
+            bits[i >> 6] &= ~(1L << i);
+        }
+    }
+
+    /**
+     * Vista de solo lectura de las asas, en orden de aparición
+     */
+    public List<SimEnemy> asList() {
+        return handleList;
+    }
+
+    private final List<SimEnemy> handleList = new AbstractList<SimEnemy>() {
+        @Override
+        public SimEnemy get(int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("Índice " + index + ", tamaño " + size);
+            }
+            return handles[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
+
+    // Getters por posición
+    public int size() { return size; }
+    public SimEnemy getHandle(int i) { return handles[i]; }
+    public int getId(int i) { return ids[i]; }
+    public EnemyType getType(int i) { return TYPES[types[i]]; }
+    public boolean isAlive(int i) { return getBit(alive, i); }
+    public boolean hasFinishedPath(int i) { return getBit(finished, i); }
+    public int getHealth(int i) { return health[i]; }
+    public int getMaxHealth(int i) { return maxHealth[i]; }
+    public int getReward(int i) { return rewards[i]; }
+    public float getSpeed(int i) { return speeds[i]; }
+    public float getProgress(int i) { return progress[i]; }
+    public int getSegment(int i) { return segments[i]; }
+    public PathTable getPathTable() { return pathTable; }
+}
@@ -0,0 +1,117 @@
+package mygame.sim;
+
+import java.util.Arrays;
+
+/**
+ * Reparte asas con generación para entidades que se crean y se reciclan
+ * (vistas de enemigos, proyectiles). Un asa es un int con la posición de
+ * la entidad en los arrays de quien la usa en los bits bajos y la
+ * generación de esa posición en los altos. Al liberar una posición su
+ * generación sube, así un asa vieja se reconoce en O(1) como caducada
+ * aunque la posición ya tenga otra entidad, y quien la guarda no mantiene
+ * viva la entidad a la que apuntaba.
+ * <p>
+ * La generación da la vuelta tras {@link #MAX_GENERATION} reutilizaciones
+ * de la misma posición; un asa que se guarde tanto tiempo podría volver a
+ * parecer válida, algo que no pasa con asas de proyectiles o enemigos.
+ */
+public final class EntityHandles {
+
+    /** Asa que nunca es válida */
+    public static final int NONE = -1;
+
+    private static final int INDEX_BITS = 20;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    public static final int MAX_INDEX = INDEX_MASK;
+    public static final int MAX_GENERATION = (1 << (31 - INDEX_BITS)) - 1;
+
+    private int[] generations;
+    private boolean[] used;
+    private int[] free;   // Posiciones liberadas, la última se reutiliza antes
+    private int freeCount = 0;
+    private int capacity = 0; // Posiciones repartidas alguna vez
+    private int count = 0;
+
+    public EntityHandles(int initialCapacity) {
+        generations = new int[initialCapacity];
+        used = new boolean[initialCapacity];
+        free = new int[initialCapacity];
+    }
+
+    /**
+     * Reserva una posición, reutilizando una libre si la hay
+     * @return El asa de la nueva entidad
+     */
+    public int allocate() {
+        int index;
+        if (freeCount > 0) {
+            index = free[--freeCount];
+        } else {
+            if (capacity > MAX_INDEX) {
+                throw new IllegalStateException("Demasiadas entidades: " + capacity);
+            }
+            if (capacity == generations.length) {
+                int grown = Math.max(16, capacity * 2);
+                generations = Arrays.copyOf(generations, grown);
+                used = Arrays.copyOf(used, grown);
+                free = Arrays.copyOf(free, grown);
+            }
+            index = capacity++;
+        }
+        used[index] = true;
+        count++;
+        return (generations[index] << INDEX_BITS) | index;
+    }
+
+    /**
+     * Libera la posición del asa y deja caducadas todas sus copias
+     * @return false si el asa ya no era válida
+     */
+    public boolean release(int handle) {
+        if (!isValid(handle)) {
+            return false;
+        }
+        int index = handle & INDEX_MASK;
+        used[index] = false;
+        generations[index] = (generations[index] + 1) & MAX_GENERATION;
+        free[freeCount++] = index;
+        count--;
+        return true;
+    }
+
+    /**
+     * Si el asa apunta a una entidad que sigue existiendo
+     */
+    public boolean isValid(int handle) {
+        if (handle < 0) {
+            return false;
+        }
+        int index = handle & INDEX_MASK;
+        return index < capacity && used[index] && generations[index] == handle >>> INDEX_BITS;
+    }
+
+    /**
+     * Libera todas las posiciones; las asas repartidas dejan de ser válidas
+     */
+    public void clear() {
+        for (int i = 0; i < capacity; i++) {
+            if (used[i]) {
+                release((generations[i] << INDEX_BITS) | i);
+            }
+        }
+    }
+
+    /**
+     * Posición de la entidad en los arrays de quien la usa
+     */
+    public static int indexOf(int handle) {
+        return handle & INDEX_MASK;
+    }
+
+    /**
+     * Número de posiciones repartidas alguna vez; los arrays indexados por
+     * asa necesitan al menos este tamaño
+     */
+    public int getCapacity() { return capacity; }
+    public int getCount() { return count; }
+}
@@ -0,0 +1,651 @@
+package mygame.sim;
+
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import mygame.enemies.EnemyType;
+import mygame.map.CoverageTable;
+import mygame.map.Path;
+import mygame.map.PathTable;
+import mygame.time.TimingWheel;
+import mygame.towers.TowerType;
+
+/**
+ * Núcleo de la simulación del juego: oleadas, movimiento de enemigos,
+ * disparo de torres y economía. No depende del grafo de escena ni del
+ * AssetManager, por lo que puede ejecutarse sin contexto OpenGL.
+ * <p>
+ * La vista ({@link mygame.Main}) llama a {@link #advance(float)} una vez
+ * por frame, que ejecuta tantos ticks fijos de {@link #TICK} segundos como
+ * quepan en el tiempo acumulado, o deja que lo haga un
+ * {@link SimulationThread}. En ambos casos solo lee las copias que publica
+ * un {@link SnapshotExchange}. Así el resultado no depende de los FPS.
+ * <p>
+ * Toda la aleatoriedad (tipo de enemigo, intervalo de aparición) sale de un
+ * generador propio creado a partir de una semilla: la misma semilla y las
+ * mismas acciones del jugador reproducen exactamente la misma partida.
+ * <p>
+ * Las esperas (recarga de las torres, pausa entre oleadas, aparición de
+ * enemigos, vuelo de los proyectiles) son temporizadores de una
+ * {@link TimingWheel} que avanza un tick por tick, con plazos enteros en
+ * ticks.
+ */
+public class GameSimulation {
+
+    public static final int START_MONEY = 100;
+    public static final int MAX_ESCAPED_DEMONS = 5;
+    public static final float WAVE_DELAY = 5.0f; // Segundos entre oleadas
+
+    // Paso fijo de la simulación
+    public static final int TICK_RATE = 60; // Ticks por segundo
+    public static final float TICK = 1.0f / TICK_RATE;
+    public static final int MAX_TICKS_PER_FRAME = 5; // Evita la espiral de la muerte tras un tirón
+
+    // Reparto entre hilos: trozos de enemigos (múltiplo de 64 por los bits
+    // del almacén) y mínimo de enemigos para repartir las búsquedas por torre
+    private static final int ENEMY_CHUNK = 4096;
+    private static final int PARALLEL_TARGETING_MIN_ENEMIES = 2048;
+
+    // Núcleos elegidos al arrancar con -Dmygame.kernels
+    private static final EnemyKernels DEFAULT_KERNELS = EnemyKernels.fromSystemProperty();
+
+    private final Path path;
+    private final long seed;
+    private final Random random;
+    private final BalanceConfig balance;
+    private SimulationListener listener = new SimulationListener() {};
+
+    private final List<SimTower> towers = new ArrayList<>();
+    private final PathTable pathTable;
+    private final CoverageTable coverageTable;
+    private final ProgressIndex progressIndex;
+    private final EnemyStore store;
+    private final TowerArchetype[] towerArchetypes; // Por tipo, con el equilibrio de esta partida
+    private final TimingWheel timers = new TimingWheel(TICK);
+    private EnemyKernels kernels = DEFAULT_KERNELS;
+    private ForkJoinPool parallelPool = null; // null: todo el tick en el hilo que llama
+
+    // Sistemas del tick, en orden, con su duración media en nanosegundos
+    private static final int SYSTEM_TIMING_TICKS = 16; // Ticks que pesan en la media
+    private final List<SimSystem> systems = new ArrayList<>();
+    private final List<String> systemNames = new ArrayList<>();
+    private long[] systemNanos = new long[8];
+
+    // Datos por torre del tick en curso, reutilizados entre ticks
+    private boolean[] towerReady = new boolean[8];
+    private int[] nearestQuery = new int[8]; // Consulta del lote que corresponde a cada torre
+    private float[] nearestX = new float[8];
+    private float[] nearestY = new float[8];
+    private float[] nearestZ = new float[8];
+    private float[] nearestRangeSq = new float[8];
+    private int[] nearestSlots = new int[8];
+    private int nextEntityId = 1;
+
+    // Proyectiles en vuelo: objetivo y daño que aplican al llegar
+    private final EntityHandles shotHandles = new EntityHandles(64);
+    private SimEnemy[] shotTargets = new SimEnemy[64];
+    private int[] shotDamages = new int[64];
+    private final TimingWheel.Action impactAction = this::onShotImpact;
+    private final Vector3f impactPoint = new Vector3f();
+
+    // Variables para el sistema de oleadas
+    private final TimingWheel.Action startWaveAction = data -> startNewWave();
+    private final TimingWheel.Action spawnAction = data -> spawnNextEnemy();
+    private int waveTimer; // Pausa hasta la siguiente oleada
+    private int currentWave = 1;
+    private int enemiesInWave = 5; // Inicialmente 5 enemigos por oleada
+    private int enemiesSpawned = 0;
+    private boolean waveInProgress = false;
+
+    // Economía del jugador
+    private int money = START_MONEY;
+    private int score = 0;
+
+    // Portal y sistema de game over
+    private int escapedDemons = 0;
+    private boolean gameOver = false;
+    private long tick = 0;
+    private int sleepingTowers = 0; // Torres dormidas en el último tick
+
+    // Tiempo real pendiente de simular y ticks ejecutados en el último frame
+    private float accumulator = 0;
+    private int lastFrameTicks = 0;
+
+    /**
+     * Crea una partida con una semilla nueva
+     */
+    public GameSimulation(Path path) {
+        this(path, new Random().nextLong());
+    }
+
+    /**
+     * Crea una partida reproducible a partir de una semilla
+     */
+    public GameSimulation(Path path, long seed) {
+        this(path, seed, BalanceConfig.DEFAULT);
+    }
+
+    /**
+     * Crea una partida reproducible con otros parámetros de equilibrio
+     */
+    public GameSimulation(Path path, long seed, BalanceConfig balance) {
+        this(path, seed, new Random(seed), balance);
+    }
+
+    /**
+     * Crea una partida con un generador aleatorio inyectado (p. ej. uno con
+     * secuencia fija para pruebas); seed solo se usa para mostrarla
+     */
+    public GameSimulation(Path path, long seed, Random random) {
+        this(path, seed, random, BalanceConfig.DEFAULT);
+    }
+
+    public GameSimulation(Path path, long seed, Random random, BalanceConfig balance) {
+        this.path = path;
+        this.seed = seed;
+        this.random = random;
+        this.balance = balance;
+        this.pathTable = path.getPathTable();
+        this.coverageTable = path.getCoverageTable();
+        this.progressIndex = new ProgressIndex(pathTable.getLength());
+        this.store = new EnemyStore(pathTable);
+        this.towerArchetypes = new TowerArchetype[TowerType.values().length];
+        for (TowerType type : TowerType.values()) {
+            towerArchetypes[type.ordinal()] = TowerArchetype.of(type, balance);
+        }
+
+        registerSystem("temporizadores", tpf -> timers.step());
+        registerSystem("oleadas", tpf -> manageWaves());
+        registerSystem("movimiento", this::moveEnemies);
+        registerSystem("bajas", tpf -> removeFinishedEnemies());
+        registerSystem("índice", tpf -> progressIndex.rebuild(store));
+        registerSystem("objetivos", this::acquireTargets);
+        registerSystem("disparos", this::resolveShots);
+
+        waveTimer = timers.scheduleTicks(toTicks(WAVE_DELAY), startWaveAction, 0);
+    }
+
+    /**
+     * Convierte segundos a ticks de la simulación, redondeando al más
+     * cercano y como mínimo uno
+     */
+    public static int toTicks(float seconds) {
+        return Math.max(1, Math.round(seconds * TICK_RATE));
+    }
+
+    /**
+     * Cambia los núcleos de los bucles calientes; escalares y vectoriales
+     * dan la misma partida
+     */
+    public void setKernels(EnemyKernels kernels) {
+        this.kernels = kernels;
+    }
+
+    public EnemyKernels getKernels() {
+        return kernels;
+    }
+
+    /**
+     * Reparte el movimiento y la búsqueda de objetivos entre los hilos del
+     * pool, o lo ejecuta todo en el hilo que llama si es null. El resultado
+     * de la partida es el mismo en los dos modos.
+     */
+    public void setParallelPool(ForkJoinPool pool) {
+        this.parallelPool = pool;
+    }
+
+    public boolean isParallel() {
+        return parallelPool != null;
+    }
+
+    public void setListener(SimulationListener listener) {
+        this.listener = listener != null ? listener : new SimulationListener() {};
+    }
+
+    /**
+     * Acumula el tiempo del frame y ejecuta los ticks fijos que correspondan,
+     * como mucho {@link #MAX_TICKS_PER_FRAME}. Si el frame fue demasiado
+     * largo se descarta el resto en lugar de intentar recuperarlo.
+     * @return El número de ticks ejecutados
+     */
+    public int advance(float frameTime) {
+        accumulator += frameTime;
+        int ticks = 0;
+        while (accumulator >= TICK && ticks < MAX_TICKS_PER_FRAME) {
+            step(TICK);
+            accumulator -= TICK;
+            ticks++;
+        }
+        if (ticks == MAX_TICKS_PER_FRAME && accumulator >= TICK) {
+            accumulator = 0;
+        }
+        lastFrameTicks = ticks;
+        return ticks;
+    }
+
+    /**
+     * Fracción del siguiente tick ya transcurrida (0..1), para interpolar el
+     * dibujado entre el estado anterior y el actual
+     */
+    public float getInterpolationAlpha() {
+        return accumulator / TICK;
+    }
+
+    /**
+     * Avanza la simulación un paso de tpf segundos. Fuera de las pruebas sin
+     * ventana se llama siempre con {@link #TICK}.
+     * <p>
+     * El tick ejecuta en orden los sistemas registrados (ver
+     * {@link #addSystem}): temporizadores, fin de oleada, mover enemigos,
+     * retirar muertos y escapados, reconstruir el índice de progreso,
+     * buscar objetivos y resolver los disparos. Mover y buscar al más cercano solo leen el
+     * estado que dejó el sistema anterior y escriben en trozos separados,
+     * así que con un pool (ver {@link #setParallelPool}) se reparten entre
+     * hilos. Los disparos se resuelven siempre en un solo hilo y en el orden
+     * de las torres, por eso la partida es la misma en serie y en paralelo.
+     * Su daño llega con el proyectil, en el tick de impacto.
+     */
+    public void step(float tpf) {
+        if (gameOver) {
+            return;
+        }
+        tick++;
+
+        for (int i = 0, n = systems.size(); i < n; i++) {
+            long start = System.nanoTime();
+            systems.get(i).update(tpf);
+            systemNanos[i] += (System.nanoTime() - start - systemNanos[i]) / SYSTEM_TIMING_TICKS;
+        }
+    }
+
+    /**
+     * Añade un sistema que se ejecuta en cada tick después de los que ya
+     * hay, p. ej. un efecto nuevo sobre los enemigos del almacén
+     * @param name Nombre con el que aparece en las mediciones
+     */
+    public void addSystem(String name, SimSystem system) {
+        registerSystem(name, system);
+    }
+
+    // También para los sistemas propios, que se registran en el constructor
+    private void registerSystem(String name, SimSystem system) {
+        systems.add(system);
+        systemNames.add(name);
+        if (systemNanos.length < systems.size()) {
+            systemNanos = Arrays.copyOf(systemNanos, systems.size() * 2);
+        }
+    }
+
+    // Todos los enemigos avanzan sobre los arrays del almacén, por trozos
+    private void moveEnemies(float tpf) {
+        ParallelLoop.run(parallelPool, store.size(), ENEMY_CHUNK,
+                (from, to) -> kernels.advance(store, from, to, tpf));
+    }
+
+    // Escapes y muertes, en orden de aparición
+    private void removeFinishedEnemies() {
+        for (int i = 0, n = store.size(); i < n; i++) {
+            if (store.isAlive(i)) {
+                // Verificar si el enemigo ha llegado al final del camino
+                if (store.hasFinishedPath(i)) {
+                    store.markRemoved(i);
+                    handleEnemyEscape(store.getHandle(i));
+                }
+            } else {
+                store.markRemoved(i);
+
+                // Dar recompensas por enemigo derrotado
+                money += store.getReward(i);
+                score += store.getType(i) == EnemyType.HELLHOUND ? 25 : 10;
+                listener.onEnemyKilled(store.getHandle(i));
+            }
+        }
+
+        // Remover enemigos muertos o que llegaron al final
+        store.compact();
+    }
+
+    /**
+     * Búsqueda de objetivos de las torres ya recargadas. Las torres
+     * dormidas solo despiertan si el índice tiene algún enemigo en su zona; las listas
+     * que buscan al más cercano se resuelven juntas, repartidas por torres
+     * entre los hilos del pool.
+     */
+    private void acquireTargets(float tpf) {
+        sleepingTowers = 0;
+        int towerCount = towers.size();
+        ensureTowerBuffers(towerCount);
+        int nearestCount = 0;
+        for (int ti = 0; ti < towerCount; ti++) {
+            SimTower t = towers.get(ti);
+            towerReady[ti] = false;
+            if (t.isSleeping()) {
+                if (!progressIndex.anyInRange(t.getWakeCoverage())) {
+                    sleepingTowers++;
+                    continue;
+                }
+                t.wake();
+            }
+            towerReady[ti] = t.isReady();
+            if (towerReady[ti] && t.getTargetingPolicy() == TargetingPolicy.NEAREST) {
+                Vector3f p = t.getPosition();
+                nearestX[nearestCount] = p.x;
+                nearestY[nearestCount] = p.y;
+                nearestZ[nearestCount] = p.z;
+                nearestRangeSq[nearestCount] = t.getRange() * t.getRange();
+                nearestQuery[ti] = nearestCount++;
+            }
+        }
+
+        // Con pocos enemigos cada búsqueda es tan corta que no compensa repartirlas
+        int chunk = store.size() < PARALLEL_TARGETING_MIN_ENEMIES ? Math.max(1, nearestCount) : 1;
+        ParallelLoop.run(parallelPool, nearestCount, chunk, (from, to) -> {
+            for (int q = from; q < to; q++) {
+                nearestSlots[q] = kernels.nearestInRange(store, nearestX[q], nearestY[q], nearestZ[q], nearestRangeSq[q]);
+            }
+        });
+    }
+
+    // Disparos en el orden de las torres, siempre en este hilo
+    private void resolveShots(float tpf) {
+        for (int ti = 0, towerCount = towers.size(); ti < towerCount; ti++) {
+            if (!towerReady[ti]) {
+                continue;
+            }
+            SimTower t = towers.get(ti);
+            SimEnemy target;
+            if (t.getTargetingPolicy() == TargetingPolicy.NEAREST) {
+                int slot = nearestSlots[nearestQuery[ti]];
+                target = slot >= 0 ? store.getHandle(slot) : null;
+            } else {
+                target = t.findTarget(progressIndex);
+            }
+
+            if (target != null) {
+                t.fire();
+                int flightTicks = launchShot(t, target);
+                listener.onTowerFired(t, target, impactPoint, flightTicks);
+            } else {
+                t.sleep();
+            }
+        }
+    }
+
+    /**
+     * Resuelve una sola vez dónde y cuándo alcanza el proyectil al objetivo,
+     * suponiendo que sigue por el camino a su velocidad actual, y programa
+     * el daño para ese tick. Deja el punto en impactPoint.
+     * @return Ticks de vuelo
+     */
+    private int launchShot(SimTower tower, SimEnemy target) {
+        float flightTime = pathTable.intercept(target.getPathProgress(), target.getSegment(), target.getSpeed(),
+                tower.getPosition(), SimTower.PROJECTILE_SPEED, impactPoint);
+        int flightTicks = Math.max(1, (int) Math.ceil(flightTime / TICK));
+
+        int shot = shotHandles.allocate();
+        int index = EntityHandles.indexOf(shot);
+        if (index >= shotTargets.length) {
+            int capacity = Math.max(index + 1, shotTargets.length * 2);
+            shotTargets = Arrays.copyOf(shotTargets, capacity);
+            shotDamages = Arrays.copyOf(shotDamages, capacity);
+        }
+        shotTargets[index] = target;
+        shotDamages[index] = tower.getDamage();
+        timers.scheduleTicks(flightTicks, impactAction, shot);
+        return flightTicks;
+    }
+
+    // Llega un proyectil; si el objetivo murió o escapó mientras volaba, se pierde
+    private void onShotImpact(int shot) {
+        int index = EntityHandles.indexOf(shot);
+        SimEnemy target = shotTargets[index];
+        shotTargets[index] = null;
+        shotHandles.release(shot);
+        if (target.isAlive()) {
+            target.takeDamage(shotDamages[index]);
+        }
+    }
+
+    private void ensureTowerBuffers(int count) {
+        if (towerReady.length >= count) {
+            return;
+        }
+        int capacity = Math.max(count, towerReady.length * 2);
+        towerReady = new boolean[capacity];
+        nearestQuery = new int[capacity];
+        nearestX = new float[capacity];
+        nearestY = new float[capacity];
+        nearestZ = new float[capacity];
+        nearestRangeSq = new float[capacity];
+        nearestSlots = new int[capacity];
+    }
+
+    // Cierra la oleada cuando ya han salido todos sus enemigos y no queda ninguno
+    private void manageWaves() {
+        if (waveInProgress && enemiesSpawned >= enemiesInWave && store.size() == 0) {
+            waveInProgress = false;
+            currentWave++;
+            enemiesInWave = 5 + (currentWave * 2); // Aumentar dificultad
+            waveTimer = timers.scheduleTicks(toTicks(WAVE_DELAY), startWaveAction, 0);
+        }
+    }
+
+    /**
+     * Espera hasta el siguiente enemigo de la oleada en curso
+     */
+    private float getSpawnInterval() {
+        if (currentWave >= 10) {
+            // A partir de la oleada 10: intervalo aleatorio entre 0.7 y 1.4 segundos
+            return 0.7f + random.nextFloat() * 0.7f;
+        } else if (currentWave >= 6) {
+            // Entre oleada 6-9: intervalo decrece linealmente de 1.3 a 0.8
+            float progress = (currentWave - 6) / 4.0f; // 0.0 a 1.0
+            return 1.3f - (0.5f * progress);
+        }
+        // Oleadas 1-5: intervalo fijo
+        return 1.2f;
+    }
+
+    private void spawnNextEnemy() {
+        spawnEnemy();
+        if (enemiesSpawned < enemiesInWave) {
+            timers.scheduleTicks(toTicks(getSpawnInterval()), spawnAction, 0);
+        }
+    }
+
+    private void startNewWave() {
+        waveInProgress = true;
+        enemiesSpawned = 0;
+        listener.onWaveStarted(currentWave);
+        timers.scheduleTicks(toTicks(getSpawnInterval()), spawnAction, 0);
+    }
+
+    /**
+     * Crea un nuevo enemigo en el inicio del camino
+     */
+    private void spawnEnemy() {
+        // Seleccionar tipo de enemigo según la oleada actual y probabilidad
+        EnemyType enemyType;
+        float roll = random.nextFloat();
+        if (currentWave >= 6) {
+            // A partir de la oleada 6, tanques con probabilidad creciente
+            float tankChance = Math.min(0.60f, 0.10f + (currentWave - 6) * 0.10f); // Aumenta 10% por ronda, máximo 60%
+            float hellhoundChance = 0.20f; // Probabilidad fija de perros infernales
+
+            if (roll < tankChance) {
+                enemyType = EnemyType.TANK;
+            } else if (roll < (tankChance + hellhoundChance)) {
+                enemyType = EnemyType.HELLHOUND;
+            } else {
+                enemyType = EnemyType.BASIC;
+            }
+        } else if (currentWave >= 2) {
+            // Oleadas 2-5: probabilidad creciente de perros infernales
+            float hellhoundChance = Math.min(0.60f, 0.10f + (currentWave - 2) * 0.125f); // 10%, 22.5%, 35%, 47.5%, 60%
+
+            if (roll < hellhoundChance) {
+                enemyType = EnemyType.HELLHOUND;
+            } else {
+                enemyType = EnemyType.BASIC;
+            }
+        } else {
+            // Oleada inicial: solo zombies básicos
+            enemyType = EnemyType.BASIC;
+        }
+
+        SimEnemy enemy = store.add(nextEntityId++, EnemyArchetype.of(enemyType), 0f);
+
+        if (currentWave >= 2) {
+            // Lineal de la ronda 2 a 6 (0.2, 0.4 ... 1.0 por defecto), exponencial después
+            float mejora = balance.getEnemyScaling(currentWave);
+            enemy.upgradeStats(mejora);
+        }
+
+        enemiesSpawned++;
+        listener.onEnemySpawned(enemy);
+    }
+
+    /**
+     * Coloca un enemigo fuera del sistema de oleadas en un punto del camino,
+     * para pruebas de carga sin ventana. No cuenta para la oleada actual.
+     * @param progress Distancia desde el inicio del camino
+     */
+    public SimEnemy spawnEnemy(EnemyType type, float progress) {
+        return spawnEnemy(EnemyArchetype.of(type), progress);
+    }
+
+    /**
+     * Igual que {@link #spawnEnemy(EnemyType, float)} con una plantilla
+     * propia en lugar de la de un tipo
+     */
+    public SimEnemy spawnEnemy(EnemyArchetype archetype, float progress) {
+        SimEnemy enemy = store.add(nextEntityId++, archetype, progress);
+        listener.onEnemySpawned(enemy);
+        return enemy;
+    }
+
+    // Método para manejar cuando un enemigo escapa
+    private void handleEnemyEscape(SimEnemy enemy) {
+        escapedDemons++;
+        listener.onEnemyEscaped(enemy);
+
+        // Verificar condición de game over
+        if (escapedDemons >= MAX_ESCAPED_DEMONS && !gameOver) {
+            gameOver = true;
+            waveInProgress = false;
+            listener.onGameOver();
+        }
+    }
+
+    // Método para validar la posición de una torre
+    public boolean isValidTowerPosition(int gridX, int gridZ) {
+        // Verificar si ya hay una torre en esta posición
+        return isBuildableSpot(path, gridX, gridZ) && getTowerAt(gridX, gridZ) == null;
+    }
+
+    /**
+     * Si la casilla está dentro del mapa y admite torres, sin mirar si ya
+     * hay una construida
+     */
+    public static boolean isBuildableSpot(Path path, int gridX, int gridZ) {
+        // Verificar si está en los límites del mapa
+        if (gridX < -9 || gridX > 9 || gridZ < -9 || gridZ > 9) {
+            return false;
+        }
+
+        // Verificar si es un spot válido para torres
+        return path.isValidTowerSpot(gridX, gridZ);
+    }
+
+    /**
+     * Construye una torre si la posición es válida y hay dinero suficiente
+     * @return La torre creada o null si no se pudo construir
+     */
+    public SimTower placeTower(TowerType type, int gridX, int gridZ) {
+        return placeTower(towerArchetypes[type.ordinal()], gridX, gridZ);
+    }
+
+    /**
+     * Igual que {@link #placeTower(TowerType, int, int)} con una plantilla
+     * propia en lugar de la del tipo
+     */
+    public SimTower placeTower(TowerArchetype archetype, int gridX, int gridZ) {
+        if (!isValidTowerPosition(gridX, gridZ) || money < archetype.getCost()) {
+            return null;
+        }
+
+        SimTower tower = new SimTower(nextEntityId++, archetype, gridX, gridZ, coverageTable, timers);
+        towers.add(tower);
+        money -= archetype.getCost();
+        return tower;
+    }
+
+    /**
+     * Mejora una torre si no está al máximo y hay dinero suficiente
+     */
+    public boolean upgradeTower(SimTower tower) {
+        if (tower == null || !tower.canUpgrade() || money < tower.getUpgradeCost()) {
+            return false;
+        }
+
+        int upgradeCost = tower.getUpgradeCost();
+        tower.wake(); // Cambian el rango y la cadencia
+        if (tower.upgrade()) {
+            money -= upgradeCost;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Elimina una torre y devuelve el 40% de la inversión total
+     * @return El reembolso entregado al jugador
+     */
+    public int deleteTower(SimTower tower) {
+        if (tower == null || !towers.remove(tower)) {
+            return 0;
+        }
+        tower.remove();
+
+        int refundValue = (int)(tower.getTotalInvestment() * 0.4f);
+        money += refundValue;
+        return refundValue;
+    }
+
+    public SimTower getTowerAt(int gridX, int gridZ) {
+        for (SimTower t : towers) {
+            if (t.getGridX() == gridX && t.getGridZ() == gridZ) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    // Getters
+    public Path getPath() { return path; }
+    public List<SimEnemy> getEnemies() { return store.asList(); }
+    public List<SimTower> getTowers() { return Collections.unmodifiableList(towers); }
+    public int getMoney() { return money; }
+    public int getScore() { return score; }
+    public int getCurrentWave() { return currentWave; }
+    public boolean isWaveInProgress() { return waveInProgress; }
+    public float getTimeToNextWave() { return waveInProgress ? WAVE_DELAY : timers.getRemainingTicks(waveTimer) * TICK; }
+    public int getEscapedDemons() { return escapedDemons; }
+    public int getPortalLife() { return MAX_ESCAPED_DEMONS - escapedDemons; }
+    public boolean isGameOver() { return gameOver; }
+    public long getTick() { return tick; }
+    public long getSeed() { return seed; }
+    public int getSleepingTowerCount() { return sleepingTowers; }
+    public int getActiveTowerCount() { return towers.size() - sleepingTowers; }
+    public BalanceConfig getBalance() { return balance; }
+    public int getLastFrameTicks() { return lastFrameTicks; }
+    public int getSystemCount() { return systems.size(); }
+    public String getSystemName(int i) { return systemNames.get(i); }
+    public long getSystemNanos(int i) { return systemNanos[i]; }
+    public TowerArchetype getTowerArchetype(TowerType type) { return towerArchetypes[type.ordinal()]; }
+    EnemyStore getStore() { return store; }
+}
@@ -0,0 +1,58 @@
+package mygame.sim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reparte un bucle [0, count) en trozos sobre un {@link ForkJoinPool}. Cada
+ * trozo se ejecuta entero en un mismo hilo y los límites son múltiplos de
+ * chunk, así los trozos nunca comparten una palabra de los bits del
+ * {@link EnemyStore} si chunk es múltiplo de 64.
+ * <p>
+ * Sin pool (modo en serie) o con pocos elementos el cuerpo se ejecuta en el
+ * hilo que llama, sobre el rango completo.
+ */
+final class ParallelLoop {
+
+    interface Body {
+        void run(int from, int to);
+    }
+
+    private ParallelLoop() {
+    }
+
+    static void run(ForkJoinPool pool, int count, int chunk, Body body) {
+        if (pool == null || count <= chunk) {
+            body.run(0, count);
+            return;
+        }
+        pool.invoke(new Range(body, 0, count, chunk));
+    }
+
+    private static final class Range extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Body body; // Una tarea del pool nunca se serializa
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        Range(Body body, int from, int to, int chunk) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            int chunks = (to - from + chunk - 1) / chunk;
+            if (chunks <= 1) {
+                body.run(from, to);
+                return;
+            }
+            int middle = from + (chunks / 2) * chunk;
+            invokeAll(new Range(body, from, middle, chunk), new Range(body, middle, to, chunk));
+        }
+    }
+}
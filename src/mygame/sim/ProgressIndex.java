@@ -0,0 +1,247 @@
+package mygame.sim;
+
+import java.util.Arrays;
+
+/**
+ * Índice de los enemigos vivos ordenados por su progreso a lo largo del
+ * camino. El camino se divide en tramos fijos de {@link #BUCKET_LENGTH} y
+ * sobre ellos se mantiene un árbol de segmentos que guarda, para cada rango
+ * de tramos, el mejor enemigo según cada {@link TargetingPolicy} (primero,
+ * último, más fuerte y más débil).
+ * <p>
+ * Una consulta sobre un intervalo de progreso solo revisa uno a uno los
+ * enemigos de los dos tramos de los extremos; el interior se resuelve en
+ * O(log tramos) sin importar cuántos enemigos haya en la oleada. Tramos y
+ * árbol guardan posiciones del {@link EnemyStore} y comparan leyendo sus
+ * arrays, sin pasar por las asas.
+ * <p>
+ * La simulación llama a {@link #rebuild} una vez por tick, después de mover
+ * a los enemigos y aplicar los impactos, así la vida que compara ya es la
+ * de ese tick.
+ */
+public class ProgressIndex {
+
+    private static final float BUCKET_LENGTH = 0.5f;
+
+    // Criterios que guarda el árbol; NEAREST se resuelve con EnemyKernels
+    private static final TargetingPolicy[] POLICIES = {
+        TargetingPolicy.FIRST, TargetingPolicy.LAST, TargetingPolicy.STRONGEST, TargetingPolicy.WEAKEST
+    };
+
+    private static final int NONE = -1;
+
+    private final int bucketCount;
+    private final int leafBase; // Primera hoja del árbol (potencia de dos)
+    private final int[][] buckets; // Posiciones del almacén en cada tramo
+    private final int[] bucketCounts;
+    private final int[][] best; // [criterio][nodo] -> posición en el almacén, NONE si no hay ninguno
+    private final int[] prefixCounts; // Enemigos en los tramos anteriores a cada tramo
+    private EnemyStore store;
+    private int size = 0;
+
+    public ProgressIndex(float pathLength) {
+        this.bucketCount = (int) Math.ceil(pathLength / BUCKET_LENGTH) + 1;
+        int base = 1;
+        while (base < bucketCount) {
+            base <<= 1;
+        }
+        this.leafBase = base;
+        this.buckets = new int[bucketCount][];
+        this.bucketCounts = new int[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new int[4];
+        }
+        this.best = new int[POLICIES.length][2 * leafBase];
+        for (int[] nodes : best) {
+            Arrays.fill(nodes, NONE);
+        }
+        this.prefixCounts = new int[bucketCount + 1];
+    }
+
+    private int bucketOf(float progress) {
+        int b = (int) (progress / BUCKET_LENGTH);
+        return b < 0 ? 0 : (b >= bucketCount ? bucketCount - 1 : b);
+    }
+
+    /**
+     * Vuelve a repartir los enemigos por tramos y recalcula el árbol. Las
+     * posiciones guardadas valen hasta la siguiente compactación del almacén.
+     */
+    public void rebuild(EnemyStore store) {
+        this.store = store;
+        Arrays.fill(bucketCounts, 0);
+        size = 0;
+
+        int n = store.size();
+        float[] progress = store.progress;
+        for (int i = 0; i < n; i++) {
+            if (!store.isAlive(i) || store.hasFinishedPath(i)) {
+                continue;
+            }
+            int b = bucketOf(progress[i]);
+            int slot = bucketCounts[b]++;
+            if (slot == buckets[b].length) {
+                buckets[b] = Arrays.copyOf(buckets[b], slot * 2);
+            }
+            buckets[b][slot] = i;
+            size++;
+        }
+
+        for (int b = 0; b < bucketCount; b++) {
+            computeLeaf(b);
+            prefixCounts[b + 1] = prefixCounts[b] + bucketCounts[b];
+        }
+        for (int node = leafBase - 1; node >= 1; node--) {
+            combine(node);
+        }
+    }
+
+    // Una sola pasada por el tramo calcula el mejor de los cuatro criterios
+    private void computeLeaf(int b) {
+        int[] list = buckets[b];
+        int n = bucketCounts[b];
+        int first = NONE, last = NONE, strongest = NONE, weakest = NONE;
+        for (int i = 0; i < n; i++) {
+            int e = list[i];
+            if (store.isAlive(e)) {
+                first = better(0, first, e);
+                last = better(1, last, e);
+                strongest = better(2, strongest, e);
+                weakest = better(3, weakest, e);
+            }
+        }
+        int node = leafBase + b;
+        best[0][node] = first;
+        best[1][node] = last;
+        best[2][node] = strongest;
+        best[3][node] = weakest;
+    }
+
+    private void combine(int node) {
+        for (int k = 0; k < POLICIES.length; k++) {
+            best[k][node] = better(k, best[k][2 * node], best[k][2 * node + 1]);
+        }
+    }
+
+    /**
+     * Igual que {@link TargetingPolicy#better} pero sobre posiciones del
+     * almacén, leyendo directamente sus arrays
+     */
+    private int better(int k, int a, int b) {
+        if (a == NONE) return b;
+        if (b == NONE) return a;
+        int cmp;
+        switch (k) {
+            case 0: // FIRST
+                cmp = Float.compare(store.progress[a], store.progress[b]);
+                break;
+            case 1: // LAST
+                cmp = Float.compare(store.progress[b], store.progress[a]);
+                break;
+            case 2: // STRONGEST
+                cmp = Integer.compare(store.health[a], store.health[b]);
+                break;
+            default: // WEAKEST
+                cmp = Integer.compare(store.health[b], store.health[a]);
+                break;
+        }
+        if (cmp != 0) {
+            return cmp > 0 ? a : b;
+        }
+        return store.ids[a] <= store.ids[b] ? a : b;
+    }
+
+    /**
+     * Busca el mejor enemigo según el criterio entre los que están dentro de
+     * alguno de los intervalos de progreso
+     * @param intervals Pares [desde, hasta] como los de
+     *                  {@link mygame.map.PathTable#computeCoverage}
+     * @return El enemigo elegido o null si no hay ninguno
+     */
+    public SimEnemy query(TargetingPolicy policy, float[] intervals) {
+        if (size == 0) {
+            return null;
+        }
+        int k = criterion(policy);
+        int result = NONE;
+        for (int i = 0; i < intervals.length; i += 2) {
+            float from = intervals[i];
+            float to = intervals[i + 1];
+            int lo = bucketOf(from);
+            int hi = bucketOf(to);
+
+            // Los tramos de los extremos pueden tener enemigos fuera del intervalo
+            result = better(k, result, scanBucket(k, lo, from, to));
+            if (hi != lo) {
+                result = better(k, result, scanBucket(k, hi, from, to));
+            }
+            if (hi - lo > 1) {
+                result = better(k, result, queryRange(k, lo + 1, hi - 1));
+            }
+        }
+        return result == NONE ? null : store.getHandle(result);
+    }
+
+    /**
+     * Comprueba si hay algún enemigo en los tramos que tocan los intervalos.
+     * Es aproximado por exceso (cuenta los tramos de los extremos enteros),
+     * suficiente para decidir si una torre dormida debe despertar.
+     */
+    public boolean anyInRange(float[] intervals) {
+        if (size == 0) {
+            return false;
+        }
+        for (int i = 0; i < intervals.length; i += 2) {
+            int lo = bucketOf(intervals[i]);
+            int hi = bucketOf(intervals[i + 1]);
+            if (prefixCounts[hi + 1] - prefixCounts[lo] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int scanBucket(int k, int b, float from, float to) {
+        int[] list = buckets[b];
+        float[] progress = store.progress;
+        int result = NONE;
+        for (int i = 0, n = bucketCounts[b]; i < n; i++) {
+            int e = list[i];
+            if (store.isAlive(e) && progress[e] >= from && progress[e] <= to) {
+                result = better(k, result, e);
+            }
+        }
+        return result;
+    }
+
+    // Consulta iterativa del árbol sobre las hojas [lo, hi]
+    private int queryRange(int k, int lo, int hi) {
+        int result = NONE;
+        int l = lo + leafBase;
+        int r = hi + leafBase + 1;
+        while (l < r) {
+            if ((l & 1) == 1) {
+                result = better(k, result, best[k][l++]);
+            }
+            if ((r & 1) == 1) {
+                result = better(k, result, best[k][--r]);
+            }
+            l >>= 1;
+            r >>= 1;
+        }
+        return result;
+    }
+
+    private static int criterion(TargetingPolicy policy) {
+        for (int k = 0; k < POLICIES.length; k++) {
+            if (POLICIES[k] == policy) {
+                return k;
+            }
+        }
+        throw new IllegalArgumentException("Criterio no indexado: " + policy);
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,53 @@
+package mygame.sim;
+
+/**
+ * Núcleos escalares: la referencia con la que se comparan los vectoriales
+ */
+public final class ScalarKernels implements EnemyKernels {
+
+    public static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    private ScalarKernels() {
+    }
+
+    @Override
+    public String getName() {
+        return "escalar";
+    }
+
+    @Override
+    public void advance(EnemyStore store, int from, int to, float tpf) {
+        store.savePrevious(from, to);
+        store.moveRange(from, to, tpf);
+    }
+
+    @Override
+    public int nearestInRange(EnemyStore store, float cx, float cy, float cz, float rangeSq) {
+        return nearestInRange(store, 0, store.size(), cx, cy, cz, rangeSq, -1, Float.MAX_VALUE);
+    }
+
+    /**
+     * Recorre las posiciones [from, to) partiendo de un mejor candidato ya
+     * conocido; también sirve de cola para los núcleos vectoriales
+     */
+    static int nearestInRange(EnemyStore store, int from, int to, float cx, float cy, float cz,
+                              float rangeSq, int nearest, float minDistanceSq) {
+        float[] x = store.x;
+        float[] y = store.y;
+        float[] z = store.z;
+        for (int i = from; i < to; i++) {
+            if (!store.isAlive(i) || store.hasFinishedPath(i)) {
+                continue;
+            }
+            float dx = x[i] - cx;
+            float dy = y[i] - cy;
+            float dz = z[i] - cz;
+            float distanceSq = dx * dx + dy * dy + dz * dz;
+            if (distanceSq <= rangeSq && distanceSq < minDistanceSq) {
+                nearest = i;
+                minDistanceSq = distanceSq;
+            }
+        }
+        return nearest;
+    }
+}
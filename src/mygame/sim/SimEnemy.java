@@ -0,0 +1,110 @@
+package mygame.sim;
+
+import com.jme3.math.Vector3f;
+import mygame.enemies.EnemyType;
+import mygame.map.PathTable;
+
+/**
+ * Asa hacia un enemigo del {@link EnemyStore}. La simulación trabaja sobre
+ * los arrays del almacén; esta clase existe para los eventos del
+ * {@link SimulationListener}, las herramientas sin ventana y la vista
+ * ({@link mygame.enemies.Enemy}), que siguen viendo un objeto por enemigo.
+ * <p>
+ * Cuando el enemigo sale del almacén (muerto o escapado) el asa se queda
+ * con una copia de su último estado.
+ */
+public class SimEnemy {
+
+    private final EnemyStore store;
+    private int slot; // Posición en el almacén, -1 si ya no está
+    private final int id;
+    private final EnemyType type;
+
+    // Se rellenan al pedirlas, para no reservar memoria en cada consulta
+    private final Vector3f position = new Vector3f();
+    private final Vector3f previousPosition = new Vector3f();
+
+    // Último estado, guardado al salir del almacén
+    private int health;
+    private int maxHealth;
+    private boolean alive;
+    private boolean finishedPath;
+    private float pathProgress;
+    private int segment;
+    private float heading;
+    private float previousHeading;
+    private float speed;
+    private int reward;
+
+    SimEnemy(EnemyStore store, int slot, int id, EnemyType type) {
+        this.store = store;
+        this.slot = slot;
+        this.id = id;
+        this.type = type;
+    }
+
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Copia el estado del almacén antes de que se reutilice la posición
+     */
+    void detach() {
+        health = store.health[slot];
+        maxHealth = store.maxHealth[slot];
+        alive = store.isAlive(slot);
+        finishedPath = store.hasFinishedPath(slot);
+        pathProgress = store.progress[slot];
+        segment = store.segments[slot];
+        heading = store.heading[slot];
+        previousHeading = store.prevHeading[slot];
+        speed = store.speeds[slot];
+        reward = store.rewards[slot];
+        position.set(store.x[slot], store.y[slot], store.z[slot]);
+        previousPosition.set(store.prevX[slot], store.prevY[slot], store.prevZ[slot]);
+        slot = -1;
+    }
+
+    /**
+     * Aplica daño al enemigo
+     */
+    public void takeDamage(int damage) {
+        if (slot >= 0) {
+            store.damage(slot, damage);
+        }
+    }
+
+    public void upgradeStats(float param) {
+        if (slot >= 0) {
+            store.upgradeStats(slot, param);
+        }
+    }
+
+    // Getters
+    public int getId() { return id; }
+    public EnemyType getType() { return type; }
+    public boolean isAlive() { return slot >= 0 ? store.isAlive(slot) : alive; }
+    public int getHealth() { return slot >= 0 ? store.health[slot] : health; }
+    public int getMaxHealth() { return slot >= 0 ? store.maxHealth[slot] : maxHealth; }
+    public Vector3f getPosition() {
+        if (slot >= 0) {
+            position.set(store.x[slot], store.y[slot], store.z[slot]);
+        }
+        return position;
+    }
+    public float getHeading() { return slot >= 0 ? store.heading[slot] : heading; }
+    public Vector3f getPreviousPosition() {
+        if (slot >= 0) {
+            previousPosition.set(store.prevX[slot], store.prevY[slot], store.prevZ[slot]);
+        }
+        return previousPosition;
+    }
+    public float getPreviousHeading() { return slot >= 0 ? store.prevHeading[slot] : previousHeading; }
+    public float getPathProgress() { return slot >= 0 ? store.progress[slot] : pathProgress; }
+    public int getSegment() { return slot >= 0 ? store.segments[slot] : segment; }
+    public PathTable getPathTable() { return store.getPathTable(); }
+    public boolean hasFinishedPath() { return slot >= 0 ? store.hasFinishedPath(slot) : finishedPath; }
+    public int getReward() { return slot >= 0 ? store.rewards[slot] : reward; }
+    public float getSpeed() { return slot >= 0 ? store.speeds[slot] : speed; }
+}
@@ -0,0 +1,13 @@
+package mygame.sim;
+
+/**
+ * Un sistema de la simulación: una pasada por tick sobre los componentes
+ * de todas las entidades (enemigos en el {@link EnemyStore}, torres), sin
+ * saber nada del grafo de escena. {@link GameSimulation} ejecuta sus
+ * sistemas en orden y mide cuánto tarda cada uno, así se pueden perfilar y
+ * repartir entre hilos por separado.
+ */
+public interface SimSystem {
+
+    void update(float tpf);
+}
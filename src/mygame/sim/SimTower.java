@@ -0,0 +1,213 @@
+package mygame.sim;
+
+import com.jme3.math.Vector3f;
+import mygame.map.CoverageTable;
+import mygame.time.TimingWheel;
+import mygame.towers.TowerType;
+
+/**
+ * Estado lógico de una torre dentro de la simulación: estadísticas, nivel
+ * de mejora y temporizador de disparo. Las estadísticas de cada nivel salen
+ * de su {@link TowerArchetype}. La parte visual vive en
+ * {@link mygame.towers.Tower}.
+ * <p>
+ * La recarga es un temporizador de la rueda de la simulación: mientras
+ * corre, la torre no cuesta nada por tick.
+ */
+public class SimTower {
+
+    public static final int MAX_LEVEL = 2; // Máximo nivel de mejora
+    public static final float PROJECTILE_SPEED = 15.0f; // Unidades por segundo
+
+    // Margen de los tramos que despiertan a una torre dormida, para cubrir
+    // las diferencias de redondeo entre la distancia 3D y el progreso
+    private static final float WAKE_MARGIN = 0.5f;
+
+    private final int id;
+    private final TowerArchetype archetype;
+    private final TowerType towerType;
+    private final int gridX;
+    private final int gridZ;
+    private final Vector3f position;
+    private final CoverageTable coverageTable;
+    private final TimingWheel timers;
+    private final TimingWheel.Action reloadAction = data -> ready = true;
+
+    // Propiedades dinámicas según el tipo y el nivel
+    private float range;
+    private float fireRate;
+    private int damage;
+    private int level = 0; // Nivel 0 = sin mejoras
+    private TargetingPolicy targetingPolicy = TargetingPolicy.NEAREST;
+    private float[] coverage; // Intervalos de progreso del camino dentro del rango (de la tabla)
+    private float[] wakeCoverage; // Los mismos intervalos ampliados con WAKE_MARGIN
+
+    // Recarga: tick de la rueda en que empezó y temporizador pendiente
+    private boolean ready = false;
+    private long reloadStart;
+    private int reloadTimer;
+
+    // Una torre lista para disparar y sin objetivo se duerme hasta que entre
+    // un enemigo en su zona
+    private boolean sleeping = false;
+
+    /**
+     * Crea la torre y empieza su primera recarga
+     * @param timers Rueda de la simulación, que avanza un tick por tick
+     */
+    public SimTower(int id, TowerArchetype archetype, int gridX, int gridZ, CoverageTable coverageTable, TimingWheel timers) {
+        this.id = id;
+        this.archetype = archetype;
+        this.towerType = archetype.getType();
+        this.gridX = gridX;
+        this.gridZ = gridZ;
+        this.position = new Vector3f(gridX, CoverageTable.TOWER_HEIGHT, gridZ);
+        this.coverageTable = coverageTable;
+        this.timers = timers;
+        updateStats();
+        startReload();
+    }
+
+    // Método para actualizar estadísticas basadas en el nivel
+    private void updateStats() {
+        this.damage = archetype.getDamage(level);
+        this.fireRate = archetype.getFireRate(level);
+        this.range = archetype.getRange(level);
+        this.coverage = coverageTable.getCoverage(gridX, gridZ, towerType, level);
+        this.wakeCoverage = new float[coverage.length];
+        for (int i = 0; i < coverage.length; i += 2) {
+            wakeCoverage[i] = coverage[i] - WAKE_MARGIN;
+            wakeCoverage[i + 1] = coverage[i + 1] + WAKE_MARGIN;
+        }
+    }
+
+    // Ticks entre disparos con la cadencia actual
+    private int getReloadTicks() {
+        return GameSimulation.toTicks(1.0f / fireRate);
+    }
+
+    private void startReload() {
+        ready = false;
+        reloadStart = timers.getCurrentTick();
+        reloadTimer = timers.scheduleTicks(getReloadTicks(), reloadAction, 0);
+    }
+
+    /**
+     * Busca objetivo con un criterio distinto de {@link TargetingPolicy#NEAREST}
+     * en el índice de progreso, limitado a los tramos del camino que cubre la
+     * torre. El más cercano lo resuelve la simulación por lotes con
+     * {@link EnemyKernels}.
+     * @return El enemigo elegido o null si no hay ninguno a tiro
+     */
+    public SimEnemy findTarget(ProgressIndex progressIndex) {
+        return progressIndex.query(targetingPolicy, coverage);
+    }
+
+    /**
+     * Dispara y empieza la recarga; el daño lo aplica la simulación cuando
+     * llega el proyectil
+     */
+    public void fire() {
+        startReload();
+    }
+
+    // Método para mejorar la torre
+    public boolean upgrade() {
+        if (!canUpgrade()) {
+            return false;
+        }
+
+        level++;
+        updateStats();
+
+        // La recarga en curso pasa a contar con la nueva cadencia desde
+        // el mismo disparo
+        if (!ready) {
+            timers.cancel(reloadTimer);
+            long remaining = reloadStart + getReloadTicks() - timers.getCurrentTick();
+            if (remaining > 0) {
+                reloadTimer = timers.scheduleTicks(remaining, reloadAction, 0);
+            } else {
+                ready = true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cancela la recarga pendiente al retirar la torre
+     */
+    void remove() {
+        timers.cancel(reloadTimer);
+    }
+
+    /**
+     * Indica si ya terminó la recarga
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Deja de buscar objetivo hasta que entre un enemigo en su zona; solo
+     * se duerme una torre lista para disparar, así al despertar se comporta
+     * igual que si no hubiera dormido
+     */
+    void sleep() {
+        sleeping = true;
+    }
+
+    void wake() {
+        sleeping = false;
+    }
+
+    public boolean canUpgrade() {
+        return level < archetype.getMaxLevel();
+    }
+
+    public int getUpgradeCost() {
+        return canUpgrade() ? archetype.getUpgradeCost(level + 1) : 0;
+    }
+
+    /**
+     * Calcula la inversión total en esta torre (costo base + mejoras)
+     * @return El valor total invertido en la torre
+     */
+    public int getTotalInvestment() {
+        int upgradeCost = 0;
+
+        // Sumar los costos de mejora realizados
+        for (int i = 1; i <= level; i++) {
+            upgradeCost += archetype.getUpgradeCost(i);
+        }
+
+        return archetype.getCost() + upgradeCost;
+    }
+
+    // Getters
+    public int getId() { return id; }
+    public TowerArchetype getArchetype() { return archetype; }
+    public TowerType getTowerType() { return towerType; }
+    public int getGridX() { return gridX; }
+    public int getGridZ() { return gridZ; }
+    public Vector3f getPosition() { return position; }
+    public int getDamage() { return damage; }
+    public float getRange() { return range; }
+    public float getFireRate() { return fireRate; }
+    public int getLevel() { return level; }
+    public TargetingPolicy getTargetingPolicy() { return targetingPolicy; }
+    public float[] getCoverage() { return coverage; }
+    public float[] getWakeCoverage() { return wakeCoverage; }
+    public boolean isSleeping() { return sleeping; }
+
+    /**
+     * Longitud de camino a tiro, para la interfaz
+     */
+    public float getCoveredLength() {
+        return coverageTable.getCoveredLength(gridX, gridZ, towerType, level);
+    }
+
+    public void setTargetingPolicy(TargetingPolicy targetingPolicy) {
+        this.targetingPolicy = targetingPolicy;
+    }
+}
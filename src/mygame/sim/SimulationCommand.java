@@ -0,0 +1,14 @@
+package mygame.sim;
+
+/**
+ * Acción que cambia la partida (construir, mejorar, eliminar torres...).
+ * Se aplica siempre en el hilo que ejecuta la simulación, entre dos ticks,
+ * a través de {@link SnapshotExchange#apply(SimulationCommand)}.
+ */
+public interface SimulationCommand {
+
+    /**
+     * @return false si la acción no tuvo efecto
+     */
+    boolean apply(GameSimulation simulation);
+}
@@ -0,0 +1,179 @@
+package mygame.sim;
+
+import com.jme3.math.Vector3f;
+import java.util.Arrays;
+import mygame.enemies.EnemyType;
+
+/**
+ * Eventos de la simulación guardados como datos (ids, tipos, casillas y
+ * puntos, nunca asas a enemigos del almacén ni torres de la simulación) para
+ * entregarlos a la vista desde otro hilo. Cada
+ * evento tiene un número de secuencia consecutivo a partir de firstSeq, así
+ * la vista puede saltarse los que ya recibió en una copia anterior.
+ */
+final class SimulationEvents {
+
+    static final byte WAVE_STARTED = 0;
+    static final byte ENEMY_SPAWNED = 1;
+    static final byte ENEMY_KILLED = 2;
+    static final byte ENEMY_ESCAPED = 3;
+    static final byte TOWER_FIRED = 4;
+    static final byte COMMAND_APPLIED = 5;
+    static final byte GAME_OVER = 6;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long firstSeq = 1;
+    private int count = 0;
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private long[] ticks = new long[INITIAL_CAPACITY];
+    private int[] values = new int[INITIAL_CAPACITY]; // Oleada, id del enemigo o cambio de dinero
+    private int[] extras = new int[INITIAL_CAPACITY]; // Demonios escapados tras una huida, 1 si la acción tuvo efecto, ticks de vuelo
+    // Disparos: casilla de la torre y punto de impacto
+    private int[] gridXs = new int[INITIAL_CAPACITY];
+    private int[] gridZs = new int[INITIAL_CAPACITY];
+    private float[] impactXs = new float[INITIAL_CAPACITY];
+    private float[] impactYs = new float[INITIAL_CAPACITY];
+    private float[] impactZs = new float[INITIAL_CAPACITY];
+    private EnemyType[] enemyTypes = new EnemyType[INITIAL_CAPACITY];
+    private SimulationCommand[] commands = new SimulationCommand[INITIAL_CAPACITY];
+
+    private final Vector3f impactPoint = new Vector3f(); // Se rellena al entregar cada disparo
+
+    void add(byte kind, long tick, int value, int extra, EnemyType type, SimulationCommand command) {
+        if (count == kinds.length) {
+            grow(count * 2);
+        }
+        kinds[count] = kind;
+        ticks[count] = tick;
+        values[count] = value;
+        extras[count] = extra;
+        enemyTypes[count] = type;
+        commands[count] = command;
+        count++;
+    }
+
+    void addTowerFired(long tick, int enemyId, int gridX, int gridZ, Vector3f impact, int flightTicks) {
+        if (count == kinds.length) {
+            grow(count * 2);
+        }
+        gridXs[count] = gridX;
+        gridZs[count] = gridZ;
+        impactXs[count] = impact.x;
+        impactYs[count] = impact.y;
+        impactZs[count] = impact.z;
+        add(TOWER_FIRED, tick, enemyId, flightTicks, null, null);
+    }
+
+    private void grow(int capacity) {
+        kinds = Arrays.copyOf(kinds, capacity);
+        ticks = Arrays.copyOf(ticks, capacity);
+        values = Arrays.copyOf(values, capacity);
+        extras = Arrays.copyOf(extras, capacity);
+        gridXs = Arrays.copyOf(gridXs, capacity);
+        gridZs = Arrays.copyOf(gridZs, capacity);
+        impactXs = Arrays.copyOf(impactXs, capacity);
+        impactYs = Arrays.copyOf(impactYs, capacity);
+        impactZs = Arrays.copyOf(impactZs, capacity);
+        enemyTypes = Arrays.copyOf(enemyTypes, capacity);
+        commands = Arrays.copyOf(commands, capacity);
+    }
+
+    /**
+     * Sustituye el contenido por una copia de otra lista
+     */
+    void copyFrom(SimulationEvents other) {
+        if (kinds.length < other.count) {
+            grow(other.kinds.length);
+        }
+        clearReferences(other.count, count);
+        firstSeq = other.firstSeq;
+        count = other.count;
+        System.arraycopy(other.kinds, 0, kinds, 0, count);
+        System.arraycopy(other.ticks, 0, ticks, 0, count);
+        System.arraycopy(other.values, 0, values, 0, count);
+        System.arraycopy(other.extras, 0, extras, 0, count);
+        System.arraycopy(other.gridXs, 0, gridXs, 0, count);
+        System.arraycopy(other.gridZs, 0, gridZs, 0, count);
+        System.arraycopy(other.impactXs, 0, impactXs, 0, count);
+        System.arraycopy(other.impactYs, 0, impactYs, 0, count);
+        System.arraycopy(other.impactZs, 0, impactZs, 0, count);
+        System.arraycopy(other.enemyTypes, 0, enemyTypes, 0, count);
+        System.arraycopy(other.commands, 0, commands, 0, count);
+    }
+
+    /**
+     * Olvida los eventos con secuencia menor o igual que seq
+     */
+    void dropUpTo(long seq) {
+        int dropped = (int) Math.min(count, Math.max(0, seq - firstSeq + 1));
+        if (dropped == 0) {
+            return;
+        }
+        int left = count - dropped;
+        System.arraycopy(kinds, dropped, kinds, 0, left);
+        System.arraycopy(ticks, dropped, ticks, 0, left);
+        System.arraycopy(values, dropped, values, 0, left);
+        System.arraycopy(extras, dropped, extras, 0, left);
+        System.arraycopy(gridXs, dropped, gridXs, 0, left);
+        System.arraycopy(gridZs, dropped, gridZs, 0, left);
+        System.arraycopy(impactXs, dropped, impactXs, 0, left);
+        System.arraycopy(impactYs, dropped, impactYs, 0, left);
+        System.arraycopy(impactZs, dropped, impactZs, 0, left);
+        System.arraycopy(enemyTypes, dropped, enemyTypes, 0, left);
+        System.arraycopy(commands, dropped, commands, 0, left);
+        clearReferences(left, count);
+        firstSeq += dropped;
+        count = left;
+    }
+
+    // Suelta las referencias a acciones que ya no están en la lista
+    private void clearReferences(int from, int to) {
+        for (int i = from; i < to; i++) {
+            enemyTypes[i] = null;
+            commands[i] = null;
+        }
+    }
+
+    /**
+     * Secuencia del último evento, o firstSeq - 1 si la lista está vacía
+     */
+    long lastSeq() {
+        return firstSeq + count - 1;
+    }
+
+    /**
+     * Entrega al manejador, en orden, los eventos posteriores a afterSeq
+     */
+    void dispatch(long afterSeq, SimulationSnapshot.EventHandler handler) {
+        for (int i = (int) Math.max(0, afterSeq - firstSeq + 1); i < count; i++) {
+            switch (kinds[i]) {
+                case WAVE_STARTED:
+                    handler.onWaveStarted(values[i]);
+                    break;
+                case ENEMY_SPAWNED:
+                    handler.onEnemySpawned(values[i], enemyTypes[i]);
+                    break;
+                case ENEMY_KILLED:
+                    handler.onEnemyKilled(values[i], enemyTypes[i]);
+                    break;
+                case ENEMY_ESCAPED:
+                    handler.onEnemyEscaped(values[i], enemyTypes[i], extras[i]);
+                    break;
+                case TOWER_FIRED:
+                    impactPoint.set(impactXs[i], impactYs[i], impactZs[i]);
+                    handler.onTowerFired(gridXs[i], gridZs[i], values[i], impactPoint,
+                            extras[i] * GameSimulation.TICK);
+                    break;
+                case COMMAND_APPLIED:
+                    handler.onCommandApplied(commands[i], ticks[i], extras[i] != 0, values[i]);
+                    break;
+                case GAME_OVER:
+                    handler.onGameOver();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
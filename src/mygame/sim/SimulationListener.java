@@ -0,0 +1,28 @@
+package mygame.sim;
+
+import com.jme3.math.Vector3f;
+
+/**
+ * Eventos que emite {@link GameSimulation} para que la vista (el grafo de
+ * escena, la UI, el audio) pueda reflejar el estado. Todos los métodos son
+ * opcionales, una simulación sin ventana no necesita escuchar nada.
+ */
+public interface SimulationListener {
+
+    default void onWaveStarted(int wave) {}
+
+    default void onEnemySpawned(SimEnemy enemy) {}
+
+    default void onEnemyKilled(SimEnemy enemy) {}
+
+    default void onEnemyEscaped(SimEnemy enemy) {}
+
+    /**
+     * @param impactPoint Donde alcanzará el proyectil al objetivo; solo es
+     *        válido durante la llamada
+     * @param flightTicks Ticks hasta el impacto, en el que se aplica el daño
+     */
+    default void onTowerFired(SimTower tower, SimEnemy target, Vector3f impactPoint, int flightTicks) {}
+
+    default void onGameOver() {}
+}
@@ -0,0 +1,321 @@
+package mygame.sim;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.util.Arrays;
+import java.util.List;
+import mygame.enemies.EnemyType;
+import mygame.map.Path;
+import mygame.map.PathTable;
+import mygame.towers.TowerType;
+
+/**
+ * Copia del estado de la simulación al terminar un tick: economía, oleada,
+ * las torres (casilla, nivel y estadísticas) y la posición, orientación y
+ * salud de cada enemigo.
+ * La vista lee solo esta copia, nunca la simulación, así que la simulación
+ * puede seguir avanzando en otro hilo mientras se dibuja.
+ * <p>
+ * También lleva los eventos que la vista aún no ha confirmado; se entregan
+ * con {@link SnapshotExchange#acquire(EventHandler)}. Las crea y recicla el
+ * {@link SnapshotExchange}; fuera de él son de solo lectura.
+ */
+public final class SimulationSnapshot {
+
+    /**
+     * Recibe en el hilo de la vista los eventos de la simulación, en el
+     * mismo orden en que ocurrieron. Todos los métodos son opcionales.
+     */
+    public interface EventHandler {
+
+        default void onWaveStarted(int wave) {}
+
+        default void onEnemySpawned(int enemyId, EnemyType type) {}
+
+        default void onEnemyKilled(int enemyId, EnemyType type) {}
+
+        /**
+         * @param escapedDemons Demonios escapados contando a este
+         */
+        default void onEnemyEscaped(int enemyId, EnemyType type, int escapedDemons) {}
+
+        /**
+         * @param gridX Casilla de la torre que disparó
+         * @param impactPoint Donde alcanzará el proyectil al enemigo; solo
+         *        es válido durante la llamada
+         * @param flightTime Segundos hasta el impacto, cuando la simulación
+         *        aplica el daño
+         */
+        default void onTowerFired(int gridX, int gridZ, int enemyId, Vector3f impactPoint, float flightTime) {}
+
+        /**
+         * @param tick Tick en el que se aplicó la acción
+         * @param applied false si la acción no tuvo efecto
+         * @param moneyChange Dinero ganado (positivo) o gastado (negativo)
+         */
+        default void onCommandApplied(SimulationCommand command, long tick, boolean applied, int moneyChange) {}
+
+        default void onGameOver() {}
+    }
+
+    private static final float TICK_NANOS = GameSimulation.TICK * 1e9f;
+
+    private final Path path;
+    private final PathTable pathTable;
+    final SimulationEvents events = new SimulationEvents();
+
+    // Partida
+    private long tick;
+    private int money;
+    private int score;
+    private int currentWave;
+    private boolean waveInProgress;
+    private float timeToNextWave;
+    private int escapedDemons;
+    private boolean gameOver;
+    private int activeTowers;
+    private int sleepingTowers;
+
+    // Torres en el orden de la simulación: casilla, tipo, nivel y estadísticas
+    private int towerCount;
+    private int[] towerX = new int[8];
+    private int[] towerZ = new int[8];
+    private TowerType[] towerTypes = new TowerType[8];
+    private int[] towerLevels = new int[8];
+    private TargetingPolicy[] towerPolicies = new TargetingPolicy[8];
+    private float[] towerRanges = new float[8];
+    private int[] towerDamages = new int[8];
+    private float[] towerFireRates = new float[8];
+    private boolean[] towerUpgradable = new boolean[8];
+    private int[] towerUpgradeCosts = new int[8]; // 0 si ya está al máximo
+    private int[] towerInvestments = new int[8];
+    private float[] towerCoveredLengths = new float[8];
+
+    // Enemigos en el orden del almacén, es decir, por id creciente
+    private int enemyCount;
+    private int[] ids = new int[0];
+    private int[] health = new int[0];
+    private int[] maxHealth = new int[0];
+    private long[] alive = new long[0];
+    private int[] segments = new int[0];
+    private float[] progress = new float[0];
+    private float[] speeds = new float[0];
+    private float[] x = new float[0], y = new float[0], z = new float[0], heading = new float[0];
+    private float[] prevX = new float[0], prevY = new float[0], prevZ = new float[0], prevHeading = new float[0];
+
+    // Sistemas del tick y su duración media
+    private int systemCount;
+    private String[] systemNames = new String[8];
+    private long[] systemNanos = new long[8];
+
+    // Tiempos de quien la publicó
+    private int ticks;          // Ticks ejecutados desde la copia anterior
+    private long tickNanos;     // Duración media de esos ticks
+    private float alpha;        // Fracción del siguiente tick ya transcurrida, si la fija quien publica
+    private long publishNanos;  // Momento de la publicación (System.nanoTime)
+
+    SimulationSnapshot(Path path) {
+        this.path = path;
+        this.pathTable = path.getPathTable();
+    }
+
+    /**
+     * Copia el estado actual de la simulación y los eventos pendientes.
+     * Solo se llama desde el hilo de la simulación.
+     */
+    void capture(GameSimulation simulation, SimulationEvents pending, int ticks, long tickNanos, float alpha) {
+        tick = simulation.getTick();
+        money = simulation.getMoney();
+        score = simulation.getScore();
+        currentWave = simulation.getCurrentWave();
+        waveInProgress = simulation.isWaveInProgress();
+        timeToNextWave = simulation.getTimeToNextWave();
+        escapedDemons = simulation.getEscapedDemons();
+        gameOver = simulation.isGameOver();
+        activeTowers = simulation.getActiveTowerCount();
+        sleepingTowers = simulation.getSleepingTowerCount();
+
+        List<SimTower> towers = simulation.getTowers();
+        towerCount = towers.size();
+        if (towerX.length < towerCount) {
+            int capacity = towerCount * 2;
+            towerX = new int[capacity];
+            towerZ = new int[capacity];
+            towerTypes = new TowerType[capacity];
+            towerLevels = new int[capacity];
+            towerPolicies = new TargetingPolicy[capacity];
+            towerRanges = new float[capacity];
+            towerDamages = new int[capacity];
+            towerFireRates = new float[capacity];
+            towerUpgradable = new boolean[capacity];
+            towerUpgradeCosts = new int[capacity];
+            towerInvestments = new int[capacity];
+            towerCoveredLengths = new float[capacity];
+        }
+        for (int i = 0; i < towerCount; i++) {
+            SimTower t = towers.get(i);
+            towerX[i] = t.getGridX();
+            towerZ[i] = t.getGridZ();
+            towerTypes[i] = t.getTowerType();
+            towerLevels[i] = t.getLevel();
+            towerPolicies[i] = t.getTargetingPolicy();
+            towerRanges[i] = t.getRange();
+            towerDamages[i] = t.getDamage();
+            towerFireRates[i] = t.getFireRate();
+            towerUpgradable[i] = t.canUpgrade();
+            towerUpgradeCosts[i] = t.getUpgradeCost();
+            towerInvestments[i] = t.getTotalInvestment();
+            towerCoveredLengths[i] = t.getCoveredLength();
+        }
+
+        EnemyStore store = simulation.getStore();
+        enemyCount = store.size();
+        if (ids.length < enemyCount) {
+            int capacity = Math.max(64, enemyCount + enemyCount / 2);
+            ids = new int[capacity];
+            health = new int[capacity];
+            maxHealth = new int[capacity];
+            alive = new long[(capacity + 63) >> 6];
+            segments = new int[capacity];
+            progress = new float[capacity];
+            speeds = new float[capacity];
+            x = new float[capacity];
+            y = new float[capacity];
+            z = new float[capacity];
+            heading = new float[capacity];
+            prevX = new float[capacity];
+            prevY = new float[capacity];
+            prevZ = new float[capacity];
+            prevHeading = new float[capacity];
+        }
+        System.arraycopy(store.ids, 0, ids, 0, enemyCount);
+        System.arraycopy(store.health, 0, health, 0, enemyCount);
+        System.arraycopy(store.maxHealth, 0, maxHealth, 0, enemyCount);
+        System.arraycopy(store.alive, 0, alive, 0, (enemyCount + 63) >> 6);
+        System.arraycopy(store.segments, 0, segments, 0, enemyCount);
+        System.arraycopy(store.progress, 0, progress, 0, enemyCount);
+        System.arraycopy(store.speeds, 0, speeds, 0, enemyCount);
+        System.arraycopy(store.x, 0, x, 0, enemyCount);
+        System.arraycopy(store.y, 0, y, 0, enemyCount);
+        System.arraycopy(store.z, 0, z, 0, enemyCount);
+        System.arraycopy(store.heading, 0, heading, 0, enemyCount);
+        System.arraycopy(store.prevX, 0, prevX, 0, enemyCount);
+        System.arraycopy(store.prevY, 0, prevY, 0, enemyCount);
+        System.arraycopy(store.prevZ, 0, prevZ, 0, enemyCount);
+        System.arraycopy(store.prevHeading, 0, prevHeading, 0, enemyCount);
+
+        systemCount = simulation.getSystemCount();
+        if (systemNames.length < systemCount) {
+            systemNames = new String[systemCount * 2];
+            systemNanos = new long[systemCount * 2];
+        }
+        for (int i = 0; i < systemCount; i++) {
+            systemNames[i] = simulation.getSystemName(i);
+            systemNanos[i] = simulation.getSystemNanos(i);
+        }
+
+        events.copyFrom(pending);
+        this.ticks = ticks;
+        this.tickNanos = tickNanos;
+        this.alpha = alpha;
+        this.publishNanos = System.nanoTime();
+    }
+
+    /**
+     * Posición de un enemigo en la copia, buscando por id (los ids crecen
+     * en el orden del almacén)
+     * @return La posición o -1 si ya no está
+     */
+    public int indexOf(int enemyId) {
+        int index = Arrays.binarySearch(ids, 0, enemyCount, enemyId);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Fracción del siguiente tick ya transcurrida, para interpolar. Si quien
+     * publica no la fijó (alpha negativo, hilo propio) se calcula con el
+     * tiempo pasado desde la publicación.
+     */
+    public float getInterpolationAlpha(long nowNanos) {
+        if (alpha >= 0) {
+            return alpha;
+        }
+        return Math.min(1f, Math.max(0f, (nowNanos - publishNanos) / TICK_NANOS));
+    }
+
+    /**
+     * Si se puede construir en la casilla, con las torres de esta copia
+     */
+    public boolean isValidTowerPosition(int gridX, int gridZ) {
+        return GameSimulation.isBuildableSpot(path, gridX, gridZ) && towerIndexAt(gridX, gridZ) < 0;
+    }
+
+    /**
+     * Posición en la copia de la torre de una casilla
+     * @return La posición o -1 si no hay torre
+     */
+    public int towerIndexAt(int gridX, int gridZ) {
+        for (int i = 0; i < towerCount; i++) {
+            if (towerX[i] == gridX && towerZ[i] == gridZ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public Vector3f getPosition(int i, Vector3f store) {
+        return store.set(x[i], y[i], z[i]);
+    }
+
+    /**
+     * Posición interpolada entre el tick anterior y el actual
+     */
+    public Vector3f getPosition(int i, float alpha, Vector3f store) {
+        return store.set(prevX[i] + (x[i] - prevX[i]) * alpha,
+                prevY[i] + (y[i] - prevY[i]) * alpha,
+                prevZ[i] + (z[i] - prevZ[i]) * alpha);
+    }
+
+    /**
+     * Rotación precalculada del tramo del camino en el que está el enemigo
+     */
+    public Quaternion getSegmentRotation(int i) {
+        return pathTable.getRotation(segments[i]);
+    }
+
+    // Getters
+    public long getTick() { return tick; }
+    public int getMoney() { return money; }
+    public int getScore() { return score; }
+    public int getCurrentWave() { return currentWave; }
+    public boolean isWaveInProgress() { return waveInProgress; }
+    public float getTimeToNextWave() { return timeToNextWave; }
+    public int getEscapedDemons() { return escapedDemons; }
+    public int getPortalLife() { return GameSimulation.MAX_ESCAPED_DEMONS - escapedDemons; }
+    public boolean isGameOver() { return gameOver; }
+    public int getActiveTowerCount() { return activeTowers; }
+    public int getSleepingTowerCount() { return sleepingTowers; }
+    public int getTowerCount() { return towerCount; }
+    public TowerType getTowerType(int i) { return towerTypes[i]; }
+    public int getTowerLevel(int i) { return towerLevels[i]; }
+    public TargetingPolicy getTowerTargetingPolicy(int i) { return towerPolicies[i]; }
+    public float getTowerRange(int i) { return towerRanges[i]; }
+    public int getTowerDamage(int i) { return towerDamages[i]; }
+    public float getTowerFireRate(int i) { return towerFireRates[i]; }
+    public boolean canUpgradeTower(int i) { return towerUpgradable[i]; }
+    public int getTowerUpgradeCost(int i) { return towerUpgradeCosts[i]; }
+    public int getTowerInvestment(int i) { return towerInvestments[i]; }
+    public float getTowerCoveredLength(int i) { return towerCoveredLengths[i]; }
+    public int getEnemyCount() { return enemyCount; }
+    public int getEnemyId(int i) { return ids[i]; }
+    public int getHealth(int i) { return health[i]; }
+    public int getMaxHealth(int i) { return maxHealth[i]; }
+    public boolean isAlive(int i) { return EnemyStore.getBit(alive, i); }
+    public float getHeading(int i) { return heading[i]; }
+    public float getPreviousHeading(int i) { return prevHeading[i]; }
+    public int getTicks() { return ticks; }
+    public long getTickNanos() { return tickNanos; }
+    public int getSystemCount() { return systemCount; }
+    public String getSystemName(int i) { return systemNames[i]; }
+    public long getSystemNanos(int i) { return systemNanos[i]; }
+}
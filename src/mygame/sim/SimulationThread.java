@@ -0,0 +1,88 @@
+package mygame.sim;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ejecuta la simulación en su propio hilo, a {@link GameSimulation#TICK_RATE}
+ * ticks por segundo de reloj real, y publica una copia del estado tras cada
+ * tanda de ticks en un {@link SnapshotExchange}. El hilo de render ya no
+ * espera a la simulación ni la simulación al render: solo se comunican por
+ * la copia publicada y por la cola de acciones del jugador.
+ * <p>
+ * Mientras el hilo está en marcha nadie más debe tocar la simulación; las
+ * acciones se mandan con {@link #submit(SimulationCommand)} y se aplican
+ * antes del siguiente tick.
+ */
+public final class SimulationThread {
+
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1) / GameSimulation.TICK_RATE;
+
+    private final GameSimulation simulation;
+    private final SnapshotExchange exchange;
+    private final ConcurrentLinkedQueue<SimulationCommand> commands = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = false;
+
+    public SimulationThread(GameSimulation simulation, SnapshotExchange exchange) {
+        this.simulation = simulation;
+        this.exchange = exchange;
+        this.thread = new Thread(this::run, "Simulacion");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Detiene el hilo y espera a que termine el tick en curso. Después la
+     * simulación vuelve a ser del hilo que llama.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Encola una acción del jugador para el siguiente tick
+     */
+    public void submit(SimulationCommand command) {
+        commands.add(command);
+    }
+
+    private void run() {
+        long nextTick = System.nanoTime() + TICK_NANOS;
+        while (running) {
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(nextTick - now);
+                continue;
+            }
+
+            // Ticks atrasados, como mucho MAX_TICKS_PER_FRAME; el resto se descarta
+            int ticks = 0;
+            long start = System.nanoTime();
+            while (now >= nextTick && ticks < GameSimulation.MAX_TICKS_PER_FRAME) {
+                for (SimulationCommand command; (command = commands.poll()) != null; ) {
+                    exchange.apply(command);
+                }
+                simulation.step(GameSimulation.TICK);
+                nextTick += TICK_NANOS;
+                ticks++;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (now >= nextTick) {
+                nextTick = now + TICK_NANOS;
+            }
+            exchange.publish(ticks, elapsed / ticks, -1f);
+        }
+    }
+}
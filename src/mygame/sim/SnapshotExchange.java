@@ -0,0 +1,144 @@
+package mygame.sim;
+
+import com.jme3.math.Vector3f;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Paso de copias del estado entre el hilo de la simulación y el de la
+ * vista sin cerrojos. Hay tres {@link SimulationSnapshot} en juego: la que
+ * rellena la simulación, la última publicada y la que está dibujando la
+ * vista. Publicar y recoger son un único intercambio atómico cada uno, así
+ * ninguno de los dos hilos espera nunca al otro y la vista siempre ve la
+ * copia completa más reciente.
+ * <p>
+ * Los eventos no se pueden perder aunque la vista se salte copias: cada
+ * copia lleva todos los eventos que la vista aún no ha confirmado, y la
+ * vista entrega solo los que no había visto. La simulación da por
+ * confirmados los de una copia cuando la vista se la lleva.
+ * <p>
+ * Es también el {@link SimulationListener} de la simulación, que guarda los
+ * eventos como datos. Solo {@link #acquire(SimulationSnapshot.EventHandler)}
+ * y {@link #getSnapshot()} se llaman desde el hilo de la vista; el resto,
+ * desde el hilo que ejecuta la simulación.
+ */
+public final class SnapshotExchange implements SimulationListener {
+
+    private final GameSimulation simulation;
+
+    // Lado de la simulación
+    private final SimulationEvents pending = new SimulationEvents();
+    private SimulationSnapshot back; // Copia que se rellenará en la próxima publicación
+    private long publishedSeq = 0;   // Último evento de la copia publicada
+
+    // Entre los dos hilos: última copia publicada (null si ya se la llevó la
+    // vista) y copia que la vista terminó de usar
+    private final AtomicReference<SimulationSnapshot> ready = new AtomicReference<>();
+    private final AtomicReference<SimulationSnapshot> spare = new AtomicReference<>();
+
+    // Lado de la vista
+    private SimulationSnapshot current;
+    private long appliedSeq = 0;
+
+    /**
+     * Se registra como oyente de la simulación y publica su estado inicial
+     */
+    public SnapshotExchange(GameSimulation simulation) {
+        this.simulation = simulation;
+        simulation.setListener(this);
+        publish(0, 0, 0f);
+    }
+
+    /**
+     * Aplica una acción del jugador y deja constancia de ella como evento,
+     * para que la vista cree o quite lo que corresponda
+     */
+    public void apply(SimulationCommand command) {
+        int money = simulation.getMoney();
+        boolean applied = command.apply(simulation);
+        pending.add(SimulationEvents.COMMAND_APPLIED, simulation.getTick(), simulation.getMoney() - money,
+                applied ? 1 : 0, null, command);
+    }
+
+    /**
+     * Publica una copia del estado actual con los eventos pendientes
+     * @param ticks Ticks ejecutados desde la publicación anterior
+     * @param tickNanos Duración media de esos ticks
+     * @param alpha Fracción del siguiente tick ya transcurrida, o un valor
+     *              negativo para que la vista la calcule con el reloj
+     */
+    public void publish(int ticks, long tickNanos, float alpha) {
+        SimulationSnapshot snapshot = back != null ? back : spare.getAndSet(null);
+        if (snapshot == null) {
+            snapshot = new SimulationSnapshot(simulation.getPath());
+        }
+        back = null;
+        snapshot.capture(simulation, pending, ticks, tickNanos, alpha);
+
+        SimulationSnapshot unread = ready.getAndSet(snapshot);
+        if (unread == null) {
+            // La vista se llevó la anterior: sus eventos ya están entregados
+            pending.dropUpTo(publishedSeq);
+        } else {
+            // Nadie la vio; se reutiliza y sus eventos siguen pendientes
+            back = unread;
+        }
+        publishedSeq = snapshot.events.lastSeq();
+    }
+
+    /**
+     * Toma la última copia publicada, si hay una nueva, y entrega al
+     * manejador los eventos que aún no había recibido
+     * @return La copia más reciente
+     */
+    public SimulationSnapshot acquire(SimulationSnapshot.EventHandler handler) {
+        SimulationSnapshot latest = ready.getAndSet(null);
+        if (latest != null) {
+            if (current != null) {
+                spare.set(current);
+            }
+            current = latest;
+            current.events.dispatch(appliedSeq, handler);
+            appliedSeq = Math.max(appliedSeq, current.events.lastSeq());
+        }
+        return current;
+    }
+
+    /**
+     * Última copia tomada con {@link #acquire}
+     */
+    public SimulationSnapshot getSnapshot() {
+        return current;
+    }
+
+    @Override
+    public void onWaveStarted(int wave) {
+        pending.add(SimulationEvents.WAVE_STARTED, simulation.getTick(), wave, 0, null, null);
+    }
+
+    @Override
+    public void onEnemySpawned(SimEnemy enemy) {
+        pending.add(SimulationEvents.ENEMY_SPAWNED, simulation.getTick(), enemy.getId(), 0, enemy.getType(), null);
+    }
+
+    @Override
+    public void onEnemyKilled(SimEnemy enemy) {
+        pending.add(SimulationEvents.ENEMY_KILLED, simulation.getTick(), enemy.getId(), 0, enemy.getType(), null);
+    }
+
+    @Override
+    public void onEnemyEscaped(SimEnemy enemy) {
+        pending.add(SimulationEvents.ENEMY_ESCAPED, simulation.getTick(), enemy.getId(),
+                simulation.getEscapedDemons(), enemy.getType(), null);
+    }
+
+    @Override
+    public void onTowerFired(SimTower tower, SimEnemy target, Vector3f impactPoint, int flightTicks) {
+        pending.addTowerFired(simulation.getTick(), target.getId(), tower.getGridX(), tower.getGridZ(),
+                impactPoint, flightTicks);
+    }
+
+    @Override
+    public void onGameOver() {
+        pending.add(SimulationEvents.GAME_OVER, simulation.getTick(), 0, 0, null, null);
+    }
+}
@@ -0,0 +1,31 @@
+package mygame.sim;
+
+/**
+ * Criterio con el que una torre elige a qué enemigo disparar entre los que
+ * tiene a su alcance.
+ */
+public enum TargetingPolicy {
+    NEAREST("Más cercano"),
+    FIRST("Primero"),      // El que más ha avanzado por el camino
+    LAST("Último"),        // El que menos ha avanzado
+    STRONGEST("Más fuerte"), // El que más vida le queda
+    WEAKEST("Más débil");  // El que menos vida le queda
+
+    private final String name;
+
+    TargetingPolicy(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Siguiente criterio, para cambiar de uno en uno con una tecla
+     */
+    public TargetingPolicy next() {
+        TargetingPolicy[] values = values();
+        return values[(ordinal() + 1) % values.length];
+    }
+}
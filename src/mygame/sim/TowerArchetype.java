@@ -0,0 +1,72 @@
+package mygame.sim;
+
+import mygame.towers.TowerType;
+
+/**
+ * Plantilla de componentes de una torre: coste y, para cada nivel de
+ * mejora, daño, cadencia, alcance y precio, ya escalados con el
+ * {@link BalanceConfig} de la partida. {@link SimTower} solo consulta la
+ * fila de su nivel. Cada {@link TowerType} tiene la suya
+ * ({@link #of(TowerType, BalanceConfig)}); el tipo se conserva para la
+ * vista y para la tabla de cobertura.
+ */
+public final class TowerArchetype {
+
+    private final TowerType type;
+    private final int cost;
+
+    // Índice = nivel (0 = sin mejoras)
+    private final int[] damage;
+    private final float[] fireRate;
+    private final float[] range;
+    private final int[] upgradeCost; // Precio de llegar a ese nivel; 0 en el nivel 0
+
+    public TowerArchetype(TowerType type, int cost, int[] damage, float[] fireRate, float[] range, int[] upgradeCost) {
+        if (damage.length != fireRate.length || damage.length != range.length || damage.length != upgradeCost.length) {
+            throw new IllegalArgumentException("Todas las tablas deben tener una fila por nivel");
+        }
+        this.type = type;
+        this.cost = cost;
+        this.damage = damage;
+        this.fireRate = fireRate;
+        this.range = range;
+        this.upgradeCost = upgradeCost;
+    }
+
+    /**
+     * Plantilla con los valores del tipo, con las mejoras escaladas según
+     * el equilibrio de la partida
+     */
+    public static TowerArchetype of(TowerType type, BalanceConfig balance) {
+        int levels = Math.min(SimTower.MAX_LEVEL, type.getMaxUpgradeLevel()) + 1;
+        int[] damage = new int[levels];
+        float[] fireRate = new float[levels];
+        float[] range = new float[levels];
+        int[] upgradeCost = new int[levels];
+        damage[0] = type.getDamage();
+        fireRate[0] = type.getFireRate();
+        range[0] = type.getRange();
+        for (int level = 1; level < levels; level++) {
+            damage[level] = balance.scaleUpgradeDamage(type.getUpgradedDamage(level));
+            fireRate[level] = type.getUpgradedFireRate(level);
+            range[level] = type.getUpgradedRange(level);
+            upgradeCost[level] = balance.scaleUpgradeCost(type.getUpgradeCost(level));
+        }
+        return new TowerArchetype(type, type.getCost(), damage, fireRate, range, upgradeCost);
+    }
+
+    /**
+     * Nivel más alto al que se puede mejorar
+     */
+    public int getMaxLevel() {
+        return damage.length - 1;
+    }
+
+    // Getters
+    public TowerType getType() { return type; }
+    public int getCost() { return cost; }
+    public int getDamage(int level) { return damage[level]; }
+    public float getFireRate(int level) { return fireRate[level]; }
+    public float getRange(int level) { return range[level]; }
+    public int getUpgradeCost(int level) { return upgradeCost[level]; }
+}
@@ -0,0 +1,145 @@
+package mygame.sim;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import mygame.map.PathTable;
+
+/**
+ * Núcleos con la Vector API ({@code jdk.incubator.vector}). Procesan tantos
+ * enemigos a la vez como carriles tenga el procesador, usando los bits de
+ * vivo/terminado del almacén como máscara, y acaban con la versión escalar
+ * para las posiciones sobrantes.
+ * <p>
+ * Hacen las mismas operaciones en el mismo orden que {@link ScalarKernels}
+ * (Java nunca fusiona multiplicación y suma por su cuenta), así que el
+ * resultado es idéntico bit a bit. Solo se cargan desde
+ * {@link EnemyKernels#fromSystemProperty()}.
+ */
+public final class VectorKernels implements EnemyKernels {
+
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = FLOATS.length();
+    private static final long LANE_BITS = LANES == 64 ? -1L : (1L << LANES) - 1;
+
+    // Después de las constantes: el constructor las comprueba
+    public static final VectorKernels INSTANCE = new VectorKernels();
+
+    private VectorKernels() {
+        if (INTS.length() != LANES || 64 % LANES != 0) {
+            throw new IllegalStateException("Forma de vector no soportada: " + FLOATS);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "vectorial x" + LANES;
+    }
+
+    // Bits de los enemigos vivos que aún no han llegado al final, desde la posición i
+    private static long liveBits(EnemyStore store, int i) {
+        int word = i >> 6;
+        return ((store.alive[word] & ~store.finished[word]) >>> (i & 63)) & LANE_BITS;
+    }
+
+    @Override
+    public void advance(EnemyStore store, int from, int to, float tpf) {
+        store.savePrevious(from, to);
+        PathTable table = store.getPathTable();
+        if (table.getSegmentCount() == 0 || from % LANES != 0) {
+            store.moveRange(from, to, tpf);
+            return;
+        }
+
+        float length = table.getLength();
+        float[] progress = store.progress;
+        float[] speeds = store.speeds;
+        int[] segments = store.segments;
+
+        int bound = from + FLOATS.loopBound(to - from);
+        for (int i = from; i < bound; i += LANES) {
+            long live = liveBits(store, i);
+            if (live == 0) {
+                continue;
+            }
+            VectorMask<Float> mask = VectorMask.fromLong(FLOATS, live);
+
+            // Avance sobre el camino; los que pasan del final se quedan en él
+            FloatVector p = FloatVector.fromArray(FLOATS, progress, i)
+                    .add(FloatVector.fromArray(FLOATS, speeds, i).mul(tpf));
+            VectorMask<Float> done = p.compare(VectorOperators.GE, length).and(mask);
+            p = p.blend(length, done);
+            p.intoArray(progress, i, mask);
+            store.finished[i >> 6] |= done.toLong() << (i & 63);
+            long crossed = p.compare(VectorOperators.GE, FloatVector.fromArray(FLOATS, store.segmentEnd, i))
+                    .toLong() & live;
+
+            // El tramo casi nunca cambia: solo los que llegan al final del
+            // suyo se resuelven uno a uno. Ningún vector sigue vivo a través
+            // de estas llamadas, así el JIT no tiene que guardarlos en memoria.
+            for (; crossed != 0; crossed &= crossed - 1) {
+                int j = i + Long.numberOfTrailingZeros(crossed);
+                int segment = table.segmentAt(progress[j], segments[j]);
+                if (segment != segments[j]) {
+                    store.enterSegment(j, segment);
+                }
+            }
+
+            // Posición = inicio del tramo + dirección * distancia dentro del tramo
+            mask = VectorMask.fromLong(FLOATS, live);
+            FloatVector along = FloatVector.fromArray(FLOATS, progress, i).min(length).max(0f)
+                    .sub(FloatVector.fromArray(FLOATS, store.segmentStart, i));
+            FloatVector.fromArray(FLOATS, store.originX, i)
+                    .add(FloatVector.fromArray(FLOATS, store.dirX, i).mul(along))
+                    .intoArray(store.x, i, mask);
+            FloatVector.fromArray(FLOATS, store.originY, i)
+                    .add(FloatVector.fromArray(FLOATS, store.dirY, i).mul(along))
+                    .intoArray(store.y, i, mask);
+            FloatVector.fromArray(FLOATS, store.originZ, i)
+                    .add(FloatVector.fromArray(FLOATS, store.dirZ, i).mul(along))
+                    .intoArray(store.z, i, mask);
+        }
+        store.moveRange(bound, to, tpf);
+    }
+
+    @Override
+    public int nearestInRange(EnemyStore store, float cx, float cy, float cz, float rangeSq) {
+        float[] x = store.x;
+        float[] y = store.y;
+        float[] z = store.z;
+        int size = store.size();
+        int bound = FLOATS.loopBound(size);
+
+        // Mejor candidato de cada carril; cada carril recorre posiciones crecientes
+        FloatVector best = FloatVector.broadcast(FLOATS, Float.MAX_VALUE);
+        IntVector bestSlot = IntVector.broadcast(INTS, -1);
+        IntVector lane = IntVector.zero(INTS).addIndex(1);
+        for (int i = 0; i < bound; i += LANES) {
+            long live = liveBits(store, i);
+            if (live == 0) {
+                continue;
+            }
+            FloatVector dx = FloatVector.fromArray(FLOATS, x, i).sub(cx);
+            FloatVector dy = FloatVector.fromArray(FLOATS, y, i).sub(cy);
+            FloatVector dz = FloatVector.fromArray(FLOATS, z, i).sub(cz);
+            FloatVector distanceSq = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz));
+            VectorMask<Float> hit = distanceSq.compare(VectorOperators.LE, rangeSq)
+                    .and(distanceSq.compare(VectorOperators.LT, best))
+                    .and(VectorMask.fromLong(FLOATS, live));
+            best = best.blend(distanceSq, hit);
+            bestSlot = bestSlot.blend(lane.add(i), hit.cast(INTS));
+        }
+
+        // Menor distancia entre carriles; a igualdad, la posición más baja
+        float minDistanceSq = best.reduceLanes(VectorOperators.MIN);
+        int nearest = -1;
+        if (minDistanceSq != Float.MAX_VALUE) {
+            VectorMask<Integer> tied = best.compare(VectorOperators.EQ, minDistanceSq).cast(INTS);
+            nearest = bestSlot.blend(Integer.MAX_VALUE, tied.not()).reduceLanes(VectorOperators.MIN);
+        }
+        return ScalarKernels.nearestInRange(store, bound, size, cx, cy, cz, rangeSq, nearest, minDistanceSq);
+    }
+}
@@ -0,0 +1,162 @@
+package mygame.sim.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import mygame.map.CoverageTable;
+import mygame.map.Path;
+import mygame.sim.BalanceConfig;
+import mygame.sim.GameSimulation;
+import mygame.sim.SimulationListener;
+
+/**
+ * Ejecuta muchas partidas sin ventana en paralelo para ajustar el
+ * equilibrio: recorre una rejilla de {@link BalanceConfig} y
+ * {@link BotStrategy}, con varias semillas por combinación, y escribe un CSV
+ * con la oleada alcanzada, la curva de dinero, los escapes y los ticks por
+ * segundo de cada partida.
+ * <p>
+ * Cada partida es una tarea independiente en un pool con robo de trabajo de
+ * un hilo por núcleo; las partidas no comparten estado, así que el resultado
+ * de cada una es el mismo que en serie.
+ * <pre>java -cp ... mygame.sim.bench.BalanceSweep [salida.csv] [semillas] [hilos]</pre>
+ */
+public class BalanceSweep {
+
+    // Rejilla de parámetros; el primer valor de cada eje es el del juego
+    private static final float[] LINEAR_STEPS = {0.2f, 0.15f, 0.25f};
+    private static final float[] EXPONENTIAL_BASES = {1.25f, 1.15f, 1.35f};
+    private static final float[] UPGRADE_DAMAGE_SCALES = {1f, 1.25f};
+    private static final float[] UPGRADE_COST_SCALES = {1f, 0.75f};
+
+    // Tope por partida para que una configuración demasiado fácil no se eternice
+    private static final int MAX_WAVES = 60;
+    private static final long MAX_TICKS = 4L * 60 * 60 * GameSimulation.TICK_RATE; // 4 horas de juego
+
+    /**
+     * Resultado de una partida
+     */
+    private static class GameResult {
+        BalanceConfig balance;
+        BotStrategy strategy;
+        long seed;
+        int wave;
+        int score;
+        int escapes;
+        int towers;
+        long ticks;
+        long nanos;
+        String moneyCurve; // Dinero al empezar cada oleada, separado por '|'
+
+        double ticksPerSecond() {
+            return ticks / (nanos / 1e9);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        File output = new File(args.length > 0 ? args[0] : "balance-sweep.csv");
+        int seedsPerConfig = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        List<Callable<GameResult>> games = new ArrayList<>();
+        for (float linear : LINEAR_STEPS) {
+            for (float base : EXPONENTIAL_BASES) {
+                for (float damage : UPGRADE_DAMAGE_SCALES) {
+                    for (float cost : UPGRADE_COST_SCALES) {
+                        BalanceConfig balance = new BalanceConfig(linear, 1.1f, base, damage, cost);
+                        for (BotStrategy strategy : BotStrategy.values()) {
+                            for (long seed = 1; seed <= seedsPerConfig; seed++) {
+                                final long gameSeed = seed;
+                                games.add(() -> playGame(balance, strategy, gameSeed));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println(games.size() + " partidas en " + threads + " hilos");
+
+        ExecutorService pool = Executors.newWorkStealingPool(threads);
+        List<GameResult> results = new ArrayList<>(games.size());
+        long start = System.nanoTime();
+        try {
+            for (Future<GameResult> f : pool.invokeAll(games)) {
+                results.add(f.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        writeCsv(output, results);
+
+        long totalTicks = 0;
+        double cpuSeconds = 0;
+        for (GameResult r : results) {
+            totalTicks += r.ticks;
+            cpuSeconds += r.nanos / 1e9;
+        }
+        System.out.printf("%d ticks en %.2f s: %.0f ticks/s en total, %.0f ticks/s por hilo, paralelismo %.1fx%n",
+                totalTicks, seconds, totalTicks / seconds, totalTicks / cpuSeconds, cpuSeconds / seconds);
+        System.out.println("Resultados en " + output.getPath());
+    }
+
+    private static GameResult playGame(BalanceConfig balance, BotStrategy strategy, long seed) {
+        Path path = new Path();
+        CoverageTable coverage = path.getCoverageTable();
+        GameSimulation sim = new GameSimulation(path, seed, balance);
+
+        StringBuilder moneyCurve = new StringBuilder();
+        sim.setListener(new SimulationListener() {
+            @Override
+            public void onWaveStarted(int wave) {
+                if (moneyCurve.length() > 0) {
+                    moneyCurve.append('|');
+                }
+                moneyCurve.append(sim.getMoney());
+            }
+        });
+
+        long start = System.nanoTime();
+        while (!sim.isGameOver() && sim.getCurrentWave() <= MAX_WAVES && sim.getTick() < MAX_TICKS) {
+            strategy.act(sim, coverage);
+            sim.step(GameSimulation.TICK);
+        }
+
+        GameResult r = new GameResult();
+        r.nanos = System.nanoTime() - start;
+        r.balance = balance;
+        r.strategy = strategy;
+        r.seed = seed;
+        r.wave = sim.getCurrentWave();
+        r.score = sim.getScore();
+        r.escapes = sim.getEscapedDemons();
+        r.towers = sim.getTowers().size();
+        r.ticks = sim.getTick();
+        r.moneyCurve = moneyCurve.toString();
+        return r;
+    }
+
+    private static void writeCsv(File output, List<GameResult> results) throws IOException {
+        try (PrintWriter out = new PrintWriter(output, "UTF-8")) {
+            out.println("linear_step,exponential_base,upgrade_damage_scale,upgrade_cost_scale,strategy,seed,"
+                    + "wave,score,escapes,towers,ticks,ticks_per_second,money_per_wave");
+            for (GameResult r : results) {
+                BalanceConfig b = r.balance;
+                out.printf(Locale.ROOT, "%.3f,%.3f,%.3f,%.3f,%s,%d,%d,%d,%d,%d,%d,%.0f,%s%n",
+                        b.getLinearScalingStep(), b.getExponentialScalingBase(),
+                        b.getUpgradeDamageScale(), b.getUpgradeCostScale(),
+                        r.strategy, r.seed, r.wave, r.score, r.escapes, r.towers, r.ticks,
+                        r.ticksPerSecond(), r.moneyCurve);
+            }
+        }
+    }
+}
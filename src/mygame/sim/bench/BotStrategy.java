@@ -0,0 +1,84 @@
+package mygame.sim.bench;
+
+import mygame.map.CoverageTable;
+import mygame.sim.GameSimulation;
+import mygame.sim.SimTower;
+import mygame.towers.TowerType;
+
+/**
+ * Jugadores automáticos sencillos para las partidas sin ventana. Se llaman
+ * una vez por tick y actúan solo con lo que la simulación permite, igual que
+ * el jugador real: construir en casillas libres y mejorar torres. Las
+ * casillas se ocupan de más a menos camino cubierto según la
+ * {@link CoverageTable}.
+ */
+public enum BotStrategy {
+
+    /** Construye torres básicas en cuanto hay dinero */
+    BASIC_ONLY {
+        @Override
+        void act(GameSimulation sim, CoverageTable coverage) {
+            buildNext(sim, coverage, TowerType.BASIC);
+        }
+    },
+
+    /** Alterna los tres tipos de torre en orden */
+    MIXED {
+        @Override
+        void act(GameSimulation sim, CoverageTable coverage) {
+            TowerType[] types = TowerType.values();
+            buildNext(sim, coverage, types[sim.getTowers().size() % types.length]);
+        }
+    },
+
+    /** Mejora las torres existentes antes de construir otra */
+    UPGRADE_FIRST {
+        @Override
+        void act(GameSimulation sim, CoverageTable coverage) {
+            for (SimTower t : sim.getTowers()) {
+                if (t.canUpgrade()) {
+                    sim.upgradeTower(t);
+                    return;
+                }
+            }
+            buildNext(sim, coverage, TowerType.BASIC);
+        }
+    },
+
+    /** Solo francotiradores; si no llega para otro, el dinero va a mejoras */
+    SNIPER_UPGRADE {
+        @Override
+        void act(GameSimulation sim, CoverageTable coverage) {
+            if (buildNext(sim, coverage, TowerType.SNIPER)) {
+                return;
+            }
+            for (SimTower t : sim.getTowers()) {
+                if (sim.upgradeTower(t)) {
+                    return;
+                }
+            }
+        }
+    };
+
+    /**
+     * Decide y aplica las acciones de este tick
+     */
+    abstract void act(GameSimulation sim, CoverageTable coverage);
+
+    /**
+     * Construye una torre del tipo indicado en la casilla libre que más
+     * camino cubre
+     * @return true si se ha construido
+     */
+    static boolean buildNext(GameSimulation sim, CoverageTable coverage, TowerType type) {
+        if (sim.getMoney() < type.getCost()) {
+            return false;
+        }
+        for (int[] spot : coverage.getSpotsByCoverage(type, 0)) {
+            if (sim.placeTower(type, spot[0], spot[1]) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,76 @@
+package mygame.sim.bench;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import mygame.enemies.EnemyType;
+import mygame.map.CoverageTable;
+import mygame.map.Path;
+import mygame.sim.GameSimulation;
+import mygame.towers.TowerType;
+
+/**
+ * Mide el coste de un tick completo de la simulación con una multitud de
+ * enemigos repartidos por el camino (50k por defecto) y las torres que se
+ * pueden pagar con el dinero inicial. Se ejecuta sin ventana:
+ * <pre>java -cp ... mygame.sim.bench.CrowdBenchmark [enemigos] [ticks] [--parallel]</pre>
+ * Los enemigos se colocan lo bastante lejos del portal para que ninguno
+ * escape durante la medida.
+ */
+public class CrowdBenchmark {
+
+    private static final int DEFAULT_ENEMIES = 50_000;
+    private static final int DEFAULT_TICKS = 600;
+    private static final int WARMUP_TICKS = 120;
+    private static final float MAX_SPEED = 1.0f; // Por encima de la de cualquier tipo sin mejoras
+
+    public static void main(String[] args) {
+        int enemyCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ENEMIES;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TICKS;
+        boolean parallel = args.length > 2 && args[2].equals("--parallel");
+
+        Path path = new Path();
+        GameSimulation simulation = new GameSimulation(path, 42L);
+        if (parallel) {
+            simulation.setParallelPool(ForkJoinPool.commonPool());
+        }
+        CoverageTable coverageTable = path.getCoverageTable();
+        List<int[]> spots = coverageTable.getSpotsByCoverage(TowerType.BASIC, 0);
+        for (int[] spot : spots) {
+            if (simulation.getMoney() < TowerType.BASIC.getCost()) {
+                break;
+            }
+            simulation.placeTower(TowerType.BASIC, spot[0], spot[1]);
+        }
+
+        float length = path.getPathTable().getLength();
+        float margin = MAX_SPEED * (WARMUP_TICKS + ticks) * GameSimulation.TICK;
+        float spread = Math.max(0, length - margin);
+        Random random = new Random(42);
+        EnemyType[] types = EnemyType.values();
+        for (int i = 0; i < enemyCount; i++) {
+            simulation.spawnEnemy(types[random.nextInt(types.length)], random.nextFloat() * spread);
+        }
+
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            simulation.step(GameSimulation.TICK);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            simulation.step(GameSimulation.TICK);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double msPerTick = elapsed / 1e6 / ticks;
+        System.out.printf("enemigos=%d torres=%d ticks=%d núcleos=%s hilos=%s%n", enemyCount, simulation.getTowers().size(),
+                ticks, simulation.getKernels().getName(),
+                parallel ? String.valueOf(ForkJoinPool.commonPool().getParallelism()) : "1");
+        System.out.printf("%.3f ms/tick (%.0f ticks/s, presupuesto a %d ticks/s: %.2f ms)%n",
+                msPerTick, 1000.0 / msPerTick, GameSimulation.TICK_RATE, 1000.0 / GameSimulation.TICK_RATE);
+        for (int i = 0; i < simulation.getSystemCount(); i++) {
+            System.out.printf("  %-10s %.3f ms%n", simulation.getSystemName(i), simulation.getSystemNanos(i) / 1e6);
+        }
+        System.out.printf("quedan %d enemigos, escapados %d%n",
+                simulation.getEnemies().size(), simulation.getEscapedDemons());
+    }
+}
@@ -0,0 +1,137 @@
+package mygame.sim.bench;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import mygame.enemies.EnemyType;
+import mygame.map.Path;
+import mygame.map.PathTable;
+import mygame.sim.EnemyKernels;
+import mygame.sim.EnemyStore;
+import mygame.sim.ScalarKernels;
+import mygame.sim.SimEnemy;
+import mygame.towers.TowerType;
+
+/**
+ * Compara los núcleos escalares con los vectoriales en oleadas de distintos
+ * tamaños: avance de todos los enemigos y búsqueda del más cercano desde
+ * todas las casillas de torre. También comprueba que ambos dan exactamente
+ * el mismo resultado. Necesita el módulo de la Vector API:
+ * <pre>java --add-modules jdk.incubator.vector -cp ... mygame.sim.bench.KernelBenchmark</pre>
+ */
+public class KernelBenchmark {
+
+    private static final int[] WAVE_SIZES = {25, 250, 2_500, 50_000};
+    private static final int WARMUP_ENEMIES = 20_000_000; // Trabajo mínimo antes de medir, para que compile el JIT
+    private static final int MAX_TICKS = 600; // 10 s de juego: nadie llega al final del camino
+    private static final int MAX_WORK_PER_ROUND = 1_000_000; // Menos ticks con oleadas grandes
+    private static final float TICK = 1f / 60;
+
+    public static void main(String[] args) {
+        EnemyKernels scalar = ScalarKernels.INSTANCE;
+        EnemyKernels vector = EnemyKernels.fromSystemProperty();
+        if (vector == scalar) {
+            System.out.println("Núcleos vectoriales no disponibles (falta --add-modules "
+                    + EnemyKernels.VECTOR_MODULE + "); solo se mide la versión escalar");
+        }
+
+        Path path = new Path();
+        PathTable table = path.getPathTable();
+        List<int[]> spots = path.getValidTowerSpots();
+        int towers = spots.size();
+        float[] cx = new float[towers];
+        float[] cy = new float[towers];
+        float[] cz = new float[towers];
+        float[] rangeSq = new float[towers];
+        for (int t = 0; t < towers; t++) {
+            cx[t] = spots.get(t)[0];
+            cy[t] = 0.5f;
+            cz[t] = spots.get(t)[1];
+            float range = TowerType.values()[t % TowerType.values().length].getRange();
+            rangeSq[t] = range * range;
+        }
+        int[] result = new int[towers];
+
+        System.out.println("núcleos: " + scalar.getName() + " / " + vector.getName());
+        System.out.println("enemigos | avance ns/enemigo (esc / vec) | cercano ns/consulta (esc / vec) | iguales");
+        for (int count : WAVE_SIZES) {
+            int ticks = Math.max(10, Math.min(MAX_TICKS, MAX_WORK_PER_ROUND / count));
+
+            // Calentamiento con oleadas desechables, para no gastar la que se mide
+            for (int done = 0; done < WARMUP_ENEMIES; done += ticks * count) {
+                for (EnemyKernels kernels : new EnemyKernels[] {scalar, vector}) {
+                    EnemyStore store = createWave(table, count);
+                    for (int i = 0; i < ticks; i++) {
+                        kernels.advance(store, TICK);
+                        kernels.nearestInRange(store, cx, cy, cz, rangeSq, towers, result);
+                    }
+                }
+            }
+
+            EnemyStore scalarStore = createWave(table, count);
+            EnemyStore vectorStore = createWave(table, count);
+            double advanceScalar = measure(() -> { scalar.advance(scalarStore, TICK); return 0; }, ticks) / count;
+            double advanceVector = measure(() -> { vector.advance(vectorStore, TICK); return 0; }, ticks) / count;
+            boolean same = sameState(scalarStore, vectorStore);
+
+            int[] scalarResult = new int[towers];
+            int[] vectorResult = new int[towers];
+            double nearestScalar = measure(() -> {
+                scalar.nearestInRange(scalarStore, cx, cy, cz, rangeSq, towers, scalarResult);
+                return scalarResult[0];
+            }, ticks) / towers;
+            double nearestVector = measure(() -> {
+                vector.nearestInRange(vectorStore, cx, cy, cz, rangeSq, towers, vectorResult);
+                return vectorResult[0];
+            }, ticks) / towers;
+            same &= Arrays.equals(scalarResult, vectorResult);
+
+            System.out.printf("%8d | %13.2f / %-13.2f | %14.1f / %-14.1f | %s%n", count,
+                    advanceScalar, advanceVector, nearestScalar, nearestVector, same ? "sí" : "NO");
+        }
+    }
+
+    // Oleada repartida por la primera mitad del camino para que nadie llegue al final
+    private static EnemyStore createWave(PathTable table, int count) {
+        EnemyStore store = new EnemyStore(table);
+        Random random = new Random(42);
+        EnemyType[] types = EnemyType.values();
+        float spread = table.getLength() / 2;
+        for (int i = 0; i < count; i++) {
+            store.add(i, types[random.nextInt(types.length)], random.nextFloat() * spread);
+        }
+        return store;
+    }
+
+    private static boolean sameState(EnemyStore a, EnemyStore b) {
+        for (int i = 0; i < a.size(); i++) {
+            SimEnemy ea = a.getHandle(i);
+            SimEnemy eb = b.getHandle(i);
+            if (Float.floatToIntBits(ea.getPathProgress()) != Float.floatToIntBits(eb.getPathProgress())
+                    || !ea.getPosition().equals(eb.getPosition())
+                    || ea.getHeading() != eb.getHeading()
+                    || ea.hasFinishedPath() != eb.hasFinishedPath()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private interface Work {
+        int run();
+    }
+
+    // Tiempo medio por ronda en nanosegundos
+    private static double measure(Work work, int rounds) {
+        int sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += work.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == Integer.MIN_VALUE) {
+            System.out.println(sink); // Evitar que el JIT elimine el trabajo
+        }
+        return elapsed / (double) rounds;
+    }
+}
@@ -0,0 +1,109 @@
+package mygame.sim.bench;
+
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import mygame.enemies.EnemyType;
+import mygame.map.Path;
+import mygame.sim.EnemyKernels;
+import mygame.sim.EnemyStore;
+import mygame.sim.SimEnemy;
+import mygame.towers.TowerType;
+
+/**
+ * Compara la búsqueda lineal de objetivos (la que hacía cada torre antes,
+ * enemigo a enemigo con Vector3f.distance) con la que usa ahora la
+ * simulación, {@link EnemyKernels#nearestInRange} sobre los arrays del
+ * almacén, para 10, 1k y 10k enemigos repartidos a lo largo del camino.
+ * Se ejecuta sin ventana; los núcleos se eligen con -Dmygame.kernels:
+ * <pre>java --add-modules jdk.incubator.vector -cp ... mygame.sim.bench.TargetingBenchmark</pre>
+ */
+public class TargetingBenchmark {
+
+    private static final int[] ENEMY_COUNTS = {10, 1_000, 10_000};
+    private static final int WARMUP_ROUNDS = 5_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+
+    public static void main(String[] args) {
+        Path path = new Path();
+        List<Vector3f> towerPositions = new ArrayList<>();
+        for (int[] spot : path.getValidTowerSpots()) {
+            towerPositions.add(new Vector3f(spot[0], 0.5f, spot[1]));
+        }
+        float range = TowerType.BASIC.getRange();
+        float rangeSq = range * range;
+        EnemyKernels kernels = EnemyKernels.fromSystemProperty();
+
+        System.out.println("núcleos: " + kernels.getName());
+        System.out.println("enemigos | lineal (ns/consulta) | núcleos (ns/consulta) | aceleración");
+        for (int count : ENEMY_COUNTS) {
+            EnemyStore store = createEnemiesAlongPath(path, count, new Random(42));
+            List<SimEnemy> enemies = new ArrayList<>(store.asList());
+
+            double linear = measure(() -> {
+                int found = 0;
+                for (Vector3f tower : towerPositions) {
+                    if (findNearestLinear(enemies, tower, range) != null) found++;
+                }
+                return found;
+            }, towerPositions.size());
+            double batched = measure(() -> {
+                int found = 0;
+                for (Vector3f tower : towerPositions) {
+                    if (kernels.nearestInRange(store, tower.x, tower.y, tower.z, rangeSq) >= 0) found++;
+                }
+                return found;
+            }, towerPositions.size());
+
+            System.out.printf("%8d | %20.1f | %21.1f | %10.1fx%n", count, linear, batched, linear / batched);
+        }
+    }
+
+    private interface Query {
+        int run();
+    }
+
+    private static double measure(Query query, int queriesPerRound) {
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += query.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += query.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == Integer.MIN_VALUE) {
+            System.out.println(sink); // Evitar que el JIT elimine el trabajo
+        }
+        return elapsed / (double) (MEASURED_ROUNDS * queriesPerRound);
+    }
+
+    // Reparte los enemigos por todo el recorrido
+    private static EnemyStore createEnemiesAlongPath(Path path, int count, Random random) {
+        EnemyStore store = new EnemyStore(path.getPathTable());
+        float length = path.getPathTable().getLength();
+        EnemyType[] types = EnemyType.values();
+        for (int i = 0; i < count; i++) {
+            store.add(i, types[random.nextInt(types.length)], random.nextFloat() * length);
+        }
+        return store;
+    }
+
+    // Búsqueda original: recorre todos los enemigos con Vector3f.distance
+    private static SimEnemy findNearestLinear(List<SimEnemy> enemies, Vector3f position, float range) {
+        SimEnemy nearest = null;
+        float minDistance = Float.MAX_VALUE;
+        for (SimEnemy e : enemies) {
+            if (e.isAlive() && !e.hasFinishedPath()) {
+                float distance = e.getPosition().distance(position);
+                if (distance <= range && distance < minDistance) {
+                    nearest = e;
+                    minDistance = distance;
+                }
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,133 @@
+package mygame.sim.replay;
+
+import mygame.sim.GameSimulation;
+import mygame.sim.SimTower;
+import mygame.sim.SimulationCommand;
+import mygame.sim.TargetingPolicy;
+import mygame.towers.TowerType;
+
+/**
+ * Acción del jugador tal y como se graba en una repetición: el tick de la
+ * simulación en el que ocurrió, el tipo de acción y la casilla de la
+ * cuadrícula sobre la que actuó.
+ */
+public class PlayerCommand implements SimulationCommand {
+
+    public enum Type {
+        PLACE_TOWER,       // Colocar torre del tipo indicado en la casilla
+        SELECT_TOWER_TYPE, // Elegir el tipo de torre a construir (solo interfaz)
+        SELECT_TOWER,      // Seleccionar la torre de la casilla (solo interfaz)
+        UPGRADE_TOWER,     // Mejorar la torre de la casilla
+        DELETE_TOWER,      // Eliminar la torre de la casilla
+        SET_TARGETING      // Cambiar el criterio de objetivo de la torre de la casilla
+    }
+
+    // Casilla vacía: la acción no apuntaba a ninguna torre
+    public static final int NO_CELL = Byte.MIN_VALUE;
+
+    private final long tick;
+    private final Type type;
+    private final TowerType towerType; // null si la acción no lleva tipo de torre
+    private final TargetingPolicy targetingPolicy; // null salvo en SET_TARGETING
+    private final int gridX;
+    private final int gridZ;
+
+    public PlayerCommand(long tick, Type type, TowerType towerType, int gridX, int gridZ) {
+        this(tick, type, towerType, null, gridX, gridZ);
+    }
+
+    public PlayerCommand(long tick, Type type, TowerType towerType, TargetingPolicy targetingPolicy,
+                         int gridX, int gridZ) {
+        this.tick = tick;
+        this.type = type;
+        this.towerType = towerType;
+        this.targetingPolicy = targetingPolicy;
+        this.gridX = gridX;
+        this.gridZ = gridZ;
+    }
+
+    public static PlayerCommand placeTower(long tick, TowerType towerType, int gridX, int gridZ) {
+        return new PlayerCommand(tick, Type.PLACE_TOWER, towerType, gridX, gridZ);
+    }
+
+    public static PlayerCommand selectTowerType(long tick, TowerType towerType) {
+        return new PlayerCommand(tick, Type.SELECT_TOWER_TYPE, towerType, NO_CELL, NO_CELL);
+    }
+
+    public static PlayerCommand selectTower(long tick, int gridX, int gridZ) {
+        return new PlayerCommand(tick, Type.SELECT_TOWER, null, gridX, gridZ);
+    }
+
+    public static PlayerCommand upgradeTower(long tick, int gridX, int gridZ) {
+        return new PlayerCommand(tick, Type.UPGRADE_TOWER, null, gridX, gridZ);
+    }
+
+    public static PlayerCommand deleteTower(long tick, int gridX, int gridZ) {
+        return new PlayerCommand(tick, Type.DELETE_TOWER, null, gridX, gridZ);
+    }
+
+    public static PlayerCommand setTargeting(long tick, TargetingPolicy policy, int gridX, int gridZ) {
+        return new PlayerCommand(tick, Type.SET_TARGETING, null, policy, gridX, gridZ);
+    }
+
+    /**
+     * La misma acción en otro tick; la vista la graba con el tick en el que
+     * la simulación llegó a aplicarla
+     */
+    public PlayerCommand atTick(long tick) {
+        return new PlayerCommand(tick, type, towerType, targetingPolicy, gridX, gridZ);
+    }
+
+    /**
+     * Aplica la acción directamente sobre la simulación, sin vistas. Las
+     * acciones que solo afectan a la interfaz no hacen nada.
+     * @return false si la acción no tuvo efecto
+     */
+    @Override
+    public boolean apply(GameSimulation simulation) {
+        switch (type) {
+            case PLACE_TOWER:
+                return simulation.placeTower(towerType, gridX, gridZ) != null;
+            case UPGRADE_TOWER:
+                return simulation.upgradeTower(simulation.getTowerAt(gridX, gridZ));
+            case DELETE_TOWER:
+                return simulation.deleteTower(simulation.getTowerAt(gridX, gridZ)) > 0;
+            case SET_TARGETING: {
+                SimTower tower = simulation.getTowerAt(gridX, gridZ);
+                if (tower != null) {
+                    tower.setTargetingPolicy(targetingPolicy);
+                }
+                return tower != null;
+            }
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Si la acción cambia la partida; las demás solo tocan la interfaz
+     */
+    public boolean changesSimulation() {
+        return type != Type.SELECT_TOWER_TYPE && type != Type.SELECT_TOWER;
+    }
+
+    public boolean hasCell() {
+        return gridX != NO_CELL && gridZ != NO_CELL;
+    }
+
+    // Getters
+    public long getTick() { return tick; }
+    public Type getType() { return type; }
+    public TowerType getTowerType() { return towerType; }
+    public TargetingPolicy getTargetingPolicy() { return targetingPolicy; }
+    public int getGridX() { return gridX; }
+    public int getGridZ() { return gridZ; }
+
+    @Override
+    public String toString() {
+        return "[" + tick + "] " + type
+                + (towerType != null ? " " + towerType : "")
+                + (targetingPolicy != null ? " " + targetingPolicy : "")
+                + (hasCell() ? " (" + gridX + ", " + gridZ + ")" : "");
+    }
+}
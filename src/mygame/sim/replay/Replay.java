@@ -0,0 +1,171 @@
+package mygame.sim.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import mygame.sim.TargetingPolicy;
+import mygame.towers.TowerType;
+
+/**
+ * Grabación de una partida: la semilla de la simulación y la lista ordenada
+ * de acciones del jugador. Con ambas {@link ReplayPlayer} reproduce la
+ * partida tick a tick.
+ * <p>
+ * Formato binario (big-endian):
+ * <pre>
+ * int   "TDRP"
+ * byte  versión
+ * long  semilla
+ * var   tick final, oleada final, puntuación final, número de acciones
+ * por acción:
+ *   var  ticks desde la acción anterior
+ *   byte tipo, byte argumento (tipo de torre o criterio de objetivo, -1 si no hay),
+ *   byte casilla X, byte casilla Z
+ * </pre>
+ * Los enteros "var" usan 7 bits por byte, así una acción ocupa unos 5 bytes.
+ */
+public class Replay {
+
+    private static final int MAGIC = 0x54445250; // "TDRP"
+    // 2: movimiento por longitud de arco; las partidas de la versión 1 ya no se reproducen igual
+    // 3: recargas y oleadas con plazos enteros en ticks
+    // 4: el daño llega con el proyectil, en el tick de impacto
+    private static final int VERSION = 4;
+
+    private final long seed;
+    private final List<PlayerCommand> commands = new ArrayList<>();
+
+    // Resultado de la partida original, para comprobar la reproducción
+    private long endTick = 0;
+    private int finalWave = 0;
+    private int finalScore = 0;
+
+    public Replay(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Añade una acción; deben llegar en orden de tick
+     */
+    public void record(PlayerCommand command) {
+        if (!commands.isEmpty() && command.getTick() < commands.get(commands.size() - 1).getTick()) {
+            throw new IllegalArgumentException("Acción fuera de orden: " + command);
+        }
+        commands.add(command);
+    }
+
+    /**
+     * Anota cómo terminó la partida grabada
+     */
+    public void finish(long endTick, int finalWave, int finalScore) {
+        this.endTick = endTick;
+        this.finalWave = finalWave;
+        this.finalScore = finalScore;
+    }
+
+    public void save(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            writeVarLong(out, endTick);
+            writeVarLong(out, finalWave);
+            writeVarLong(out, finalScore);
+            writeVarLong(out, commands.size());
+
+            long lastTick = 0;
+            for (PlayerCommand c : commands) {
+                writeVarLong(out, c.getTick() - lastTick);
+                lastTick = c.getTick();
+                out.writeByte(c.getType().ordinal());
+                out.writeByte(argumentOf(c));
+                out.writeByte(c.getGridX());
+                out.writeByte(c.getGridZ());
+            }
+        }
+    }
+
+    public static Replay load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("No es un fichero de repetición: " + file);
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Versión de repetición no soportada: " + version);
+            }
+
+            Replay replay = new Replay(in.readLong());
+            long endTick = readVarLong(in);
+            int finalWave = (int) readVarLong(in);
+            int finalScore = (int) readVarLong(in);
+            replay.finish(endTick, finalWave, finalScore);
+
+            PlayerCommand.Type[] types = PlayerCommand.Type.values();
+            TowerType[] towerTypes = TowerType.values();
+            TargetingPolicy[] policies = TargetingPolicy.values();
+            long count = readVarLong(in);
+            long tick = 0;
+            for (long i = 0; i < count; i++) {
+                tick += readVarLong(in);
+                PlayerCommand.Type type = types[in.readUnsignedByte()];
+                int argument = in.readByte();
+                int gridX = in.readByte();
+                int gridZ = in.readByte();
+                if (type == PlayerCommand.Type.SET_TARGETING) {
+                    replay.record(new PlayerCommand(tick, type, null, policies[argument], gridX, gridZ));
+                } else {
+                    replay.record(new PlayerCommand(tick, type,
+                            argument >= 0 ? towerTypes[argument] : null, gridX, gridZ));
+                }
+            }
+            return replay;
+        }
+    }
+
+    private static int argumentOf(PlayerCommand c) {
+        if (c.getTargetingPolicy() != null) {
+            return c.getTargetingPolicy().ordinal();
+        }
+        return c.getTowerType() != null ? c.getTowerType().ordinal() : -1;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    // Getters
+    public long getSeed() { return seed; }
+    public List<PlayerCommand> getCommands() { return Collections.unmodifiableList(commands); }
+    public long getEndTick() { return endTick; }
+    public int getFinalWave() { return finalWave; }
+    public int getFinalScore() { return finalScore; }
+}
@@ -0,0 +1,120 @@
+package mygame.sim.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import mygame.map.Path;
+import mygame.sim.GameSimulation;
+
+/**
+ * Reproduce una {@link Replay} sobre una simulación nueva con la misma
+ * semilla. No depende del reloj: cada llamada a {@link #runTicks(int)}
+ * avanza tantos ticks como se le pidan, así que la partida corre tan rápido
+ * como permita la máquina.
+ * <p>
+ * Sin ventana se puede lanzar directamente para perfilar una partida:
+ * <pre>java -cp ... mygame.sim.replay.ReplayPlayer partida.rpl [repeticiones]</pre>
+ */
+public class ReplayPlayer {
+
+    /**
+     * Ejecuta una acción grabada. Sin ventana basta con aplicarla a la
+     * simulación; la vista la pasa por el mismo camino que la entrada real.
+     */
+    public interface CommandExecutor {
+        void execute(PlayerCommand command);
+    }
+
+    private final Replay replay;
+    private final GameSimulation simulation;
+    private final CommandExecutor executor;
+    private final List<PlayerCommand> commands;
+    private int nextCommand = 0;
+
+    /**
+     * Reproducción sin ventana: las acciones se aplican a la simulación
+     */
+    public ReplayPlayer(Replay replay, GameSimulation simulation) {
+        this(replay, simulation, null);
+    }
+
+    public ReplayPlayer(Replay replay, GameSimulation simulation, CommandExecutor executor) {
+        if (simulation.getSeed() != replay.getSeed()) {
+            throw new IllegalArgumentException("La simulación no usa la semilla de la repetición");
+        }
+        this.replay = replay;
+        this.simulation = simulation;
+        this.executor = executor != null ? executor : command -> command.apply(simulation);
+        this.commands = replay.getCommands();
+    }
+
+    /**
+     * Aplica las acciones pendientes y avanza hasta maxTicks ticks fijos
+     * @return Los ticks ejecutados (menos de maxTicks si la partida terminó)
+     */
+    public int runTicks(int maxTicks) {
+        int ticks = 0;
+        while (ticks < maxTicks && !isFinished()) {
+            // Las acciones del tick N se hicieron después de simular N ticks
+            while (nextCommand < commands.size() && commands.get(nextCommand).getTick() <= simulation.getTick()) {
+                executor.execute(commands.get(nextCommand++));
+            }
+            simulation.step(GameSimulation.TICK);
+            ticks++;
+        }
+        return ticks;
+    }
+
+    /**
+     * Ejecuta la repetición completa
+     */
+    public void runToEnd() {
+        while (!isFinished()) {
+            runTicks(Integer.MAX_VALUE);
+        }
+    }
+
+    public boolean isFinished() {
+        if (simulation.isGameOver()) {
+            return true;
+        }
+        // Sin tick final grabado se sigue hasta que acaben las acciones y la partida
+        return replay.getEndTick() > 0 && simulation.getTick() >= replay.getEndTick();
+    }
+
+    /**
+     * Comprueba que la reproducción terminó igual que la partida grabada
+     */
+    public boolean matchesRecording() {
+        return simulation.getTick() == replay.getEndTick()
+                && simulation.getCurrentWave() == replay.getFinalWave()
+                && simulation.getScore() == replay.getFinalScore();
+    }
+
+    public GameSimulation getSimulation() {
+        return simulation;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uso: ReplayPlayer <fichero.rpl> [repeticiones]");
+            return;
+        }
+        Replay replay = Replay.load(new File(args[0]));
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        System.out.println("Repetición con semilla " + replay.getSeed() + ", "
+                + replay.getCommands().size() + " acciones, " + replay.getEndTick() + " ticks");
+
+        for (int run = 1; run <= runs; run++) {
+            ReplayPlayer player = new ReplayPlayer(replay, new GameSimulation(new Path(), replay.getSeed()));
+            long start = System.nanoTime();
+            player.runToEnd();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            GameSimulation sim = player.getSimulation();
+            System.out.printf("Ejecución %d: %d ticks en %.3f s (%.0f ticks/s), oleada %d, puntuación %d%s\n",
+                    run, sim.getTick(), seconds, sim.getTick() / seconds, sim.getCurrentWave(), sim.getScore(),
+                    player.matchesRecording() ? "" : "  ¡NO COINCIDE CON LA GRABACIÓN!");
+        }
+    }
+}
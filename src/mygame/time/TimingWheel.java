@@ -0,0 +1,267 @@
+package mygame.time;
+
+import java.util.Arrays;
+import mygame.sim.EntityHandles;
+
+/**
+ * Planificador de temporizadores: una rueda jerárquica
+ * de {@link #LEVELS} niveles de {@link #SLOTS} casillas. El nivel 0 tiene
+ * una casilla por tick; cada nivel superior, una por vuelta completa del
+ * anterior. Programar y cancelar son O(1); en cada tick solo se recorre la
+ * casilla actual, y al completar una vuelta los temporizadores de la
+ * casilla siguiente del nivel superior bajan de nivel. Miles de
+ * temporizadores cuestan lo mismo por tick que unos pocos.
+ * <p>
+ * El render la avanza con el tiempo del frame ({@link #advance(float)}) y
+ * un temporizador salta en el primer tick que alcanza su plazo, redondeado
+ * hacia arriba a la duración del tick. La simulación la avanza un tick
+ * suyo cada vez ({@link #step()}) con plazos enteros en ticks
+ * ({@link #scheduleTicks}), así el momento en que salta no depende de
+ * sumar flotantes y la partida se repite igual. En los dos casos las
+ * acciones se ejecutan en el hilo que la avanza.
+ * <p>
+ * Los temporizadores se guardan en arrays, enlazados dentro de su casilla,
+ * y se identifican con asas de {@link EntityHandles}; programar no reserva
+ * memoria salvo para crecer.
+ */
+public class TimingWheel {
+
+    /**
+     * Lo que se ejecuta al vencer un temporizador
+     */
+    public interface Action {
+        /**
+         * @param data Valor entregado al programarlo
+         */
+        void run(int data);
+    }
+
+    public static final float TICK = 1f / 240f; // Tick de la rueda del render
+    public static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    public static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int NONE = -1;
+
+    private final EntityHandles handles = new EntityHandles(64);
+    private final int[] heads = new int[LEVELS * SLOTS]; // Primer temporizador de cada casilla
+
+    // Temporizadores, por posición de su asa
+    private long[] deadlines = new long[64];
+    private Action[] actions = new Action[64];
+    private int[] data = new int[64];
+    private int[] ids = new int[64];      // Asa completa, para ejecutar y liberar
+    private int[] next = new int[64];
+    private int[] prev = new int[64];
+    private int[] buckets = new int[64];  // Casilla en la que está enlazado
+
+    private final float tickLength;
+    private long currentTick = 0;
+    private float remainder = 0;
+
+    // Estadísticas
+    private int firedLastAdvance = 0;
+    private long totalFired = 0;
+
+    public TimingWheel() {
+        this(TICK);
+    }
+
+    /**
+     * @param tickLength Segundos por tick, para {@link #advance(float)} y
+     * {@link #schedule(float, Action, int)}
+     */
+    public TimingWheel(float tickLength) {
+        this.tickLength = tickLength;
+        Arrays.fill(heads, NONE);
+    }
+
+    /**
+     * Programa una acción
+     * @param delay Segundos hasta que se ejecute
+     * @param data Valor que recibirá la acción, p. ej. el asa de una entidad
+     * @return Asa del temporizador, para cancelarlo
+     */
+    public int schedule(float delay, Action action, int data) {
+        // Un plazo de cero o en el pasado vence en el siguiente tick
+        return scheduleTicks(Math.max(1, (long) Math.ceil((delay - remainder) / tickLength)), action, data);
+    }
+
+    /**
+     * Programa una acción a un número entero de ticks
+     * @param ticks Ticks hasta que se ejecute, al menos 1
+     * @return Asa del temporizador, para cancelarlo
+     */
+    public int scheduleTicks(long ticks, Action action, int data) {
+        if (ticks < 1) {
+            throw new IllegalArgumentException("Plazo inválido: " + ticks + " ticks");
+        }
+        int handle = handles.allocate();
+        int index = EntityHandles.indexOf(handle);
+        if (index >= deadlines.length) {
+            grow(Math.max(index + 1, deadlines.length * 2));
+        }
+        deadlines[index] = currentTick + ticks;
+        actions[index] = action;
+        this.data[index] = data;
+        ids[index] = handle;
+        link(index);
+        return handle;
+    }
+
+    /**
+     * Cancela un temporizador pendiente
+     * @return false si ya había vencido o se había cancelado
+     */
+    public boolean cancel(int handle) {
+        if (!handles.isValid(handle)) {
+            return false;
+        }
+        int index = EntityHandles.indexOf(handle);
+        unlink(index);
+        actions[index] = null;
+        handles.release(handle);
+        return true;
+    }
+
+    public boolean isPending(int handle) {
+        return handles.isValid(handle);
+    }
+
+    /**
+     * Ticks que faltan para que venza un temporizador pendiente
+     * @return 0 si ya venció o se canceló
+     */
+    public long getRemainingTicks(int handle) {
+        if (!handles.isValid(handle)) {
+            return 0;
+        }
+        return deadlines[EntityHandles.indexOf(handle)] - currentTick;
+    }
+
+    /**
+     * Avanza el reloj y ejecuta, en orden de vencimiento, los temporizadores
+     * de cada tick completo transcurrido
+     */
+    public void advance(float tpf) {
+        remainder += tpf;
+        int fired = 0;
+        while (remainder >= tickLength) {
+            remainder -= tickLength;
+            fired += tick();
+        }
+        firedLastAdvance = fired;
+        totalFired += fired;
+    }
+
+    /**
+     * Avanza exactamente un tick, para quien ya lleva su propio reloj en
+     * ticks como la simulación
+     * @return Temporizadores ejecutados
+     */
+    public int step() {
+        int fired = tick();
+        firedLastAdvance = fired;
+        totalFired += fired;
+        return fired;
+    }
+
+    // Un tick: baja de nivel lo que toca y ejecuta la casilla actual
+    private int tick() {
+        currentTick++;
+        if ((currentTick & SLOT_MASK) == 0) {
+            // Al dar la vuelta un nivel, se reparte la casilla siguiente de los de encima,
+            // empezando por el más alto para que lo que baja llegue a su sitio
+            int top = 1;
+            while (top < LEVELS - 1 && ((currentTick >>> (SLOT_BITS * top)) & SLOT_MASK) == 0) {
+                top++;
+            }
+            for (int level = top; level >= 1; level--) {
+                cascade(level * SLOTS + (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+            }
+        }
+
+        // Todo lo que hay en la casilla del nivel 0 vence ahora. Se saca de
+        // uno en uno, así una acción puede cancelar otro temporizador de la
+        // misma casilla; lo que programe cae siempre en otra casilla.
+        int bucket = (int) (currentTick & SLOT_MASK);
+        int fired = 0;
+        while (heads[bucket] != NONE) {
+            int index = heads[bucket];
+            unlink(index);
+            Action action = actions[index];
+            int value = data[index];
+            actions[index] = null;
+            handles.release(ids[index]);
+            action.run(value);
+            fired++;
+        }
+        return fired;
+    }
+
+    // Vuelve a colocar los temporizadores de una casilla según lo que les
+    // falta. La lista se suelta antes: uno muy lejano puede volver a ella.
+    private void cascade(int bucket) {
+        int index = heads[bucket];
+        heads[bucket] = NONE;
+        while (index != NONE) {
+            int following = next[index];
+            link(index);
+            index = following;
+        }
+    }
+
+    // Enlaza el temporizador en la casilla que le corresponde por su plazo
+    private void link(int index) {
+        long deadline = deadlines[index];
+        long delta = deadline - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int bucket = level * SLOTS + (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+        buckets[index] = bucket;
+        prev[index] = NONE;
+        next[index] = heads[bucket];
+        if (heads[bucket] != NONE) {
+            prev[heads[bucket]] = index;
+        }
+        heads[bucket] = index;
+    }
+
+    private void unlink(int index) {
+        if (prev[index] != NONE) {
+            next[prev[index]] = next[index];
+        } else {
+            heads[buckets[index]] = next[index];
+        }
+        if (next[index] != NONE) {
+            prev[next[index]] = prev[index];
+        }
+    }
+
+    private void grow(int capacity) {
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        actions = Arrays.copyOf(actions, capacity);
+        data = Arrays.copyOf(data, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        buckets = Arrays.copyOf(buckets, capacity);
+    }
+
+    /**
+     * Cancela todos los temporizadores pendientes
+     */
+    public void clear() {
+        Arrays.fill(heads, NONE);
+        Arrays.fill(actions, null);
+        handles.clear();
+    }
+
+    // Estadísticas
+    public int getPendingCount() { return handles.getCount(); }
+    public int getFiredLastAdvance() { return firedLastAdvance; }
+    public long getTotalFired() { return totalFired; }
+    public long getCurrentTick() { return currentTick; }
+}
@@ -0,0 +1,119 @@
+package mygame.towers;
+
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.shape.Sphere;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import mygame.render.MaterialRegistry;
+
+/**
+ * Pool de proyectiles visuales compartido por todas las torres. Cada tipo de
+ * torre tiene una única malla y un único material; las geometrías se crean
+ * por adelantado y se reciclan al impactar o expirar en lugar de dejarlas al
+ * recolector de basura.
+ */
+public class ProjectilePool {
+
+    private static final int PREALLOCATED_PER_TYPE = 16;
+
+    private final Map<TowerType, Mesh> meshes = new EnumMap<>(TowerType.class);
+    private final Map<TowerType, Material> materials = new EnumMap<>(TowerType.class);
+    private final Map<TowerType, ArrayDeque<Geometry>> available = new EnumMap<>(TowerType.class);
+    private final int[] inUse = new int[TowerType.values().length];
+    private final int[] created = new int[TowerType.values().length];
+
+    // Contadores de uso del pool
+    private long hits = 0;
+    private long misses = 0;
+
+    public ProjectilePool(MaterialRegistry materialRegistry) {
+        for (TowerType type : TowerType.values()) {
+            meshes.put(type, createMesh(type));
+            materials.put(type, materialRegistry.getColor(getColor(type)));
+
+            ArrayDeque<Geometry> free = new ArrayDeque<>();
+            for (int i = 0; i < PREALLOCATED_PER_TYPE; i++) {
+                free.push(createGeometry(type));
+            }
+            available.put(type, free);
+        }
+    }
+
+    // Forma del proyectil según el tipo de torre
+    private static Mesh createMesh(TowerType type) {
+        switch (type) {
+            case SNIPER:
+                return new Sphere(4, 4, 0.3f); // Bala de francotirador
+            case RAPID:
+                return new Sphere(3, 3, 0.15f); // Proyectil pequeño (fuego rápido)
+            default:
+                return new Sphere(3, 3, 0.25f); // Proyectil estándar
+        }
+    }
+
+    private static ColorRGBA getColor(TowerType type) {
+        switch (type) {
+            case SNIPER:
+                return new ColorRGBA(1f, 0.2f, 0.1f, 1f); // Rojo
+            case RAPID:
+                return new ColorRGBA(0.8f, 1f, 0.2f, 1f); // Amarillo-verde
+            default:
+                return new ColorRGBA(1f, 0.8f, 0.0f, 1f); // Amarillo-naranja
+        }
+    }
+
+    private Geometry createGeometry(TowerType type) {
+        Geometry geom = new Geometry("Bullet", meshes.get(type));
+        geom.setMaterial(materials.get(type));
+        created[type.ordinal()]++;
+        return geom;
+    }
+
+    /**
+     * Entrega un proyectil libre del tipo indicado, creando uno nuevo solo si
+     * el pool está vacío (cuenta como fallo)
+     */
+    public Geometry acquire(TowerType type) {
+        Geometry geom = available.get(type).poll();
+        if (geom != null) {
+            hits++;
+        } else {
+            misses++;
+            geom = createGeometry(type);
+        }
+        inUse[type.ordinal()]++;
+        return geom;
+    }
+
+    /**
+     * Devuelve un proyectil al pool; el llamador ya lo ha quitado de la escena
+     */
+    public void release(TowerType type, Geometry geom) {
+        inUse[type.ordinal()]--;
+        available.get(type).push(geom);
+    }
+
+    // Estadísticas del pool
+    public int getInUse(TowerType type) { return inUse[type.ordinal()]; }
+    public int getAvailable(TowerType type) { return available.get(type).size(); }
+    public int getCreated(TowerType type) { return created[type.ordinal()]; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+
+    /**
+     * Fracción de geometrías creadas que están en vuelo ahora mismo
+     */
+    public float getOccupancy() {
+        int totalInUse = 0;
+        int totalCreated = 0;
+        for (TowerType type : TowerType.values()) {
+            totalInUse += inUse[type.ordinal()];
+            totalCreated += created[type.ordinal()];
+        }
+        return totalCreated == 0 ? 0 : totalInUse / (float) totalCreated;
+    }
+}
@@ -0,0 +1,232 @@
+package mygame.towers;
+
+import com.jme3.asset.AssetKey;
+import com.jme3.asset.AssetManager;
+import com.jme3.audio.AudioData.DataType;
+import com.jme3.audio.AudioNode;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Node;
+import java.util.Arrays;
+import mygame.render.MaterialRegistry;
+import mygame.render.SceneCommandBuffer;
+import mygame.sim.EntityHandles;
+import mygame.time.TimingWheel;
+
+/**
+ * Sistema único de proyectiles visuales, propiedad del bucle de juego.
+ * El punto de impacto y el tiempo de vuelo llegan ya resueltos con el
+ * disparo de la simulación, que aplica el daño en ese tick; aquí cada
+ * proyectil solo interpola en línea recta entre el cañón y ese punto y se
+ * retira al llegar, con un temporizador de la {@link TimingWheel} del
+ * render.
+ * <p>
+ * Los proyectiles en vuelo se guardan en arrays planos y al terminar se
+ * borran intercambiándolos con el último, sin listas temporales. Es el
+ * único sitio que añade o quita proyectiles de la escena, así que su coste
+ * no depende de cuántas torres haya. Las altas y bajas se encolan en el
+ * {@link SceneCommandBuffer} y se aplican al final del frame.
+ * <p>
+ * Cada proyectil tiene un asa de {@link EntityHandles}; su temporizador de
+ * impacto la recibe, así un impacto de un proyectil ya retirado se
+ * reconoce y se ignora.
+ */
+public class ProjectileSystem {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Node rootNode;
+    private final SceneCommandBuffer scene;
+    private final ProjectilePool pool;
+    private final TimingWheel timers;
+    private final TimingWheel.Action impactAction = this::onImpact;
+    private boolean impactThisFrame = false;
+    private AudioNode impactSound; // Sonido de impacto compartido
+
+    // Estado de los proyectiles en vuelo, indexado de 0 a count-1
+    private float[] startX = new float[INITIAL_CAPACITY];
+    private float[] startY = new float[INITIAL_CAPACITY];
+    private float[] startZ = new float[INITIAL_CAPACITY];
+    private float[] endX = new float[INITIAL_CAPACITY];
+    private float[] endY = new float[INITIAL_CAPACITY];
+    private float[] endZ = new float[INITIAL_CAPACITY];
+    private float[] launchTimes = new float[INITIAL_CAPACITY];
+    private float[] inverseFlightTimes = new float[INITIAL_CAPACITY];
+    private int[] handles = new int[INITIAL_CAPACITY]; // Asa de cada proyectil
+    private int[] impactTimers = new int[INITIAL_CAPACITY]; // Asa de su temporizador de impacto
+    private TowerType[] types = new TowerType[INITIAL_CAPACITY];
+    private Geometry[] geometries = new Geometry[INITIAL_CAPACITY];
+    private int count = 0;
+
+    // Asas de los proyectiles y posición de cada una en los arrays
+    private final EntityHandles projectileHandles = new EntityHandles(INITIAL_CAPACITY);
+    private int[] slots = new int[INITIAL_CAPACITY];
+
+    // Reloj de los proyectiles; vuelve a 0 cuando no queda ninguno en vuelo
+    private float time = 0;
+
+    public ProjectileSystem(AssetManager assetManager, MaterialRegistry materials,
+                            Node rootNode, SceneCommandBuffer scene, TimingWheel timers) {
+        this.rootNode = rootNode;
+        this.scene = scene;
+        this.timers = timers;
+        this.pool = new ProjectilePool(materials);
+        setupImpactSound(assetManager);
+    }
+
+    private void setupImpactSound(AssetManager assetManager) {
+        String impactSoundPath = "Sounds/Ambiente/impacto.wav";
+        try {
+            // Verificar que el archivo existe
+            if (assetManager.locateAsset(new AssetKey<>(impactSoundPath)) == null) {
+                System.err.println("¡ADVERTENCIA! No se encuentra el archivo de sonido: " + impactSoundPath);
+            }
+
+            try {
+                impactSound = new AudioNode(assetManager, impactSoundPath, DataType.Buffer);
+            } catch (Exception e) {
+                System.err.println("Error cargando como Buffer, intentando como Stream...");
+                impactSound = new AudioNode(assetManager, impactSoundPath, DataType.Stream);
+            }
+            impactSound.setPositional(false);
+            impactSound.setLooping(false);
+            impactSound.setVolume(0.3f);
+            impactSound.setReverbEnabled(false);
+        } catch (Exception e) {
+            System.err.println("Error cargando el sonido de impacto: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lanza un proyectil desde una posición hacia el punto de impacto que
+     * calculó la simulación
+     * @param flightTime Segundos hasta el impacto
+     * @return El asa del proyectil
+     */
+    public int spawn(TowerType type, Vector3f start, Vector3f impactPoint, float flightTime) {
+        if (count == startX.length) {
+            grow();
+        }
+
+        Geometry geom = pool.acquire(type);
+        geom.setLocalTranslation(start);
+        scene.attach(rootNode, geom);
+
+        startX[count] = start.x;
+        startY[count] = start.y;
+        startZ[count] = start.z;
+        endX[count] = impactPoint.x;
+        endY[count] = impactPoint.y;
+        endZ[count] = impactPoint.z;
+        launchTimes[count] = time;
+        inverseFlightTimes[count] = flightTime > 0 ? 1f / flightTime : Float.POSITIVE_INFINITY;
+        types[count] = type;
+        geometries[count] = geom;
+
+        int handle = projectileHandles.allocate();
+        int index = EntityHandles.indexOf(handle);
+        if (index >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(index + 1, slots.length * 2));
+        }
+        slots[index] = count;
+        handles[count] = handle;
+        impactTimers[count] = timers.schedule(flightTime, impactAction, handle);
+        count++;
+        return handle;
+    }
+
+    /**
+     * Si el proyectil sigue en vuelo
+     */
+    public boolean isActive(int projectileHandle) {
+        return projectileHandles.isValid(projectileHandle);
+    }
+
+    // Temporizador de impacto: retira el proyectil que llega a su punto
+    private void onImpact(int handle) {
+        if (projectileHandles.isValid(handle)) {
+            remove(slots[EntityHandles.indexOf(handle)]);
+            impactThisFrame = true;
+        }
+    }
+
+    /**
+     * Coloca los proyectiles en su trayectoria; los que ya han llegado los
+     * retiró antes su temporizador, al avanzar la rueda
+     */
+    public void update(float tpf) {
+        time += tpf;
+
+        for (int i = 0; i < count; i++) {
+            float t = Math.min(1f, (time - launchTimes[i]) * inverseFlightTimes[i]);
+            geometries[i].setLocalTranslation(startX[i] + (endX[i] - startX[i]) * t,
+                    startY[i] + (endY[i] - startY[i]) * t,
+                    startZ[i] + (endZ[i] - startZ[i]) * t);
+        }
+        if (count == 0) {
+            time = 0;
+        }
+
+        // Un único sonido de impacto por frame aunque impacten varios
+        boolean impact = impactThisFrame;
+        impactThisFrame = false;
+        if (impact && impactSound != null) {
+            impactSound.stop();
+            impactSound.playInstance();
+        }
+    }
+
+    // Borra el proyectil i moviendo el último a su hueco
+    private void remove(int i) {
+        scene.detach(geometries[i]);
+        pool.release(types[i], geometries[i]);
+        projectileHandles.release(handles[i]);
+
+        int last = --count;
+        startX[i] = startX[last];
+        startY[i] = startY[last];
+        startZ[i] = startZ[last];
+        endX[i] = endX[last];
+        endY[i] = endY[last];
+        endZ[i] = endZ[last];
+        launchTimes[i] = launchTimes[last];
+        inverseFlightTimes[i] = inverseFlightTimes[last];
+        handles[i] = handles[last];
+        impactTimers[i] = impactTimers[last];
+        slots[EntityHandles.indexOf(handles[i])] = i;
+        types[i] = types[last];
+        geometries[i] = geometries[last];
+        types[last] = null;
+        geometries[last] = null;
+    }
+
+    private void grow() {
+        int capacity = startX.length * 2;
+        startX = Arrays.copyOf(startX, capacity);
+        startY = Arrays.copyOf(startY, capacity);
+        startZ = Arrays.copyOf(startZ, capacity);
+        endX = Arrays.copyOf(endX, capacity);
+        endY = Arrays.copyOf(endY, capacity);
+        endZ = Arrays.copyOf(endZ, capacity);
+        launchTimes = Arrays.copyOf(launchTimes, capacity);
+        inverseFlightTimes = Arrays.copyOf(inverseFlightTimes, capacity);
+        handles = Arrays.copyOf(handles, capacity);
+        impactTimers = Arrays.copyOf(impactTimers, capacity);
+        types = Arrays.copyOf(types, capacity);
+        geometries = Arrays.copyOf(geometries, capacity);
+    }
+
+    /**
+     * Retira todos los proyectiles en vuelo
+     */
+    public void clear() {
+        while (count > 0) {
+            timers.cancel(impactTimers[count - 1]);
+            remove(count - 1);
+        }
+        time = 0;
+    }
+
+    public int getActiveCount() { return count; }
+    public ProjectilePool getPool() { return pool; }
+}
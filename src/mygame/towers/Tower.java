@@ -15,28 +15,37 @@ import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import com.jme3.scene.shape.Box;
 import com.jme3.scene.shape.Cylinder;
-import com.jme3.scene.shape.Sphere;
 import com.jme3.audio.AudioNode;
 import com.jme3.audio.AudioData.DataType;
-import java.util.ArrayList;
-import java.util.List;
 import mygame.Main;
 import mygame.enemies.Enemy;
-import com.jme3.texture.Texture;
+import mygame.map.CoverageTable;
+import mygame.render.MaterialRegistry;
+import mygame.sim.SimTower;
+import mygame.sim.SimulationSnapshot;
+import mygame.sim.TargetingPolicy;
 
 public class Tower extends Node {
     
-    // Propiedades de torre que ahora son dinámicas según el tipo
+    // Casilla de la torre simulada que refleja esta vista
+    private final int gridX;
+    private final int gridZ;
+    private TowerType towerType;
+    
+    // Estadísticas copiadas de la última copia de la simulación (ver sync)
+    private int level = 0;
+    private int damage;
     private float range;
     private float fireRate;
-    private int damage;
-    private TowerType towerType;
+    private TargetingPolicy targetingPolicy = TargetingPolicy.NEAREST;
+    private boolean upgradable;
+    private int upgradeCost;
+    private int totalInvestment;
+    private float coveredLength;
+    private int visualLevel = 0; // Nivel que muestra ya el modelo
     
-    private float fireTimer = 0;
     private AssetManager assetManager;
-    private Node projectilesNode;
-    private List<ProjectileInfo> activeProjectiles = new ArrayList<>();
-    private float projectileLifetime = 0.8f;
+    private final MaterialRegistry materials; // Materiales compartidos entre torres
     private Main app;
     
     // Modelo 3D
@@ -46,38 +55,24 @@ public class Tower extends Node {
     
     // Sonidos
     private AudioNode shootSound;
-    private AudioNode impactSound;
-    private static AudioNode currentImpactSound; // Sonido de impacto compartido entre todas las torres
-    
-    // Clase interna para manejar información de proyectiles
-    private class ProjectileInfo {
-        Geometry geometry;
-        Vector3f targetPosition;
-        float lifetime;
-        Enemy target;
-        
-        public ProjectileInfo(Geometry geom, Vector3f target, float life, Enemy enemy) {
-            this.geometry = geom;
-            this.targetPosition = target;
-            this.lifetime = life;
-            this.target = enemy;
-        }
-    }
     
-    private int level = 0; // Nivel 0 = sin mejoras
-    private static final int MAX_LEVEL = 2; // Máximo nivel de mejora
+    private static final int MAX_LEVEL = SimTower.MAX_LEVEL; // Máximo nivel de mejora
     
     // Constructor modificado
-    public Tower(AssetManager assetManager, Vector3f position, TowerType type) {
+    public Tower(AssetManager assetManager, MaterialRegistry materials, TowerType type, int gridX, int gridZ) {
         this.assetManager = assetManager;
+        this.materials = materials;
+        this.gridX = gridX;
+        this.gridZ = gridZ;
         this.towerType = type;
+        this.damage = type.getDamage();
+        this.range = type.getRange();
+        this.fireRate = type.getFireRate();
+        Vector3f position = new Vector3f(gridX, CoverageTable.TOWER_HEIGHT, gridZ);
         
         // Configurar sonidos
         setupSounds();
         
-        // Configurar propiedades según el tipo
-        updateStats(); // Nuevo método para actualizar estadísticas basado en el nivel
-        
         // Crear modelo de torre según tipo
         if (useModel) {
             createTower3DModel(type);
@@ -85,46 +80,23 @@ public class Tower extends Node {
             createBasicTowerModel(type);
         }
         
-        // Nodo para proyectiles
-        projectilesNode = new Node("ProjectilesNode");
-        this.attachChild(projectilesNode);
-        
         // Posicionar la torre
         this.setLocalTranslation(position);
         
         System.out.println("Torre " + type.getName() + " creada en " + position);
     }
       
-    // Método para actualizar estadísticas basadas en el nivel
-    private void updateStats() {
-        if (level == 0) {
-            // Nivel base
-            this.range = towerType.getRange();
-            this.fireRate = towerType.getFireRate();
-            this.damage = towerType.getDamage();
-        } else {
-            // Nivel mejorado
-            this.damage = towerType.getUpgradedDamage(level);
-            this.fireRate = towerType.getUpgradedFireRate(level);
-            this.range = towerType.getUpgradedRange(level);
-        }
-    }
-    
     private void createBasicTowerModel(TowerType type) {
         // Crear base según el tipo de torre
         Box base = new Box(0.4f, 0.4f, 0.4f);
         Geometry baseGeom = new Geometry("TowerBase", base);
-        Material baseMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        baseMat.setColor("Color", type.getBaseColor());
-        baseGeom.setMaterial(baseMat);
+        baseGeom.setMaterial(materials.getColor(type.getBaseColor()));
         this.attachChild(baseGeom);
         
         // Crear parte superior según el tipo de torre
         Box top = new Box(0.2f, 0.2f, 0.2f);
         Geometry topGeom = new Geometry("TowerTop", top);
-        Material topMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        topMat.setColor("Color", type.getTopColor());
-        topGeom.setMaterial(topMat);
+        topGeom.setMaterial(materials.getColor(type.getTopColor()));
         
         // Configurar el nodo superior para rotación
         topNode = new Node("TowerTop");
@@ -137,9 +109,7 @@ public class Tower extends Node {
                 baseGeom.setLocalScale(0.9f, 1.2f, 0.9f);
                 Box barrel = new Box(0.05f, 0.05f, 0.4f);
                 Geometry barrelGeom = new Geometry("Barrel", barrel);
-                Material barrelMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                barrelMat.setColor("Color", ColorRGBA.DarkGray);
-                barrelGeom.setMaterial(barrelMat);
+                barrelGeom.setMaterial(materials.getColor(ColorRGBA.DarkGray));
                 barrelGeom.setLocalTranslation(0, 0, 0.4f);
                 topNode.attachChild(barrelGeom);
                 topNode.setLocalTranslation(0, 0.9f, 0);
@@ -151,8 +121,7 @@ public class Tower extends Node {
                 Box barrel2 = new Box(0.08f, 0.08f, 0.2f);
                 Geometry barrel1Geom = new Geometry("Barrel1", barrel1);
                 Geometry barrel2Geom = new Geometry("Barrel2", barrel2);
-                Material barrelsMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                barrelsMat.setColor("Color", ColorRGBA.Yellow);
+                Material barrelsMat = materials.getColor(ColorRGBA.Yellow);
                 barrel1Geom.setMaterial(barrelsMat);
                 barrel2Geom.setMaterial(barrelsMat);
                 barrel1Geom.setLocalTranslation(0.1f, 0, 0.2f);
@@ -214,21 +183,9 @@ public class Tower extends Node {
             // Aplicar textura específica según el tipo de torre
             if (type == TowerType.BASIC) {
                 try {
-                    // Crear el material para la torre básica
-                    Material towerMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                    
-                    // Cargar la textura específica
-                    Texture towerTexture = assetManager.loadTexture("Textures/texture_basic_tower/basictower2.jpg");
-                    
-                    // Configurar parámetros de la textura para mejor calidad
-                    towerTexture.setAnisotropicFilter(8);
-                    towerTexture.setMagFilter(Texture.MagFilter.Bilinear);
-                    
-                    // Aplicar la textura al material
-                    towerMaterial.setTexture("ColorMap", towerTexture);
-                    
                     // Optimizar el tinte para resaltar detalles de la textura
-                    towerMaterial.setColor("Color", new ColorRGBA(0.9f, 0.9f, 0.9f, 1.0f));
+                    Material towerMaterial = materials.getTexture("Textures/texture_basic_tower/basictower2.jpg",
+                            new ColorRGBA(0.9f, 0.9f, 0.9f, 1.0f));
                     
                     // Aplicar el material al modelo completo
                     applyMaterialToSpatial(towerModel, towerMaterial);
@@ -240,21 +197,9 @@ public class Tower extends Node {
                 }
             } else if (type == TowerType.RAPID) {
                 try {
-                    // Crear el material para la torre rápida
-                    Material rapidTowerMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                    
-                    // Cargar la textura específica para la torre rápida
-                    Texture rapidTowerTexture = assetManager.loadTexture("Textures/texture_rapid_tower/rapidtower1.jpg");
-                    
-                    // Configurar parámetros de la textura para mejor calidad
-                    rapidTowerTexture.setAnisotropicFilter(8);
-                    rapidTowerTexture.setMagFilter(Texture.MagFilter.Bilinear);
-                    
-                    // Aplicar la textura al material
-                    rapidTowerMaterial.setTexture("ColorMap", rapidTowerTexture);
-                    
                     // Añadir un tinte ligeramente verde para enfatizar que es la torre rápida
-                    rapidTowerMaterial.setColor("Color", new ColorRGBA(0.8f, 1.0f, 0.8f, 1.0f));
+                    Material rapidTowerMaterial = materials.getTexture("Textures/texture_rapid_tower/rapidtower1.jpg",
+                            new ColorRGBA(0.8f, 1.0f, 0.8f, 1.0f));
                     
                     // Aplicar el material al modelo completo
                     applyMaterialToSpatial(towerModel, rapidTowerMaterial);
@@ -266,21 +211,9 @@ public class Tower extends Node {
                 }
             } else if (type == TowerType.SNIPER) {
                 try {
-                    // Crear el material para la torre francotirador
-                    Material sniperTowerMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                    
-                    // Cargar la textura específica para la torre francotirador
-                    Texture sniperTowerTexture = assetManager.loadTexture("Textures/texture_sniper_tower/franco1.jpg");
-                    
-                    // Configurar parámetros de la textura para mejor calidad
-                    sniperTowerTexture.setAnisotropicFilter(8);
-                    sniperTowerTexture.setMagFilter(Texture.MagFilter.Bilinear);
-                    
-                    // Aplicar la textura al material
-                    sniperTowerMaterial.setTexture("ColorMap", sniperTowerTexture);
-                    
                     // Añadir un tinte ligeramente rojizo para enfatizar que es la torre francotirador
-                    sniperTowerMaterial.setColor("Color", new ColorRGBA(1.0f, 0.8f, 0.8f, 1.0f));
+                    Material sniperTowerMaterial = materials.getTexture("Textures/texture_sniper_tower/franco1.jpg",
+                            new ColorRGBA(1.0f, 0.8f, 0.8f, 1.0f));
                     
                     // Aplicar el material al modelo completo
                     applyMaterialToSpatial(towerModel, sniperTowerMaterial);
@@ -363,184 +296,48 @@ public class Tower extends Node {
         this.app = app;
     }
     
-    public void update(float tpf, List<Enemy> enemies, Node rootNode) {
-        // Actualizar temporizador de disparo
-        fireTimer += tpf;
-        
-        // Actualizar proyectiles existentes
-        updateProjectiles(tpf, rootNode);
-        
-        // Solo disparar cuando el temporizador alcance el tiempo adecuado según la cadencia
-        if (fireTimer >= 1.0f / fireRate) {
-            // Buscar el enemigo más cercano dentro del rango
-            Enemy target = findNearestEnemyInRange(enemies);
-            
-            if (target != null) {
-                // Rotar hacia el enemigo
-                Vector3f direction = target.getPosition().subtract(this.getWorldTranslation());
-                direction.y = 0; // Mantener rotación horizontal
-                
-                // Si la dirección es válida, orientar el nodo superior hacia el enemigo
-                if (direction.length() > 0.1f && topNode != null) {
-                    topNode.lookAt(this.getWorldTranslation().add(direction), Vector3f.UNIT_Y);
-                }
-                
-                // Disparar al enemigo
-                shootAt(target);
-                
-                // Crear proyectil visual
-                createProjectile(target, rootNode);
-                
-                // Reiniciar temporizador
-                fireTimer = 0;
-            }
-        }
-    }
-    
-    private void updateProjectiles(float tpf, Node rootNode) {
-        // Lista para almacenar proyectiles que deben ser eliminados
-        List<ProjectileInfo> projectilesToRemove = new ArrayList<>();
-        
-        // Iterar a través de los proyectiles activos y actualizarlos
-        for (ProjectileInfo projectileInfo : activeProjectiles) {
-            projectileInfo.lifetime -= tpf;
-            
-            if (projectileInfo.lifetime <= 0 || !projectileInfo.target.isAlive()) {
-                // Eliminar el proyectil al finalizar su vida útil o si el enemigo murió
-                projectilesToRemove.add(projectileInfo);
-            } else {
-                // Actualizar posición objetivo para seguir al enemigo en movimiento
-                projectileInfo.targetPosition = projectileInfo.target.getPosition();
-                
-                // Mover el proyectil hacia el objetivo
-                Geometry projectile = projectileInfo.geometry;
-                Vector3f currentPos = projectile.getWorldTranslation();
-                Vector3f direction = projectileInfo.targetPosition.subtract(currentPos).normalizeLocal();
-                
-                // Velocidad del proyectil
-                float speed = 15.0f;
-                Vector3f movement = direction.mult(speed * tpf);
-                projectile.move(movement);
-                
-                // Comprobar si el proyectil ha alcanzado al enemigo
-                float distanceToTarget = currentPos.distance(projectileInfo.targetPosition);
-                if (distanceToTarget < 0.3f) {
-                    // El proyectil impactó al enemigo
-                    projectilesToRemove.add(projectileInfo);
-                    
-                    // Reproducir sonido de impacto
-                    if (currentImpactSound != null) {
-                        // Detener cualquier reproducción anterior
-                        currentImpactSound.stop();
-                        // Reproducir el sonido de impacto
-                        currentImpactSound.playInstance();
-                    }
-                }
-            }
-        }
-        
-        // Eliminar proyectiles que han expirado o impactado
-        for (ProjectileInfo projectileInfo : projectilesToRemove) {
-            rootNode.detachChild(projectileInfo.geometry);
-        }
-        activeProjectiles.removeAll(projectilesToRemove);
-    }
-    
-    private Enemy findNearestEnemyInRange(List<Enemy> enemies) {
-        if (enemies.isEmpty()) {
-            return null;
+    /**
+     * Refleja un disparo decidido por la simulación: orienta la torreta,
+     * reproduce el sonido y lanza el proyectil visual
+     * @param impactPoint Donde lo alcanzará el proyectil
+     * @param flightTime Segundos hasta el impacto
+     */
+    public void fireAt(Enemy target, Vector3f impactPoint, float flightTime, ProjectileSystem projectileSystem) {
+        // Rotar hacia el punto de impacto
+        Vector3f direction = impactPoint.subtract(this.getWorldTranslation());
+        direction.y = 0; // Mantener rotación horizontal
+        
+        // Si la dirección es válida, orientar el nodo superior hacia el enemigo
+        if (direction.length() > 0.1f && topNode != null) {
+            topNode.lookAt(this.getWorldTranslation().add(direction), Vector3f.UNIT_Y);
         }
         
-        Enemy nearest = null;
-        float minDistance = Float.MAX_VALUE;
+        // Disparar al enemigo
+        shootAt(target);
         
-        for (Enemy e : enemies) {
-            if (e.isAlive() && !e.hasFinishedPath()) {
-                float distance = e.getPosition().distance(this.getWorldTranslation());
-                
-                if (distance <= range && distance < minDistance) {
-                    nearest = e;
-                    minDistance = distance;
-                }
-            }
-        }
-        
-        return nearest;
+        // Lanzar el proyectil visual desde la parte superior de la torre
+        projectileSystem.spawn(towerType, topNode.getWorldTranslation(), impactPoint, flightTime);
     }
     
     private void shootAt(Enemy target) {
-        target.takeDamage(damage);
-        
         // Reproducir sonido de disparo
         if (shootSound != null) {
             shootSound.playInstance();
         }
         
-        System.out.println("¡" + towerType.getName() + " dispara! Daño: " + damage + " - Salud restante: " + target.getHealth());
-    }
-    
-    private void createProjectile(Enemy target, Node rootNode) {
-        // Crear una forma para el proyectil según el tipo de torre
-        Geometry bulletGeom;
-        
-        switch (towerType) {
-            case SNIPER:
-                // Proyectil más grande y rápido (bala de francotirador)
-                Sphere bullet = new Sphere(4, 4, 0.3f);
-                bulletGeom = new Geometry("Bullet", bullet);
-                Material bulletMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                bulletMat.setColor("Color", new ColorRGBA(1f, 0.2f, 0.1f, 1f)); // Rojo
-                bulletGeom.setMaterial(bulletMat);
-                break;
-                
-            case RAPID:
-                // Proyectil pequeño (fuego rápido)
-                Sphere fastBullet = new Sphere(3, 3, 0.15f);
-                bulletGeom = new Geometry("Bullet", fastBullet);
-                Material fastBulletMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                fastBulletMat.setColor("Color", new ColorRGBA(0.8f, 1f, 0.2f, 1f)); // Amarillo-verde
-                bulletGeom.setMaterial(fastBulletMat);
-                break;
-                
-            default: // BASIC
-                // Proyectil estándar
-                Sphere standardBullet = new Sphere(3, 3, 0.25f);
-                bulletGeom = new Geometry("Bullet", standardBullet);
-                Material standardBulletMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                standardBulletMat.setColor("Color", new ColorRGBA(1f, 0.8f, 0.0f, 1f)); // Amarillo-naranja
-                bulletGeom.setMaterial(standardBulletMat);
-                break;
-        }
-        
-        // Posicionar en la parte superior de la torre
-        Vector3f startPos = topNode.getWorldTranslation().clone();
-        bulletGeom.setLocalTranslation(startPos);
-        
-        // Añadir proyectil al rootNode
-        rootNode.attachChild(bulletGeom);
-        
-        // Crear y añadir información del proyectil
-        ProjectileInfo projectileInfo = new ProjectileInfo(
-            bulletGeom, 
-            target.getPosition().clone(),
-            projectileLifetime,
-            target
-        );
-        activeProjectiles.add(projectileInfo);
+        System.out.println("¡" + towerType.getName() + " dispara! Daño: " + getDamage() + " - Salud restante: " + target.getHealth());
     }
     
     /**
      * Crea un indicador visual para mostrar dónde se colocará la torre
      */
-    public static Geometry createIndicator(AssetManager assetManager, TowerType type) {
+    public static Geometry createIndicator(MaterialRegistry materials, TowerType type) {
         Box base = new Box(0.4f, 0.05f, 0.4f);
         Geometry indicator = new Geometry("TowerIndicator", base);
-        Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
         
         ColorRGBA color = type.getBaseColor().clone();
         color.a = 0.5f; // Semitransparente
-        mat.setColor("Color", color);
-        indicator.setMaterial(mat);
+        indicator.setMaterial(materials.getColor(color));
         
         return indicator;
     }
@@ -552,16 +349,14 @@ public class Tower extends Node {
         private Material validMaterial;
         private Material invalidMaterial;
         
-        public TowerIndicator(AssetManager assetManager, TowerType type) {
+        public TowerIndicator(MaterialRegistry materials, TowerType type) {
             super("TowerIndicator", new Box(0.4f, 0.4f, 0.4f));
             
-            validMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
             ColorRGBA validColor = type.getBaseColor().clone();
             validColor.a = 0.5f;
-            validMaterial.setColor("Color", validColor);
+            validMaterial = materials.getColor(validColor);
             
-            invalidMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            invalidMaterial.setColor("Color", new ColorRGBA(1f, 0.2f, 0.2f, 0.5f)); // Rojo
+            invalidMaterial = materials.getColor(new ColorRGBA(1f, 0.2f, 0.2f, 0.5f)); // Rojo
             
             this.setMaterial(validMaterial);
         }
@@ -571,74 +366,88 @@ public class Tower extends Node {
         }
     }
     
+    /**
+     * Copia nivel, criterio y estadísticas de la torre de esta casilla en
+     * la copia de la simulación. La vista nunca lee la torre simulada: con
+     * la simulación en su hilo podría estar cambiando a la vez.
+     */
+    public void sync(SimulationSnapshot snapshot) {
+        int i = snapshot.towerIndexAt(gridX, gridZ);
+        if (i < 0) {
+            return;
+        }
+        level = snapshot.getTowerLevel(i);
+        damage = snapshot.getTowerDamage(i);
+        range = snapshot.getTowerRange(i);
+        fireRate = snapshot.getTowerFireRate(i);
+        targetingPolicy = snapshot.getTowerTargetingPolicy(i);
+        upgradable = snapshot.canUpgradeTower(i);
+        upgradeCost = snapshot.getTowerUpgradeCost(i);
+        totalInvestment = snapshot.getTowerInvestment(i);
+        coveredLength = snapshot.getTowerCoveredLength(i);
+    }
+    
     // Getters para información sobre la torre
+    public int getGridX() { return gridX; }
+    public int getGridZ() { return gridZ; }
     public TowerType getTowerType() { return towerType; }
     public int getDamage() { return damage; }
     public float getRange() { return range; }
     public float getFireRate() { return fireRate; }
     public int getCost() { return towerType.getCost(); }
+    public TargetingPolicy getTargetingPolicy() { return targetingPolicy; }
+    public float getCoveredLength() { return coveredLength; }
     
     // Nuevos getters para el sistema de mejoras
     public int getLevel() { return level; }
     public int getUpgradeCost() { 
-        return towerType.getUpgradeCost(level + 1);
+        return upgradeCost;
     }
     public boolean canUpgrade() {
-        return level < MAX_LEVEL && level < towerType.getMaxUpgradeLevel();
+        return upgradable;
     }
     
     /**
-     * Calcula la inversión total en esta torre (costo base + mejoras)
+     * Inversión total en esta torre (costo base + mejoras)
      * @return El valor total invertido en la torre
      */
     public int getTotalInvestment() {
-        int baseCost = towerType.getCost();
-        int upgradeCost = 0;
-        
-        // Sumar los costos de mejora realizados
-        for (int i = 1; i <= level; i++) {
-            upgradeCost += towerType.getUpgradeCost(i);
-        }
-        
-        return baseCost + upgradeCost;
+        return totalInvestment;
     }
     
-    // Método para mejorar la torre
-    public boolean upgrade() {
-        if (level >= MAX_LEVEL || level >= towerType.getMaxUpgradeLevel()) {
-            System.out.println("Esta torre ya está al nivel máximo.");
-            return false;
+    /**
+     * Actualiza la torre tras una mejora aplicada en la simulación; llamar
+     * después de {@link #sync}
+     */
+    public void onUpgraded() {
+        // Actualizar visual de la torre nivel a nivel, por si llegan varias mejoras en una copia
+        while (visualLevel < level) {
+            updateTowerVisual(++visualLevel);
         }
         
-        level++;
-        updateStats();
-        
-        // Actualizar visual de la torre según el nivel
-        updateTowerVisual();
-        
-        System.out.println("Torre mejorada a nivel " + level + 
-                          ". Nuevo daño: " + damage + 
-                          ", Nueva cadencia: " + fireRate);
-        return true;
+        System.out.println("Torre mejorada a nivel " + getLevel() + 
+                          ". Nuevo daño: " + getDamage() + 
+                          ", Nueva cadencia: " + getFireRate());
     }
     
     // Método para actualizar el aspecto de la torre según el nivel
-    private void updateTowerVisual() {
+    private void updateTowerVisual(int level) {
+        
         // En el modelo básico, cambiamos el color según el nivel
         if (!useModel) {
-            Material baseMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            Material topMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
+            Material baseMat = null;
+            Material topMat = null;
             
             switch (level) {
                 case 1:
                     // Nivel 1: Colores más intensos
-                    baseMat.setColor("Color", towerType.getBaseColor().mult(1.2f));
-                    topMat.setColor("Color", towerType.getTopColor().mult(1.2f));
+                    baseMat = materials.getColor(towerType.getBaseColor().mult(1.2f));
+                    topMat = materials.getColor(towerType.getTopColor().mult(1.2f));
                     break;
                 case 2:
                     // Nivel 2: Colores brillantes y escala ligeramente mayor
-                    baseMat.setColor("Color", towerType.getBaseColor().mult(1.5f));
-                    topMat.setColor("Color", towerType.getTopColor().mult(1.5f));
+                    baseMat = materials.getColor(towerType.getBaseColor().mult(1.5f));
+                    topMat = materials.getColor(towerType.getTopColor().mult(1.5f));
                     
                     // Aumentar un poco la escala
                     this.setLocalScale(1.15f);
@@ -647,7 +456,7 @@ public class Tower extends Node {
             
             // Buscar las geometrías para aplicar nuevos materiales
             for (Spatial child : this.getChildren()) {
-                if (child instanceof Geometry) {
+                if (child instanceof Geometry && baseMat != null) {
                     Geometry geom = (Geometry) child;
                     if (geom.getName().equals("TowerBase")) {
                         geom.setMaterial(baseMat);
@@ -670,7 +479,7 @@ public class Tower extends Node {
                     // Nivel 2: Efecto de brillo o partículas
                     if (towerModel != null) {
                         // Añadir un efecto de brillo o color más intenso
-                        applyGlowEffect();
+                        applyGlowEffect(level);
                     }
                     break;
             }
@@ -678,22 +487,11 @@ public class Tower extends Node {
     }
     
     // Método para aplicar efecto de brillo a torres mejoradas al máximo
-    private void applyGlowEffect() {
+    private void applyGlowEffect(int level) {
         try {
             // Si es torre francotirador al nivel máximo, aplicar textura especial
             if (towerType == TowerType.SNIPER && level >= MAX_LEVEL) {
-                // Crear un nuevo material para la textura de la torre sniper máxima
-                Material maxSniperMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                
-                // Cargar la textura especial para la torre francotirador al máximo nivel
-                Texture maxSniperTexture = assetManager.loadTexture("Textures/texture_sniper_tower/maximo_sniper.jpg");
-                
-                // Configurar parámetros de la textura para mejor calidad
-                maxSniperTexture.setAnisotropicFilter(8);
-                maxSniperTexture.setMagFilter(Texture.MagFilter.Bilinear);
-                
-                // Aplicar la textura al material
-                maxSniperMaterial.setTexture("ColorMap", maxSniperTexture);
+                Material maxSniperMaterial = materials.getTexture("Textures/texture_sniper_tower/maximo_sniper.jpg", null);
                 
                 // Aplicar el material al modelo completo
                 if (towerModel instanceof Geometry) {
@@ -707,18 +505,7 @@ public class Tower extends Node {
             }
             // NUEVO: Si es torre básica al nivel máximo, aplicar textura especial
             else if (towerType == TowerType.BASIC && level >= MAX_LEVEL) {
-                // Crear un nuevo material para la textura de la torre básica máxima
-                Material maxBasicMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                
-                // Cargar la textura especial para la torre básica al máximo nivel
-                Texture maxBasicTexture = assetManager.loadTexture("Textures/texture_basic_tower/maximo_basic.jpg");
-                
-                // Configurar parámetros de la textura para mejor calidad
-                maxBasicTexture.setAnisotropicFilter(8);
-                maxBasicTexture.setMagFilter(Texture.MagFilter.Bilinear);
-                
-                // Aplicar la textura al material
-                maxBasicMaterial.setTexture("ColorMap", maxBasicTexture);
+                Material maxBasicMaterial = materials.getTexture("Textures/texture_basic_tower/maximo_basic.jpg", null);
                 
                 // Aplicar el material al modelo completo
                 if (towerModel instanceof Geometry) {
@@ -732,18 +519,7 @@ public class Tower extends Node {
             }
             // NUEVO: Si es torre rápida al nivel máximo, aplicar textura especial
             else if (towerType == TowerType.RAPID && level >= MAX_LEVEL) {
-                // Crear un nuevo material para la textura de la torre rápida máxima
-                Material maxRapidMaterial = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-                
-                // Cargar la textura especial para la torre rápida al máximo nivel
-                Texture maxRapidTexture = assetManager.loadTexture("Textures/texture_rapid_tower/max_rapid3.jpg");
-                
-                // Configurar parámetros de la textura para mejor calidad
-                maxRapidTexture.setAnisotropicFilter(8);
-                maxRapidTexture.setMagFilter(Texture.MagFilter.Bilinear);
-                
-                // Aplicar la textura al material
-                maxRapidMaterial.setTexture("ColorMap", maxRapidTexture);
+                Material maxRapidMaterial = materials.getTexture("Textures/texture_rapid_tower/max_rapid3.jpg", null);
                 
                 // Aplicar el material al modelo completo
                 if (towerModel instanceof Geometry) {
@@ -757,8 +533,6 @@ public class Tower extends Node {
             }
             
             // Para las otras torres, aplicar el efecto de brillo original
-            Material glowMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-            
             // Definir colores brillantes según el tipo de torre
             ColorRGBA glowColor;
             switch (towerType) {
@@ -773,8 +547,8 @@ public class Tower extends Node {
                     break;
             }
             
-            // Configurar el material con el color brillante
-            glowMat.setColor("Color", glowColor);
+            // Material compartido con el color brillante
+            Material glowMat = materials.getColor(glowColor);
             
             // Aplicar el material según el tipo de modelo
             if (towerModel instanceof Geometry) {
@@ -810,20 +584,17 @@ public class Tower extends Node {
     private Geometry highlightGeometry;
     
     // Método para añadir un destacado visual cuando se selecciona
-    public void addHighlight(AssetManager assetManager) {
+    public void addHighlight() {
         // Eliminar cualquier destacado existente
         removeHighlight();
         
         // Crear un anillo o círculo alrededor de la torre
         // Rotamos el cilindro para que quede horizontal (paralelo al suelo)
         com.jme3.scene.shape.Cylinder highlightCylinder = 
-            new com.jme3.scene.shape.Cylinder(32, 32, range, 0.05f, true);
+            new com.jme3.scene.shape.Cylinder(32, 32, getRange(), 0.05f, true);
         
         highlightGeometry = new Geometry("TowerHighlight", highlightCylinder);
         
-        // Material semitransparente para el destacado
-        Material highlightMat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        
         // Color según el tipo de torre con mayor transparencia (reducir valor alpha)
         ColorRGBA highlightColor;
         switch (towerType) {
@@ -838,13 +609,9 @@ public class Tower extends Node {
                 break;
         }
         
-        highlightMat.setColor("Color", highlightColor);
-        
-        // Configurar el renderState para una mejor transparencia
-        highlightMat.getAdditionalRenderState().setBlendMode(com.jme3.material.RenderState.BlendMode.Alpha);
-        highlightMat.getAdditionalRenderState().setDepthTest(true);
-        highlightMat.getAdditionalRenderState().setDepthWrite(false); // Importante para transparencia
-        
+        // Material semitransparente sin escritura de profundidad (importante para transparencia)
+        Material highlightMat = materials.get(MaterialRegistry.UNSHADED, null, highlightColor,
+                null, RenderState.BlendMode.Alpha, false);
         highlightGeometry.setMaterial(highlightMat);
         highlightGeometry.setQueueBucket(com.jme3.renderer.queue.RenderQueue.Bucket.Transparent);
         
@@ -909,30 +676,6 @@ public class Tower extends Node {
             shootSound.setReverbEnabled(false);
             this.attachChild(shootSound);
             
-            // Configurar sonido de impacto compartido si aún no existe
-            if (currentImpactSound == null) {
-                String impactSoundPath = "Sounds/Ambiente/impacto.wav";
-                System.out.println("Configurando sonido de impacto compartido: " + impactSoundPath);
-                
-                // Verificar que el archivo existe
-                if (assetManager.locateAsset(new com.jme3.asset.AssetKey(impactSoundPath)) == null) {
-                    System.err.println("¡ADVERTENCIA! No se encuentra el archivo de sonido: " + impactSoundPath);
-                }
-                
-                try {
-                    currentImpactSound = new AudioNode(assetManager, impactSoundPath, DataType.Buffer);
-                    System.out.println("Sonido de impacto cargado como Buffer");
-                } catch (Exception e) {
-                    System.out.println("Error cargando como Buffer, intentando como Stream...");
-                    currentImpactSound = new AudioNode(assetManager, impactSoundPath, DataType.Stream);
-                    System.out.println("Sonido de impacto cargado como Stream");
-                }
-                currentImpactSound.setPositional(false);
-                currentImpactSound.setLooping(false);
-                currentImpactSound.setVolume(0.3f);
-                currentImpactSound.setReverbEnabled(false);
-            }
-            
             System.out.println("Configuración de sonidos completada exitosamente");
             
         } catch (Exception e) {
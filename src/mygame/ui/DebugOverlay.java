@@ -0,0 +1,48 @@
+package mygame.ui;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.font.BitmapFont;
+import com.jme3.font.BitmapText;
+import com.jme3.math.ColorRGBA;
+import com.jme3.scene.Node;
+
+/**
+ * Panel de depuración con métricas de rendimiento (pools, contadores).
+ * Está oculto por defecto y se alterna con F3.
+ */
+public class DebugOverlay {
+
+    private final Node guiNode;
+    private final BitmapText text;
+    private boolean visible = false;
+
+    public DebugOverlay(Node guiNode, AssetManager assetManager, com.jme3.system.AppSettings settings) {
+        this.guiNode = guiNode;
+
+        BitmapFont guiFont = assetManager.loadFont("Interface/Fonts/Default.fnt");
+        text = new BitmapText(guiFont);
+        text.setSize(guiFont.getCharSet().getRenderedSize() * 0.8f);
+        text.setColor(new ColorRGBA(0.6f, 1f, 1f, 1f));
+        text.setLocalTranslation(settings.getWidth() / 2f - 120, settings.getHeight() - 10, 0);
+    }
+
+    public void toggle() {
+        visible = !visible;
+        if (visible) {
+            guiNode.attachChild(text);
+        } else {
+            text.removeFromParent();
+        }
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Sustituye el contenido del panel; solo se llama si está visible
+     */
+    public void setText(String content) {
+        text.setText(content);
+    }
+}
@@ -27,6 +27,7 @@ public class GameUI {
     private BitmapText scoreText;
     private BitmapText waveText;
     private BitmapText portalLifeText; // NUEVO: Vida del portal
+    private BitmapText seedText; // Semilla de la partida
     
     // Elementos para selección de torres
     private Node towerSelectionPanel;
@@ -63,6 +64,14 @@ public class GameUI {
         portalLifeText.setLocalTranslation(20, screenHeight - 120, 0); // Debajo de la oleada
         guiNode.attachChild(portalLifeText);
 
+        // Semilla de la partida, para poder repetirla con --seed
+        seedText = new BitmapText(guiFont);
+        seedText.setSize(guiFont.getCharSet().getRenderedSize());
+        seedText.setColor(new ColorRGBA(0.7f, 0.7f, 0.7f, 1f));
+        seedText.setText("");
+        seedText.setLocalTranslation(20, screenHeight - 150, 0); // Debajo de la vida del portal
+        guiNode.attachChild(seedText);
+
         // Texto para mostrar la puntuación
         scoreText = new BitmapText(guiFont, false);
         scoreText.setSize(guiFont.getCharSet().getRenderedSize() * 1.5f);
@@ -271,11 +280,13 @@ public class GameUI {
         TowerType type = tower.getTowerType();
         int level = tower.getLevel();
         // Mostrar información básica de la torre
-        towerInfoText.setText(String.format("%s (Nivel %d)\nDaño: %d\nVelocidad: %.2f\nAlcance: %.1f",
+        towerInfoText.setText(String.format("%s (Nivel %d)\nDaño: %d\nVelocidad: %.2f\nAlcance: %.1f (cubre %.1f de camino)\nObjetivo: %s (T para cambiar)",
                                            type.getName(), level,
                                            tower.getDamage(),
                                            tower.getFireRate(),
-                                           tower.getRange()));
+                                           tower.getRange(),
+                                           tower.getCoveredLength(),
+                                           tower.getTargetingPolicy().getName()));
         // Información de mejora y venta
         StringBuilder controlInfo = new StringBuilder();
         if (tower.canUpgrade()) {
@@ -300,6 +311,11 @@ public class GameUI {
         moneyText.setText("Oro: " + money);
     }
 
+    // Método para mostrar la semilla de la partida
+    public void setSeed(long seed) {
+        seedText.setText("Semilla: " + seed);
+    }
+
     // NUEVO: Método para actualizar solo la vida del portal
     public void updatePortalLife(int portalLife) {
         if (portalLifeText != null) {